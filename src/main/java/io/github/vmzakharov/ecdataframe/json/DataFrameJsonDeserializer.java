@@ -0,0 +1,53 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+
+import java.io.IOException;
+
+/**
+ * A Jackson deserializer reading data frames directly from the parser of the enclosing document, expecting them to be
+ * laid out according to the properties of a Json data set (by rows or by columns, with or without schema, etc.). The
+ * values are added to the data frame as they are parsed, no intermediate tree of Json nodes is created.
+ * <p>
+ * A schema embedded in the Json is used only for the data frame it describes and does not change the data set, so a
+ * single deserializer can be used concurrently.
+ * <p>
+ * Not meant to be serialized, the data set is transient.
+ */
+public class DataFrameJsonDeserializer
+extends StdDeserializer<DataFrame>
+{
+    static private final long serialVersionUID = 1L;
+
+    private final transient JsonDataSet dataSet;
+
+    /**
+     * Creates a deserializer reading data frames with their schemas included, as written by
+     * {@link DataFrameJsonSerializer#DataFrameJsonSerializer()}
+     */
+    public DataFrameJsonDeserializer()
+    {
+        this(DataFrameModule.defaultDataSet());
+    }
+
+    /**
+     * Creates a deserializer reading data frames laid out as described by the data set
+     *
+     * @param newDataSet the data set describing the Json layout of the data frames
+     */
+    public DataFrameJsonDeserializer(JsonDataSet newDataSet)
+    {
+        super(DataFrame.class);
+        this.dataSet = newDataSet;
+    }
+
+    @Override
+    public DataFrame deserialize(JsonParser parser, DeserializationContext context)
+    throws IOException
+    {
+        return new JsonDataFrameReader(this.dataSet, false).read(parser);
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+
+import java.io.IOException;
+
+/**
+ * A Jackson serializer writing data frames directly to the generator of the enclosing document, laid out according to
+ * the properties of a Json data set (by rows or by columns, with or without schema, etc.). No intermediate string or
+ * tree of Json nodes is created.
+ * <p>
+ * The data frames are always written sequentially, regardless of the parallelism of the data set.
+ * <p>
+ * Not meant to be serialized, the data set is transient.
+ */
+public class DataFrameJsonSerializer
+extends StdSerializer<DataFrame>
+{
+    static private final long serialVersionUID = 1L;
+
+    private final transient JsonDataSet dataSet;
+
+    /**
+     * Creates a serializer writing data frames with their schemas included, so that they can be read back by
+     * {@link DataFrameJsonDeserializer#DataFrameJsonDeserializer()}
+     */
+    public DataFrameJsonSerializer()
+    {
+        this(DataFrameModule.defaultDataSet());
+    }
+
+    /**
+     * Creates a serializer writing data frames laid out as described by the data set
+     *
+     * @param newDataSet the data set describing the Json layout of the data frames
+     */
+    public DataFrameJsonSerializer(JsonDataSet newDataSet)
+    {
+        super(DataFrame.class);
+        this.dataSet = newDataSet;
+    }
+
+    @Override
+    public void serialize(DataFrame dataFrame, JsonGenerator generator, SerializerProvider provider)
+    throws IOException
+    {
+        new JsonDataFrameWriter(this.dataSet).write(dataFrame, generator);
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+
+/**
+ * A Jackson module adding support for data frames, so that objects containing data frames can be serialized and
+ * deserialized by an {@code ObjectMapper} in a single pass:
+ * <pre>
+ * ObjectMapper mapper = new ObjectMapper().registerModule(new DataFrameModule());
+ * </pre>
+ * The data frames are streamed directly into the enclosing document and out of it, laid out according to the
+ * properties of a Json data set.
+ * <p>
+ * The module is not meant to be serialized, Java serialization of its serializer and deserializer does not retain
+ * their data set.
+ */
+public class DataFrameModule
+extends SimpleModule
+{
+    static private final long serialVersionUID = 1L;
+
+    /**
+     * Creates a module writing and reading data frames organized by rows with their names and schemas included
+     */
+    public DataFrameModule()
+    {
+        this(defaultDataSet());
+    }
+
+    /**
+     * Creates a module writing and reading data frames laid out as described by the data set. If the data set does
+     * not include the schema in the Json, it must specify the schema for reading.
+     *
+     * @param dataSet the data set describing the Json layout of the data frames
+     */
+    public DataFrameModule(JsonDataSet dataSet)
+    {
+        super("DataFrameModule");
+
+        this.addSerializer(DataFrame.class, new DataFrameJsonSerializer(dataSet));
+        this.addDeserializer(DataFrame.class, new DataFrameJsonDeserializer(dataSet));
+    }
+
+    static JsonDataSet defaultDataSet()
+    {
+        return new JsonDataSet("data frame").schemaIncluded(true);
+    }
+}
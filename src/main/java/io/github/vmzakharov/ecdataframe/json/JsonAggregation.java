@@ -0,0 +1,267 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import io.github.vmzakharov.ecdataframe.dataframe.AggregateFunction;
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.dataframe.DfColumn;
+import io.github.vmzakharov.ecdataframe.dataframe.aggregation.Avg;
+import io.github.vmzakharov.ecdataframe.dataframe.aggregation.Avg2d;
+import io.github.vmzakharov.ecdataframe.dataframe.aggregation.Count;
+import io.github.vmzakharov.ecdataframe.dataframe.aggregation.Max;
+import io.github.vmzakharov.ecdataframe.dataframe.aggregation.Min;
+import io.github.vmzakharov.ecdataframe.dataframe.aggregation.Same;
+import io.github.vmzakharov.ecdataframe.dataframe.aggregation.Sum;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchema;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchemaColumn;
+import io.github.vmzakharov.ecdataframe.dsl.value.ValueType;
+import io.github.vmzakharov.ecdataframe.util.ExceptionFactory;
+import org.eclipse.collections.api.list.ListIterable;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.api.map.primitive.MutableObjectIntMap;
+import org.eclipse.collections.impl.factory.Lists;
+import org.eclipse.collections.impl.factory.primitive.ObjectIntMaps;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * Aggregates data read from Json without materializing all of it as a data frame. The rows are read in batches, each
+ * batch is aggregated using the data frame aggregation and the partial aggregates are merged into the running result,
+ * so the memory used is proportional to the batch size and the number of groups rather than to the number of rows.
+ * <p>
+ * The running result is a data frame with a row per group, kept unsealed while the data is read, and a hash map from
+ * the values of the group by columns to the row of the group. The aggregates of a group seen before are merged in
+ * place into the primitive columns of its row, those of a new group are appended as a new row, so merging a batch
+ * takes time proportional to the number of groups in the batch, not to the number of groups seen so far.
+ * <p>
+ * Sums, minimums, maximums and "same" values are merged by applying the same aggregation to the partial results,
+ * counts are merged by summing them, and averages are computed from the merged sums and counts once all the rows have
+ * been read, the same way the data frame aggregation computes them.
+ */
+final class JsonAggregation
+{
+    static private final String SUM_SUFFIX = "#sum";
+    static private final String COUNT_SUFFIX = "#count";
+
+    private final JsonDataSet dataSet;
+    private final ListIterable<AggregateFunction> aggregators;
+    private final ListIterable<String> groupByColumns;
+
+    private final MutableList<AggregateFunction> partialAggregators = Lists.mutable.of();
+    private final MutableList<AggregateFunction> mergeAggregators = Lists.mutable.of();
+
+    private final MutableObjectIntMap<ListIterable<Object>> groupRows = ObjectIntMaps.mutable.empty();
+
+    private DataFrame accumulated;
+    private ListIterable<DfColumn> accumulatedColumns;
+    private ListIterable<DfColumn> accumulatedTargetColumns;
+    private String resultName;
+
+    JsonAggregation(JsonDataSet newDataSet, ListIterable<AggregateFunction> newAggregators, ListIterable<String> newGroupByColumns)
+    {
+        this.dataSet = newDataSet;
+        this.aggregators = newAggregators;
+        this.groupByColumns = newGroupByColumns;
+
+        this.aggregators.forEach(this::addPartialAndMergeAggregators);
+    }
+
+    private void addPartialAndMergeAggregators(AggregateFunction aggregator)
+    {
+        String source = aggregator.getSourceColumnName();
+        String target = aggregator.getTargetColumnName();
+
+        if (this.isAverage(aggregator))
+        {
+            this.partialAggregators.add(AggregateFunction.sum(source, target + SUM_SUFFIX));
+            this.partialAggregators.add(AggregateFunction.count(source, target + COUNT_SUFFIX));
+            this.mergeAggregators.add(AggregateFunction.sum(target + SUM_SUFFIX));
+            this.mergeAggregators.add(AggregateFunction.sum(target + COUNT_SUFFIX));
+        }
+        else if (aggregator instanceof Sum || aggregator instanceof Count)
+        {
+            this.partialAggregators.add(aggregator);
+            this.mergeAggregators.add(AggregateFunction.sum(target));
+        }
+        else if (aggregator instanceof Min)
+        {
+            this.partialAggregators.add(aggregator);
+            this.mergeAggregators.add(AggregateFunction.min(target));
+        }
+        else if (aggregator instanceof Max)
+        {
+            this.partialAggregators.add(aggregator);
+            this.mergeAggregators.add(AggregateFunction.max(target));
+        }
+        else if (aggregator instanceof Same)
+        {
+            this.partialAggregators.add(aggregator);
+            this.mergeAggregators.add(AggregateFunction.same(target));
+        }
+        else
+        {
+            throw ExceptionFactory
+                    .exception("Aggregation " + aggregator.getName() + " is not supported when aggregating Json as it is read")
+                    .getUnsupported();
+        }
+    }
+
+    private boolean isAverage(AggregateFunction aggregator)
+    {
+        return aggregator instanceof Avg || aggregator instanceof Avg2d;
+    }
+
+    /**
+     * Reads and aggregates the data frame the parser is positioned at
+     *
+     * @return the aggregated data frame with a row for each group and a column for each group by column and each
+     * aggregation
+     */
+    public DataFrame aggregate(JsonParser parser)
+    throws IOException
+    {
+        ListIterable<String> columnsToRead = Lists.mutable.withAll(this.groupByColumns)
+                .withAll(this.aggregators.collect(AggregateFunction::getSourceColumnName))
+                .distinct();
+
+        JsonDataFrameReader reader = new JsonDataFrameReader(this.dataSet, false).projection(columnsToRead);
+
+        reader.readInBatches(parser, this.dataSet.batchSize(), this::aggregateBatch);
+
+        return this.finish(reader.schema());
+    }
+
+    private void aggregateBatch(DataFrame batch)
+    {
+        DataFrame partial = batch.aggregateBy(this.partialAggregators, this.groupByColumns);
+
+        if (this.accumulated == null)
+        {
+            this.resultName = partial.getName();
+            this.accumulated = partial.cloneStructure(this.resultName);
+            this.accumulatedColumns = this.accumulated.getColumns().toImmutable();
+            this.accumulatedTargetColumns = this.mergeAggregators.collect(this::accumulatedColumn);
+        }
+
+        this.mergePartial(partial);
+    }
+
+    private DfColumn accumulatedColumn(AggregateFunction mergeAggregator)
+    {
+        return this.accumulated.getColumnNamed(mergeAggregator.getSourceColumnName());
+    }
+
+    /**
+     * Merges each row of the partial aggregate into the row of its group in the running result, adding the row if the
+     * group has not been seen before
+     */
+    private void mergePartial(DataFrame partial)
+    {
+        ListIterable<DfColumn> partialColumns = partial.getColumns();
+        ListIterable<DfColumn> partialGroupByColumns = this.groupByColumns.collect(partial::getColumnNamed);
+        ListIterable<DfColumn> partialTargetColumns = this.mergeAggregators.collect(
+                each -> partial.getColumnNamed(each.getSourceColumnName()));
+
+        int aggregatorCount = this.mergeAggregators.size();
+        int partialRowCount = partial.rowCount();
+
+        for (int partialRow = 0; partialRow < partialRowCount; partialRow++)
+        {
+            int rowIndex = partialRow;
+            ListIterable<Object> key = partialGroupByColumns.collect(column -> column.getObject(rowIndex));
+
+            int groupRow = this.groupRows.getIfAbsent(key, -1);
+            if (groupRow < 0)
+            {
+                this.groupRows.put(key, this.groupRows.size());
+                partialColumns.forEachInBoth(this.accumulatedColumns, (from, to) -> from.addRowToColumn(rowIndex, to));
+            }
+            else
+            {
+                for (int i = 0; i < aggregatorCount; i++)
+                {
+                    this.accumulatedTargetColumns.get(i).applyAggregator(
+                            groupRow, partialTargetColumns.get(i), partialRow, this.mergeAggregators.get(i));
+                }
+            }
+        }
+    }
+
+    private DataFrame finish(CsvSchema schema)
+    {
+        this.accumulated.seal();
+
+        if (this.aggregators.noneSatisfy(this::isAverage))
+        {
+            this.accumulated.setName(this.resultName);
+            return this.accumulated;
+        }
+
+        DataFrame result = new DataFrame(this.resultName);
+
+        this.groupByColumns.forEach(columnName -> this.accumulated.getColumnNamed(columnName).copyTo(result));
+
+        for (AggregateFunction aggregator : this.aggregators)
+        {
+            String target = aggregator.getTargetColumnName();
+
+            if (this.isAverage(aggregator))
+            {
+                CsvSchemaColumn sourceColumn = schema.getColumns().detect(each -> each.getName().equals(aggregator.getSourceColumnName()));
+                this.addAverageColumn(result, target, aggregator.targetColumnType(sourceColumn.getType()));
+            }
+            else
+            {
+                this.accumulated.getColumnNamed(target).copyTo(result);
+            }
+        }
+
+        return result.seal();
+    }
+
+    private void addAverageColumn(DataFrame result, String target, ValueType type)
+    {
+        DfColumn sums = this.accumulated.getColumnNamed(target + SUM_SUFFIX);
+        DfColumn counts = this.accumulated.getColumnNamed(target + COUNT_SUFFIX);
+        DfColumn averages = result.newColumn(target, type);
+
+        int rowCount = this.accumulated.rowCount();
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++)
+        {
+            if (sums.isNull(rowIndex))
+            {
+                averages.addEmptyValue();
+            }
+            else
+            {
+                averages.addObject(this.average(sums.getObject(rowIndex), ((Number) counts.getObject(rowIndex)).longValue(), type));
+            }
+        }
+    }
+
+    private Object average(Object sum, long count, ValueType type)
+    {
+        if (type.isLong())
+        {
+            return ((Number) sum).longValue() / count;
+        }
+
+        if (type.isInt())
+        {
+            return (int) (((Number) sum).longValue() / count);
+        }
+
+        if (type.isFloat())
+        {
+            return (float) (((Number) sum).doubleValue() / count);
+        }
+
+        if (type.isDecimal())
+        {
+            return ((BigDecimal) sum).divide(BigDecimal.valueOf(count), MathContext.DECIMAL128);
+        }
+
+        return ((Number) sum).doubleValue() / count;
+    }
+}
@@ -0,0 +1,136 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.util.ExceptionFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Adds the rows of Json batches to an existing data frame. Each batch is parsed directly into the columns of the data
+ * frame, with no intermediate data frame created for the batch and no union of data frames, and the column populators
+ * resolved for the first batch are reused for the subsequent batches with the same schema. Each batch is a complete
+ * data frame in Json, laid out as described by the properties of the data set.
+ * <p>
+ * The data frame is not sealed as the batches are added, so adding a batch takes time proportional to the size of the
+ * batch rather than the size of the data frame. Call {@link #seal()} once all the batches have been added, or whenever
+ * the data frame needs to be queried, after which more batches may still be added and the data frame sealed again.
+ * <p>
+ * If a batch cannot be read, for example because it is malformed or has a value of the wrong type, the rows of the
+ * batch are discarded and the data frame is left as it was before the batch, so that the following batches can still be
+ * added.
+ * <p>
+ * Instances of this class are not safe to use from multiple threads.
+ */
+public final class JsonAppender
+{
+    private final JsonDataSet dataSet;
+    private final DataFrame dataFrame;
+    private final JsonDataFrameReader reader;
+
+    JsonAppender(JsonDataSet newDataSet, DataFrame newDataFrame)
+    {
+        this.dataSet = newDataSet;
+        this.dataFrame = newDataFrame;
+        this.reader = new JsonDataFrameReader(newDataSet, false).appendTo(newDataFrame);
+    }
+
+    /**
+     * @return the data frame the batches are added to
+     */
+    public DataFrame getDataFrame()
+    {
+        return this.dataFrame;
+    }
+
+    /**
+     * Adds the rows of a batch in a Json string to the data frame
+     *
+     * @param jsonString the Json string containing the batch
+     * @return this appender
+     */
+    public JsonAppender append(String jsonString)
+    {
+        try (JsonParser parser = this.dataSet.jsonMapper().createParser(jsonString))
+        {
+            return this.append(parser);
+        }
+        catch (IOException e)
+        {
+            throw ExceptionFactory.exception("Failed to parse JSON string").get(e);
+        }
+    }
+
+    /**
+     * Adds the rows of a batch in a byte array to the data frame
+     *
+     * @param json the encoded batch, in the format of the Jackson factory of the data set
+     * @return this appender
+     */
+    public JsonAppender append(byte[] json)
+    {
+        try (JsonParser parser = this.dataSet.jsonMapper().createParser(json))
+        {
+            return this.append(parser);
+        }
+        catch (IOException e)
+        {
+            throw ExceptionFactory.exception("Failed to parse " + this.dataSet.jsonFactory().getFormatName()).get(e);
+        }
+    }
+
+    /**
+     * Adds the rows of a batch read from a stream to the data frame. The input stream is not closed.
+     *
+     * @param inputStream the stream to read the batch from
+     * @return this appender
+     */
+    public JsonAppender append(InputStream inputStream)
+    {
+        try (JsonParser parser = this.dataSet.jsonMapper().createParser(inputStream))
+        {
+            return this.append(parser);
+        }
+        catch (IOException e)
+        {
+            throw ExceptionFactory.exception("Failed to parse JSON").get(e);
+        }
+    }
+
+    /**
+     * Adds the rows of a batch in a Json node to the data frame
+     *
+     * @param topNode the Json node containing the batch
+     * @return this appender
+     */
+    public JsonAppender append(JsonNode topNode)
+    {
+        try (JsonParser parser = topNode.traverse(this.dataSet.jsonMapper()))
+        {
+            return this.append(parser);
+        }
+        catch (IOException e)
+        {
+            throw ExceptionFactory.exception("Failed to read JSON object").get(e);
+        }
+    }
+
+    private JsonAppender append(JsonParser parser)
+    throws IOException
+    {
+        this.reader.append(parser);
+        return this;
+    }
+
+    /**
+     * Seals the data frame so that it reflects all the rows added so far
+     *
+     * @return the sealed data frame
+     */
+    public DataFrame seal()
+    {
+        return this.dataFrame.seal();
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.util.ExceptionFactory;
+import org.eclipse.collections.api.block.function.Function;
+import org.eclipse.collections.api.list.ListIterable;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.impl.factory.Lists;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Converts many small documents between Json and data frames concurrently. The documents are split into tasks of
+ * consecutive documents, and each task converts its documents one after another reusing the same converter: a single
+ * reader, whose resolved schema state is reset for each document, or a single writer along with its output buffer. This
+ * avoids the setup and the garbage of converting each document with a separate call, while the Jackson factory of the
+ * data set recycles the parser and generator buffers.
+ * <p>
+ * Reading does not publish the schema read from the documents to the data set, unlike reading a single document, as
+ * the documents are read concurrently and may have different schemas.
+ */
+final class JsonBatchConverter
+{
+    static private final int MAX_DOCUMENTS_PER_TASK = 64;
+
+    private final JsonDataSet dataSet;
+    private final Executor executor;
+
+    JsonBatchConverter(JsonDataSet newDataSet, Executor newExecutor)
+    {
+        this.dataSet = newDataSet;
+        this.executor = newExecutor;
+    }
+
+    MutableList<DataFrame> fromJsonStrings(ListIterable<String> jsonStrings)
+    {
+        return this.convertAll(jsonStrings, () -> {
+            JsonDataFrameReader reader = new JsonDataFrameReader(this.dataSet, false);
+
+            return jsonString -> {
+                try (JsonParser parser = this.dataSet.jsonMapper().createParser(jsonString))
+                {
+                    return reader.read(parser);
+                }
+                catch (IOException e)
+                {
+                    throw ExceptionFactory.exception("Failed to parse JSON string").get(e);
+                }
+            };
+        });
+    }
+
+    MutableList<String> toJsonStrings(ListIterable<DataFrame> dataFrames)
+    {
+        return this.convertAll(dataFrames, () -> {
+            JsonDataFrameWriter writer = new JsonDataFrameWriter(this.dataSet);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+            return dataFrame -> {
+                buffer.reset();
+                writer.write(dataFrame, buffer);
+                return buffer.toString(StandardCharsets.UTF_8);
+            };
+        });
+    }
+
+    /**
+     * Converts the documents, a task at a time on the executor
+     *
+     * @param documents the documents to convert
+     * @param converterFactory creates the converter used by a task for all of its documents
+     * @return the converted documents in the same order as the documents passed in
+     */
+    private <S, T> MutableList<T> convertAll(ListIterable<S> documents, Supplier<Function<S, T>> converterFactory)
+    {
+        int documentCount = documents.size();
+        if (documentCount == 0)
+        {
+            return Lists.mutable.empty();
+        }
+
+        // enough tasks to keep all the processors busy, but no fewer documents in a task than necessary
+        int processorCount = Runtime.getRuntime().availableProcessors();
+        int taskSize = Math.min(MAX_DOCUMENTS_PER_TASK, (documentCount + processorCount - 1) / processorCount);
+
+        // each task sets the elements of its own range, the list is not resized
+        MutableList<T> converted = Lists.mutable.withNValues(documentCount, () -> null);
+
+        MutableList<CompletableFuture<Void>> tasks = Lists.mutable.withInitialCapacity((documentCount + taskSize - 1) / taskSize);
+
+        for (int from = 0; from < documentCount; from += taskSize)
+        {
+            int taskFrom = from;
+            int taskTo = Math.min(from + taskSize, documentCount);
+
+            tasks.add(CompletableFuture.runAsync(() -> {
+                Function<S, T> converter = converterFactory.get();
+                for (int documentIndex = taskFrom; documentIndex < taskTo; documentIndex++)
+                {
+                    converted.set(documentIndex, converter.valueOf(documents.get(documentIndex)));
+                }
+            }, this.executor));
+        }
+
+        try
+        {
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+        }
+        catch (CompletionException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw ExceptionFactory.exception("Failed to convert documents").get(e.getCause());
+        }
+
+        return converted;
+    }
+}
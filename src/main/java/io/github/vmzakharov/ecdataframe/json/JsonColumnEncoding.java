@@ -0,0 +1,36 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+/**
+ * The encodings of column values in JSON other than the default one. When the schema is included in the JSON object,
+ * the encoding of a column is recorded in the {@code Encoding} attribute of the column, so that the data can be decoded
+ * regardless of the settings of the data set used for reading it.
+ */
+enum JsonColumnEncoding
+{
+    /**
+     * {@code DATE} values encoded as the number of days since 1970-01-01
+     */
+    EPOCH_DAY(0L),
+
+    /**
+     * {@code DATE_TIME} values encoded as the number of milliseconds since 1970-01-01T00:00:00
+     */
+    EPOCH_MILLIS(1_000L),
+
+    /**
+     * {@code DATE_TIME} values encoded as the number of microseconds since 1970-01-01T00:00:00
+     */
+    EPOCH_MICROS(1_000_000L);
+
+    private final long unitsPerSecond;
+
+    JsonColumnEncoding(long newUnitsPerSecond)
+    {
+        this.unitsPerSecond = newUnitsPerSecond;
+    }
+
+    public long unitsPerSecond()
+    {
+        return this.unitsPerSecond;
+    }
+}
@@ -0,0 +1,440 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.github.vmzakharov.ecdataframe.dataframe.DfBooleanColumnStored;
+import io.github.vmzakharov.ecdataframe.dataframe.DfColumn;
+import io.github.vmzakharov.ecdataframe.dataframe.DfDoubleColumnStored;
+import io.github.vmzakharov.ecdataframe.dataframe.DfFloatColumnStored;
+import io.github.vmzakharov.ecdataframe.dataframe.DfIntColumnStored;
+import io.github.vmzakharov.ecdataframe.dataframe.DfLongColumnStored;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchemaColumn;
+import io.github.vmzakharov.ecdataframe.dsl.value.ValueType;
+import io.github.vmzakharov.ecdataframe.util.ExceptionFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static io.github.vmzakharov.ecdataframe.util.ExceptionFactory.exceptionByKey;
+
+/**
+ * Appends the value at the current token of a JSON parser to a data frame column. Values of the JSON types that
+ * naturally correspond to the column type (numbers for numeric columns, booleans for boolean columns, etc.) are
+ * converted directly from the parser, any other values are converted from their text using the schema column, the
+ * same way the values are parsed when reading CSV files.
+ */
+abstract class JsonColumnPopulator
+{
+    static private final String DEFAULT_DATE_PATTERN = "uuuu-M-d";
+    static private final String DEFAULT_DATE_TIME_PATTERN = "uuuu-M-d'T'H:m:s";
+
+    private final CsvSchemaColumn schemaColumn;
+    private final DfColumn column;
+
+    JsonColumnPopulator(CsvSchemaColumn newSchemaColumn, DfColumn newColumn)
+    {
+        this.schemaColumn = newSchemaColumn;
+        this.column = newColumn;
+    }
+
+    /**
+     * Creates a populator for a data frame column
+     *
+     * @param schemaColumn the schema column describing the column
+     * @param column the column to populate
+     * @param encoding the encoding of the column values in the input or {@code null} if the values are not encoded
+     * @return the populator for the column
+     */
+    static JsonColumnPopulator forColumn(CsvSchemaColumn schemaColumn, DfColumn column, JsonColumnEncoding encoding)
+    {
+        return switch (schemaColumn.getType())
+        {
+            case LONG -> new LongPopulator(schemaColumn, column);
+            case INT -> new IntPopulator(schemaColumn, column);
+            case DOUBLE -> new DoublePopulator(schemaColumn, column);
+            case FLOAT -> new FloatPopulator(schemaColumn, column);
+            case BOOLEAN -> new BooleanPopulator(schemaColumn, column);
+            case DECIMAL -> new DecimalPopulator(schemaColumn, column);
+            case STRING -> new TextPopulator(schemaColumn, column);
+            case DATE -> new DatePopulator(
+                    schemaColumn, column, DEFAULT_DATE_PATTERN.equals(schemaColumn.getPattern()), encoding);
+            case DATE_TIME -> new DateTimePopulator(
+                    schemaColumn, column, DEFAULT_DATE_TIME_PATTERN.equals(schemaColumn.getPattern()), encoding);
+            default -> throw exceptionByKey("CSV_POPULATING_BAD_COL_TYPE").with("columnType", schemaColumn.getType()).get();
+        };
+    }
+
+    /**
+     * Creates a populator decoding the values of a {@code LONG} or {@code INT} column written with a compact encoding
+     *
+     * @param populator the populator of the column
+     * @param encoding the encoding of the column values
+     * @param base the base value of the encoding
+     * @return the populator adding the decoded values to the column
+     */
+    static JsonColumnPopulator decoding(JsonColumnPopulator populator, JsonNumberEncoding encoding, long base)
+    {
+        ValueType type = populator.getColumn().getType();
+        if (!type.isLong() && !type.isInt())
+        {
+            throw ExceptionFactory
+                    .exception("Encoding " + encoding + " of column " + populator.getColumnName() + " is only supported for LONG and INT columns")
+                    .get();
+        }
+
+        return new DecodingPopulator(populator.schemaColumn, populator.getColumn(), encoding, base);
+    }
+
+    public DfColumn getColumn()
+    {
+        return this.column;
+    }
+
+    public String getColumnName()
+    {
+        return this.column.getName();
+    }
+
+    /**
+     * Adds the value at the current token of the parser to the column
+     *
+     * @param parser the parser positioned on a scalar value
+     */
+    public void populateFrom(JsonParser parser)
+    throws IOException
+    {
+        JsonToken token = parser.currentToken();
+
+        if (token == JsonToken.VALUE_NULL)
+        {
+            this.column.addEmptyValue();
+        }
+        else if (token.isStructStart())
+        {
+            throw ExceptionFactory
+                    .exception("Unexpected " + token + " in column " + this.getColumnName() + ", expected a scalar value")
+                    .get();
+        }
+        else
+        {
+            this.populateWithValue(parser);
+        }
+    }
+
+    abstract protected void populateWithValue(JsonParser parser)
+    throws IOException;
+
+    protected void populateWithText(JsonParser parser)
+    throws IOException
+    {
+        this.schemaColumn.parseAndAddToColumn(parser.getText(), this.column);
+    }
+
+    static private final class LongPopulator
+    extends JsonColumnPopulator
+    {
+        private final DfLongColumnStored longColumn;
+
+        private LongPopulator(CsvSchemaColumn newSchemaColumn, DfColumn newColumn)
+        {
+            super(newSchemaColumn, newColumn);
+            this.longColumn = (DfLongColumnStored) newColumn;
+        }
+
+        @Override
+        protected void populateWithValue(JsonParser parser)
+        throws IOException
+        {
+            if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT)
+            {
+                this.longColumn.addLong(parser.getLongValue(), false);
+            }
+            else
+            {
+                this.populateWithText(parser);
+            }
+        }
+    }
+
+    /**
+     * Populates a {@code LONG} or {@code INT} column from the values written with a compact encoding, the decoded
+     * values are added to the column directly
+     */
+    static private final class DecodingPopulator
+    extends JsonColumnPopulator
+    {
+        private final DfLongColumnStored longColumn;
+        private final DfIntColumnStored intColumn;
+        private final JsonNumberEncoding encoding;
+        private long reference;
+
+        private DecodingPopulator(CsvSchemaColumn newSchemaColumn, DfColumn newColumn, JsonNumberEncoding newEncoding, long base)
+        {
+            super(newSchemaColumn, newColumn);
+            this.longColumn = newColumn instanceof DfLongColumnStored longStored ? longStored : null;
+            this.intColumn = newColumn instanceof DfIntColumnStored intStored ? intStored : null;
+            this.encoding = newEncoding;
+            this.reference = base;
+        }
+
+        @Override
+        protected void populateWithValue(JsonParser parser)
+        throws IOException
+        {
+            if (parser.currentToken() != JsonToken.VALUE_NUMBER_INT)
+            {
+                throw ExceptionFactory
+                        .exception("Unexpected " + parser.currentToken() + " in column " + this.getColumnName() + " encoded as " + this.encoding)
+                        .get();
+            }
+
+            long value = this.encoding.decode(parser.getLongValue(), this.reference);
+            this.reference = this.encoding.nextReference(value, this.reference);
+
+            if (this.longColumn == null)
+            {
+                this.intColumn.addInt((int) value, false);
+            }
+            else
+            {
+                this.longColumn.addLong(value, false);
+            }
+        }
+    }
+
+    static private final class IntPopulator
+    extends JsonColumnPopulator
+    {
+        private final DfIntColumnStored intColumn;
+
+        private IntPopulator(CsvSchemaColumn newSchemaColumn, DfColumn newColumn)
+        {
+            super(newSchemaColumn, newColumn);
+            this.intColumn = (DfIntColumnStored) newColumn;
+        }
+
+        @Override
+        protected void populateWithValue(JsonParser parser)
+        throws IOException
+        {
+            if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT)
+            {
+                this.intColumn.addInt(parser.getIntValue(), false);
+            }
+            else
+            {
+                this.populateWithText(parser);
+            }
+        }
+    }
+
+    static private final class DoublePopulator
+    extends JsonColumnPopulator
+    {
+        private final DfDoubleColumnStored doubleColumn;
+
+        private DoublePopulator(CsvSchemaColumn newSchemaColumn, DfColumn newColumn)
+        {
+            super(newSchemaColumn, newColumn);
+            this.doubleColumn = (DfDoubleColumnStored) newColumn;
+        }
+
+        @Override
+        protected void populateWithValue(JsonParser parser)
+        throws IOException
+        {
+            if (parser.currentToken().isNumeric())
+            {
+                this.doubleColumn.addDouble(parser.getDoubleValue());
+            }
+            else
+            {
+                this.populateWithText(parser);
+            }
+        }
+    }
+
+    static private final class FloatPopulator
+    extends JsonColumnPopulator
+    {
+        private final DfFloatColumnStored floatColumn;
+
+        private FloatPopulator(CsvSchemaColumn newSchemaColumn, DfColumn newColumn)
+        {
+            super(newSchemaColumn, newColumn);
+            this.floatColumn = (DfFloatColumnStored) newColumn;
+        }
+
+        @Override
+        protected void populateWithValue(JsonParser parser)
+        throws IOException
+        {
+            if (parser.currentToken().isNumeric())
+            {
+                this.floatColumn.addFloat(parser.getFloatValue());
+            }
+            else
+            {
+                this.populateWithText(parser);
+            }
+        }
+    }
+
+    static private final class BooleanPopulator
+    extends JsonColumnPopulator
+    {
+        private final DfBooleanColumnStored booleanColumn;
+
+        private BooleanPopulator(CsvSchemaColumn newSchemaColumn, DfColumn newColumn)
+        {
+            super(newSchemaColumn, newColumn);
+            this.booleanColumn = (DfBooleanColumnStored) newColumn;
+        }
+
+        @Override
+        protected void populateWithValue(JsonParser parser)
+        throws IOException
+        {
+            if (parser.currentToken().isBoolean())
+            {
+                this.booleanColumn.addBoolean(parser.getBooleanValue(), false);
+            }
+            else
+            {
+                this.populateWithText(parser);
+            }
+        }
+    }
+
+    static private final class DecimalPopulator
+    extends JsonColumnPopulator
+    {
+        private DecimalPopulator(CsvSchemaColumn newSchemaColumn, DfColumn newColumn)
+        {
+            super(newSchemaColumn, newColumn);
+        }
+
+        @Override
+        protected void populateWithValue(JsonParser parser)
+        throws IOException
+        {
+            if (parser.currentToken().isNumeric())
+            {
+                BigDecimal value = JsonDecimalCodec.parseDecimal(
+                        parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+
+                this.getColumn().addObject(value == null ? parser.getDecimalValue() : value);
+            }
+            else
+            {
+                this.populateWithText(parser);
+            }
+        }
+    }
+
+    /**
+     * Populates a date column from ISO-8601 strings, from strings in the schema column format or from numbers of days
+     * since the epoch if the column values are encoded that way
+     */
+    static private final class DatePopulator
+    extends JsonColumnPopulator
+    {
+        private final boolean isoText;
+        private final boolean epochDays;
+
+        private DatePopulator(CsvSchemaColumn newSchemaColumn, DfColumn newColumn, boolean newIsoText, JsonColumnEncoding encoding)
+        {
+            super(newSchemaColumn, newColumn);
+            this.isoText = newIsoText;
+            this.epochDays = encoding == JsonColumnEncoding.EPOCH_DAY;
+        }
+
+        @Override
+        protected void populateWithValue(JsonParser parser)
+        throws IOException
+        {
+            JsonToken token = parser.currentToken();
+            LocalDate date = null;
+
+            if (token == JsonToken.VALUE_NUMBER_INT && this.epochDays)
+            {
+                date = LocalDate.ofEpochDay(parser.getLongValue());
+            }
+            else if (token == JsonToken.VALUE_STRING && this.isoText)
+            {
+                date = JsonTemporalCodec.parseDate(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            }
+
+            if (date == null)
+            {
+                this.populateWithText(parser);
+            }
+            else
+            {
+                this.getColumn().addObject(date);
+            }
+        }
+    }
+
+    /**
+     * Populates a date-time column from ISO-8601 strings, from strings in the schema column format or from numbers
+     * of units since the epoch if the column values are encoded that way
+     */
+    static private final class DateTimePopulator
+    extends JsonColumnPopulator
+    {
+        private final boolean isoText;
+        private final JsonColumnEncoding encoding;
+
+        private DateTimePopulator(CsvSchemaColumn newSchemaColumn, DfColumn newColumn, boolean newIsoText, JsonColumnEncoding newEncoding)
+        {
+            super(newSchemaColumn, newColumn);
+            this.isoText = newIsoText;
+            this.encoding = newEncoding;
+        }
+
+        @Override
+        protected void populateWithValue(JsonParser parser)
+        throws IOException
+        {
+            JsonToken token = parser.currentToken();
+            LocalDateTime dateTime = null;
+
+            if (token == JsonToken.VALUE_NUMBER_INT && this.encoding != null)
+            {
+                dateTime = JsonTemporalCodec.fromEpochUnits(parser.getLongValue(), this.encoding.unitsPerSecond());
+            }
+            else if (token == JsonToken.VALUE_STRING && this.isoText)
+            {
+                dateTime = JsonTemporalCodec.parseDateTime(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            }
+
+            if (dateTime == null)
+            {
+                this.populateWithText(parser);
+            }
+            else
+            {
+                this.getColumn().addObject(dateTime);
+            }
+        }
+    }
+
+    static private final class TextPopulator
+    extends JsonColumnPopulator
+    {
+        private TextPopulator(CsvSchemaColumn newSchemaColumn, DfColumn newColumn)
+        {
+            super(newSchemaColumn, newColumn);
+        }
+
+        @Override
+        protected void populateWithValue(JsonParser parser)
+        throws IOException
+        {
+            this.populateWithText(parser);
+        }
+    }
+}
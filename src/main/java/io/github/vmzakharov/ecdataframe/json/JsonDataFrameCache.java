@@ -0,0 +1,369 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.util.ExceptionFactory;
+import org.eclipse.collections.api.list.ImmutableList;
+import org.eclipse.collections.api.list.ListIterable;
+import org.eclipse.collections.impl.factory.Lists;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A cache of data frames read from Json files, for applications that repeatedly read the same files, such as reference
+ * data. A data frame is cached under the path of the file and the configuration of the data set it was read with (the
+ * layout, the schema, the temporal encoding and the format), and is reused as long as the last modified time and the
+ * size of the file stay the same. If the file has changed, it is read again and the new data frame replaces the cached
+ * one.
+ * <p>
+ * The total heap size of the cached data frames, as estimated by {@link JsonLoadEstimate}, is kept within the limit
+ * specified when the cache is created by evicting the least recently used data frames. A data frame larger than the
+ * limit is returned but not cached.
+ * <p>
+ * When several threads request the same file at the same time, the file is read only once: the first thread reads it
+ * and the other threads wait for the result. The cached data frames are shared by all the callers and must not be
+ * modified. Loading a file does not change the data set it is loaded with, the schema embedded in the file is not
+ * published to the data set as it is by {@link JsonDataSet#readJson(Path)}.
+ * <p>
+ * Instances of this class are safe to use from multiple threads.
+ */
+public final class JsonDataFrameCache
+{
+    private final long maxHeapSize;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Key, CompletableFuture<Entry>> loading = new LinkedHashMap<>();
+
+    private long heapSize = 0L;
+    private long hitCount = 0L;
+    private long missCount = 0L;
+    private long loadCount = 0L;
+    private long evictionCount = 0L;
+
+    /**
+     * @param newMaxHeapSize the maximum estimated number of bytes taken by the cached data frames
+     */
+    public JsonDataFrameCache(long newMaxHeapSize)
+    {
+        if (newMaxHeapSize <= 0L)
+        {
+            throw ExceptionFactory.exception("Cache size must be positive, specified " + newMaxHeapSize).get();
+        }
+
+        this.maxHeapSize = newMaxHeapSize;
+    }
+
+    /**
+     * Returns the data frame read from a Json file with the specified data set, reading the file if the data frame
+     * is not cached or the file has changed since it was cached
+     *
+     * @param dataSet the data set to read the file with
+     * @param jsonFile the Json file
+     * @return the data frame read from the file, which must not be modified
+     */
+    public DataFrame load(JsonDataSet dataSet, Path jsonFile)
+    {
+        Key key = new Key(jsonFile.toAbsolutePath().normalize(), dataSet.readConfiguration());
+        FileVersion version = FileVersion.of(key.path);
+
+        CompletableFuture<Entry> pending;
+        boolean loader = false;
+
+        synchronized (this)
+        {
+            Entry entry = this.entries.get(key);
+
+            if (entry != null && entry.version.equals(version))
+            {
+                this.hitCount++;
+                return entry.dataFrame;
+            }
+
+            this.missCount++;
+
+            pending = this.loading.get(key);
+            if (pending == null)
+            {
+                pending = new CompletableFuture<>();
+                this.loading.put(key, pending);
+                loader = true;
+            }
+        }
+
+        if (loader)
+        {
+            return this.loadAndCache(dataSet, key, version, pending).dataFrame;
+        }
+
+        try
+        {
+            return pending.join().dataFrame;
+        }
+        catch (CompletionException e)
+        {
+            if (e.getCause() instanceof RuntimeException runtimeException)
+            {
+                throw runtimeException;
+            }
+
+            throw ExceptionFactory.exception("Failed to load " + jsonFile).get(e.getCause());
+        }
+    }
+
+    private Entry loadAndCache(JsonDataSet dataSet, Key key, FileVersion version, CompletableFuture<Entry> pending)
+    {
+        Entry entry;
+        try
+        {
+            // the schema embedded in the file is not published to the data set, as it would change the key of the data
+            // set for the subsequent loads and the schema other threads read with
+            DataFrame dataFrame = dataSet.readJson(key.path, false);
+            entry = new Entry(dataFrame, version, JsonLoadEstimate.ofDataFrame(dataFrame).getHeapSize());
+        }
+        catch (RuntimeException e)
+        {
+            synchronized (this)
+            {
+                this.loading.remove(key);
+            }
+
+            pending.completeExceptionally(e);
+            throw e;
+        }
+
+        synchronized (this)
+        {
+            this.loading.remove(key);
+            this.loadCount++;
+
+            Entry replaced = this.entries.remove(key);
+            if (replaced != null)
+            {
+                this.heapSize -= replaced.heapSize;
+            }
+
+            if (entry.heapSize <= this.maxHeapSize)
+            {
+                this.entries.put(key, entry);
+                this.heapSize += entry.heapSize;
+                this.evictToFit();
+            }
+        }
+
+        pending.complete(entry);
+        return entry;
+    }
+
+    private void evictToFit()
+    {
+        Iterator<Entry> leastRecentlyUsed = this.entries.values().iterator();
+
+        while (this.heapSize > this.maxHeapSize && leastRecentlyUsed.hasNext())
+        {
+            this.heapSize -= leastRecentlyUsed.next().heapSize;
+            leastRecentlyUsed.remove();
+            this.evictionCount++;
+        }
+    }
+
+    /**
+     * Removes all the data frames from the cache, the statistics are not reset
+     */
+    public synchronized void clear()
+    {
+        this.entries.clear();
+        this.heapSize = 0L;
+    }
+
+    /**
+     * @return the paths of the files with cached data frames, from the least to the most recently used
+     */
+    public synchronized ListIterable<Path> cachedPaths()
+    {
+        return Lists.immutable.fromStream(this.entries.keySet().stream().map(key -> key.path));
+    }
+
+    /**
+     * @return a snapshot of the statistics of the cache
+     */
+    public synchronized Statistics statistics()
+    {
+        return new Statistics(
+                this.hitCount, this.missCount, this.loadCount, this.evictionCount, this.entries.size(), this.heapSize);
+    }
+
+    /**
+     * The statistics of a cache at the time they were taken
+     */
+    static public final class Statistics
+    {
+        private final long hitCount;
+        private final long missCount;
+        private final long loadCount;
+        private final long evictionCount;
+        private final int entryCount;
+        private final long heapSize;
+
+        private Statistics(long newHitCount, long newMissCount, long newLoadCount, long newEvictionCount, int newEntryCount, long newHeapSize)
+        {
+            this.hitCount = newHitCount;
+            this.missCount = newMissCount;
+            this.loadCount = newLoadCount;
+            this.evictionCount = newEvictionCount;
+            this.entryCount = newEntryCount;
+            this.heapSize = newHeapSize;
+        }
+
+        /**
+         * @return the number of requests served from the cache
+         */
+        public long getHitCount()
+        {
+            return this.hitCount;
+        }
+
+        /**
+         * @return the number of requests not served from the cache, including the requests that waited for the same file
+         * to be read by another request
+         */
+        public long getMissCount()
+        {
+            return this.missCount;
+        }
+
+        /**
+         * @return the number of times a file was read
+         */
+        public long getLoadCount()
+        {
+            return this.loadCount;
+        }
+
+        /**
+         * @return the number of data frames evicted to keep the cache within its size limit
+         */
+        public long getEvictionCount()
+        {
+            return this.evictionCount;
+        }
+
+        /**
+         * @return the number of cached data frames
+         */
+        public int getEntryCount()
+        {
+            return this.entryCount;
+        }
+
+        /**
+         * @return the estimated number of bytes taken by the cached data frames
+         */
+        public long getHeapSize()
+        {
+            return this.heapSize;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Statistics{hits=" + this.hitCount + ", misses=" + this.missCount + ", loads=" + this.loadCount
+                    + ", evictions=" + this.evictionCount + ", entries=" + this.entryCount + ", heapSize=" + this.heapSize + "}";
+        }
+    }
+
+    /**
+     * The file and the configuration of the data set a data frame was read with
+     */
+    static private final class Key
+    {
+        private final Path path;
+        private final ImmutableList<Object> configuration;
+
+        private Key(Path newPath, ImmutableList<Object> newConfiguration)
+        {
+            this.path = newPath;
+            this.configuration = newConfiguration;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            if (this == other)
+            {
+                return true;
+            }
+
+            return other instanceof Key that
+                    && this.path.equals(that.path) && this.configuration.equals(that.configuration);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(this.path, this.configuration);
+        }
+    }
+
+    /**
+     * The last modified time and the size of a file, which identify the version of the contents of the file
+     */
+    static private final class FileVersion
+    {
+        private final long lastModifiedMillis;
+        private final long size;
+
+        private FileVersion(long newLastModifiedMillis, long newSize)
+        {
+            this.lastModifiedMillis = newLastModifiedMillis;
+            this.size = newSize;
+        }
+
+        static FileVersion of(Path path)
+        {
+            try
+            {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                return new FileVersion(attributes.lastModifiedTime().toMillis(), attributes.size());
+            }
+            catch (IOException e)
+            {
+                throw ExceptionFactory.exception("Failed to read " + path).get(e);
+            }
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            return other instanceof FileVersion that
+                    && this.lastModifiedMillis == that.lastModifiedMillis && this.size == that.size;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(this.lastModifiedMillis, this.size);
+        }
+    }
+
+    static private final class Entry
+    {
+        private final DataFrame dataFrame;
+        private final FileVersion version;
+        private final long heapSize;
+
+        private Entry(DataFrame newDataFrame, FileVersion newVersion, long newHeapSize)
+        {
+            this.dataFrame = newDataFrame;
+            this.version = newVersion;
+            this.heapSize = newHeapSize;
+        }
+    }
+}
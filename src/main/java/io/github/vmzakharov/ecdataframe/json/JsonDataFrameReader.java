@@ -0,0 +1,1290 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.TreeNode;
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.dataframe.DfColumn;
+import io.github.vmzakharov.ecdataframe.dataframe.DfColumnComputed;
+import io.github.vmzakharov.ecdataframe.dataframe.DfColumnStored;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchema;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchemaColumn;
+import io.github.vmzakharov.ecdataframe.dsl.value.ValueType;
+import io.github.vmzakharov.ecdataframe.util.ExceptionFactory;
+import org.eclipse.collections.api.block.procedure.Procedure;
+import org.eclipse.collections.api.list.ImmutableList;
+import org.eclipse.collections.api.list.ListIterable;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.api.list.primitive.IntList;
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.api.map.MutableMap;
+import org.eclipse.collections.impl.factory.Lists;
+import org.eclipse.collections.impl.factory.Maps;
+import org.eclipse.collections.impl.factory.primitive.IntLists;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads data frames from JSON using the Jackson streaming API. The values are added to the data frame columns as they
+ * are parsed, without building an intermediate tree of JSON nodes. The expected structure of the input is driven by the
+ * properties of the data set the reader is created for.
+ * <p>
+ * If the input contains a schema, the schema is expected to precede the data, which is how the data is written by
+ * {@link JsonDataFrameWriter}. If the data comes first and the data set does not have a schema, the data is buffered
+ * until the end of the input.
+ */
+final class JsonDataFrameReader
+{
+    private final JsonDataSet dataSet;
+    private final boolean publishSchema;
+
+    private CsvSchema schema;
+    private MutableMap<String, JsonColumnEncoding> columnEncodings;
+    private JsonMetricsRecorder metrics;
+
+    private JsonIndex index;
+    private int expectedRowCount = -1;
+    private int skipRows = 0;
+    private int maxRows = Integer.MAX_VALUE;
+
+    private ListIterable<String> projection;
+    private int batchSize = Integer.MAX_VALUE;
+    private Procedure<DataFrame> batchConsumer;
+    private boolean batchConsumed = false;
+
+    private MutableList<ComputedColumn> computedColumns = Lists.mutable.empty();
+
+    private DataFrame appendTarget;
+    private DataFrame populatedDataFrame;
+    private CsvSchema populatedSchema;
+    private MutableList<JsonColumnPopulator> cachedPopulators;
+    private boolean metricsRecorded = true;
+
+    JsonDataFrameReader(JsonDataSet newDataSet)
+    {
+        this(newDataSet, true);
+    }
+
+    /**
+     * @param newDataSet the data set describing the layout of the Json
+     * @param newPublishSchema if {@code true}, the schema read from the Json is set as the schema of the data set,
+     *                         otherwise it is only used for the current read and the data set is not modified, which
+     *                         makes it safe to share the data set between concurrent readers
+     */
+    JsonDataFrameReader(JsonDataSet newDataSet, boolean newPublishSchema)
+    {
+        this.dataSet = newDataSet;
+        this.publishSchema = newPublishSchema;
+    }
+
+    /**
+     * Uses the index of the Json being read to size the data frame columns upfront and, if the data set does not have
+     * a schema, as the source of the schema
+     *
+     * @param newIndex the index of the Json, may be {@code null}
+     * @return this reader
+     */
+    JsonDataFrameReader useIndex(JsonIndex newIndex)
+    {
+        this.index = newIndex;
+        this.expectedRowCount = newIndex == null ? -1 : newIndex.getRowCount();
+        this.initializeSchema();
+        return this;
+    }
+
+    /**
+     * Makes the reader read a part of an operation, such as a range of rows read concurrently with the other ranges of
+     * the same file, whose metrics are recorded for the operation as a whole rather than by the reader
+     *
+     * @return this reader
+     */
+    JsonDataFrameReader partOfOperation()
+    {
+        this.metricsRecorded = false;
+        return this;
+    }
+
+    /**
+     * Limits the columns read from the Json to the specified ones, the values of the other columns are skipped
+     *
+     * @param columnNames the names of the columns to read, {@code null} to read all the columns in the schema
+     * @return this reader
+     */
+    JsonDataFrameReader projection(ListIterable<String> columnNames)
+    {
+        this.projection = columnNames;
+        return this;
+    }
+
+    /**
+     * Makes the reader add the rows it reads to an existing data frame instead of creating a new one. The data frame is
+     * not sealed after the rows are added, so that more rows can be added to it before it is sealed. The stored
+     * columns of the data frame must match the schema of the data being read.
+     *
+     * @param target the data frame to add the rows to
+     * @return this reader
+     */
+    JsonDataFrameReader appendTo(DataFrame target)
+    {
+        this.appendTarget = target;
+        return this;
+    }
+
+    /**
+     * Reads data organized by rows in batches: every {@code newBatchSize} rows the data frame being populated is sealed
+     * and passed to the consumer, and the following rows are added to a new data frame, so that no more than one batch
+     * of rows is held in memory at a time. Data organized by columns is passed to the consumer as a single batch.
+     *
+     * @param parser the parser to read from
+     * @param newBatchSize the maximum number of rows in a batch
+     * @param consumer the consumer of the batches, receives at least one (possibly empty) batch
+     */
+    void readInBatches(JsonParser parser, int newBatchSize, Procedure<DataFrame> consumer)
+    throws IOException
+    {
+        this.batchSize = newBatchSize;
+        this.batchConsumer = consumer;
+
+        DataFrame lastBatch = this.read(parser);
+
+        if (lastBatch.rowCount() > 0 || !this.batchConsumed)
+        {
+            consumer.value(lastBatch);
+        }
+    }
+
+    /**
+     * Reads a data frame from the parser. If the parser has not been advanced yet, it is moved to the first token of
+     * the input, otherwise the data frame is read starting from the current token.
+     *
+     * @param parser the parser to read from
+     * @return the data frame containing the parsed data
+     */
+    public DataFrame read(JsonParser parser)
+    throws IOException
+    {
+        DataFrame dataFrame = this.readUnsealed(parser);
+
+        long sealStart = this.metrics.now();
+        dataFrame.seal();
+        this.metrics.sealPhase(sealStart);
+
+        this.metrics.finish(dataFrame, this.inputSize(parser));
+
+        return dataFrame;
+    }
+
+    /**
+     * Reads the rows from the parser and adds them to the data frame specified by {@link #appendTo(DataFrame)}. If the
+     * rows cannot be read, the rows of the batch already added to the data frame are removed, so that the data frame
+     * is left as it was before the batch.
+     *
+     * @param parser the parser to read from
+     */
+    void append(JsonParser parser)
+    throws IOException
+    {
+        int firstRow = this.storedRowCount(this.appendTarget);
+
+        DataFrame dataFrame;
+        try
+        {
+            dataFrame = this.readUnsealed(parser);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            this.truncateAppendTarget(firstRow);
+            throw e;
+        }
+
+        this.metrics.finishAppend(dataFrame, firstRow, this.inputSize(parser));
+    }
+
+    /**
+     * @return the number of values in the stored columns of the data frame, which may be more than the row count of the
+     * data frame if it has not been sealed since the rows were added
+     */
+    private int storedRowCount(DataFrame dataFrame)
+    {
+        DfColumn storedColumn = dataFrame.getColumns().detect(DfColumn::isStored);
+
+        return storedColumn == null ? 0 : storedColumn.getSize();
+    }
+
+    /**
+     * Removes the values past the specified row count from the stored columns of the data frame the rows are appended
+     * to. The columns do not support removing values, so if any of them has more values, all the columns of the data
+     * frame are replaced, in the same order, with the columns holding just the values of the first rows. This takes
+     * time proportional to the size of the data frame, but only happens when a batch fails.
+     */
+    private void truncateAppendTarget(int rowCount)
+    {
+        ImmutableList<DfColumn> columns = this.appendTarget.getColumns();
+
+        if (columns.allSatisfy(column -> !column.isStored() || column.getSize() == rowCount))
+        {
+            return;
+        }
+
+        this.appendTarget.dropColumns(columns.collect(DfColumn::getName));
+
+        for (DfColumn column : columns)
+        {
+            if (column.isStored())
+            {
+                DfColumnStored truncated = this.appendTarget.newColumn(column.getName(), column.getType());
+                truncated.ensureInitialCapacity(rowCount);
+
+                for (int rowIndex = 0; rowIndex < rowCount; rowIndex++)
+                {
+                    column.addRowToColumn(rowIndex, truncated);
+                }
+            }
+            else
+            {
+                this.appendTarget.newColumn(column.getName(), column.getType(), ((DfColumnComputed) column).getExpressionAsString());
+            }
+        }
+
+        // the populators refer to the replaced columns
+        this.populatedDataFrame = null;
+        this.cachedPopulators = null;
+    }
+
+    private DataFrame readUnsealed(JsonParser parser)
+    throws IOException
+    {
+        this.metrics = JsonMetricsRecorder.start(JsonOperationMetrics.Operation.READ, this.dataSet);
+        this.initializeSchema();
+
+        if (!parser.hasCurrentToken())
+        {
+            parser.nextToken();
+        }
+
+        if (this.dataSet.dataOnly())
+        {
+            this.validateSchemaIsDefinedOrThrow();
+
+            return this.readData(parser, this.newDataFrame(this.dataSet.getName()));
+        }
+
+        return this.readDataFrameObject(parser);
+    }
+
+    /**
+     * Reads a range of rows from an array of row objects, which is a slice of the data located using the index
+     *
+     * @param parser the parser of the array containing the rows
+     * @param rowsToSkip the number of rows at the start of the array preceding the range
+     * @param rowCount the number of rows in the range
+     * @return the data frame containing the rows in the range
+     */
+    DataFrame readRowRange(JsonParser parser, int rowsToSkip, int rowCount)
+    throws IOException
+    {
+        this.metrics = this.metricsRecorded
+                ? JsonMetricsRecorder.start(JsonOperationMetrics.Operation.READ, this.dataSet)
+                : JsonMetricsRecorder.inactive(JsonOperationMetrics.Operation.READ, this.dataSet);
+        this.initializeSchema();
+        this.validateSchemaIsDefinedOrThrow();
+
+        this.skipRows = rowsToSkip;
+        this.maxRows = rowCount;
+        this.expectedRowCount = rowCount;
+
+        parser.nextToken();
+
+        DataFrame dataFrame = this.readData(
+                parser,
+                this.newDataFrame(this.index == null ? this.dataSet.getName() : this.index.getDataFrameName()));
+
+        long sealStart = this.metrics.now();
+        dataFrame.seal();
+        this.metrics.sealPhase(sealStart);
+
+        this.metrics.finish(dataFrame, this.inputSize(parser));
+
+        return dataFrame;
+    }
+
+    private void initializeSchema()
+    {
+        this.schema = this.dataSet.getSchema();
+        this.columnEncodings = null;
+        this.computedColumns = Lists.mutable.empty();
+
+        if (this.index != null)
+        {
+            // the index records how the values were encoded when the file was written, which may differ from the
+            // current settings of the data set, including a schema published to the data set by an earlier read
+            if (this.schema == null)
+            {
+                this.schema = this.index.getSchema();
+            }
+
+            this.columnEncodings = this.index.columnEncodings();
+        }
+
+        if (this.schema == null && this.appendTarget != null)
+        {
+            this.schema = this.storedColumnSchema(this.appendTarget);
+        }
+    }
+
+    private CsvSchema storedColumnSchema(DataFrame dataFrame)
+    {
+        CsvSchema storedColumns = new CsvSchema();
+
+        dataFrame.getColumns()
+                .select(DfColumn::isStored)
+                .forEach(column -> storedColumns.addColumn(column.getName(), column.getType()));
+
+        return storedColumns;
+    }
+
+    private long inputSize(JsonParser parser)
+    {
+        if (!this.metrics.isActive())
+        {
+            return -1L;
+        }
+
+        JsonLocation location = parser.currentLocation();
+        long byteOffset = location.getByteOffset();
+
+        return byteOffset >= 0L ? byteOffset : location.getCharOffset();
+    }
+
+    private DataFrame readDataFrameObject(JsonParser parser)
+    throws IOException
+    {
+        this.expectToken(JsonToken.START_OBJECT, parser);
+
+        String dataFrameName = this.dataSet.getName();
+        DataFrame dataFrame = null;
+        TreeNode bufferedData = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+
+            if ("name".equals(fieldName))
+            {
+                dataFrameName = parser.getValueAsString();
+            }
+            else if ("schema".equals(fieldName))
+            {
+                this.readSchemaUnlessDataWasRead(parser, dataFrame != null || bufferedData != null);
+            }
+            else if ("data".equals(fieldName) && this.schema == null)
+            {
+                bufferedData = parser.readValueAsTree();
+            }
+            else if ("data".equals(fieldName))
+            {
+                dataFrame = this.readData(parser, this.newDataFrame(dataFrameName));
+            }
+            else
+            {
+                parser.skipChildren();
+            }
+        }
+
+        this.expectToken(JsonToken.END_OBJECT, parser);
+
+        if (dataFrame == null)
+        {
+            this.validateSchemaIsDefinedOrThrow();
+
+            if (bufferedData == null)
+            {
+                throw ExceptionFactory.exception("Json object for data frame " + dataFrameName + " does not contain data").get();
+            }
+
+            try (JsonParser dataParser = bufferedData.traverse(parser.getCodec()))
+            {
+                dataParser.nextToken();
+                dataFrame = this.readData(dataParser, this.newDataFrame(dataFrameName));
+            }
+        }
+        else if (this.appendTarget == null)
+        {
+            dataFrame.setName(dataFrameName);
+        }
+
+        return dataFrame;
+    }
+
+    private void readSchemaUnlessDataWasRead(JsonParser parser, boolean dataWasRead)
+    throws IOException
+    {
+        if (dataWasRead)
+        {
+            parser.skipChildren();
+            return;
+        }
+
+        this.expectToken(JsonToken.START_ARRAY, parser);
+
+        long schemaStart = this.metrics.now();
+
+        CsvSchema embeddedSchema = new CsvSchema();
+        this.columnEncodings = Maps.mutable.of();
+        this.computedColumns = Lists.mutable.empty();
+
+        while (parser.nextToken() != JsonToken.END_ARRAY)
+        {
+            MutableMap<String, String> attributes = this.readSchemaColumnAttributes(parser);
+
+            if (!"Y".equals(attributes.get("Stored")))
+            {
+                if (this.dataSet.computedColumnsAsExpressions())
+                {
+                    this.computedColumns.add(new ComputedColumn(
+                            attributes.get("Name"),
+                            ValueType.valueOf(attributes.get("Type")),
+                            attributes.get("Expression"),
+                            embeddedSchema.getColumns().size()));
+                }
+            }
+            else
+            {
+                String columnName = attributes.get("Name");
+                embeddedSchema.addColumn(columnName, ValueType.valueOf(attributes.get("Type")));
+
+                String encoding = attributes.get("Encoding");
+                if (encoding != null)
+                {
+                    this.columnEncodings.put(columnName, JsonColumnEncoding.valueOf(encoding));
+                }
+            }
+        }
+
+        this.schema = embeddedSchema;
+        if (this.publishSchema)
+        {
+            this.dataSet.setSchema(embeddedSchema);
+        }
+
+        this.metrics.schemaPhase(schemaStart);
+    }
+
+    private MutableMap<String, String> readSchemaColumnAttributes(JsonParser parser)
+    throws IOException
+    {
+        this.expectToken(JsonToken.START_OBJECT, parser);
+
+        MutableMap<String, String> attributes = Maps.mutable.of();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String attributeName = parser.currentName();
+
+            if (parser.nextToken().isScalarValue())
+            {
+                attributes.put(attributeName, parser.getValueAsString());
+            }
+            else
+            {
+                parser.skipChildren();
+            }
+        }
+
+        return attributes;
+    }
+
+    /**
+     * The encoding of the values of a column: if the schema has been read from the Json object the encoding recorded
+     * in the schema, otherwise the encoding implied by the data set settings
+     */
+    private JsonColumnEncoding columnEncoding(CsvSchemaColumn schemaColumn)
+    {
+        if (this.columnEncodings == null)
+        {
+            return this.dataSet.temporalEncoding().columnEncoding(schemaColumn.getType());
+        }
+
+        return this.columnEncodings.get(schemaColumn.getName());
+    }
+
+    private DataFrame newDataFrame(String dataFrameName)
+    {
+        if (this.appendTarget != null)
+        {
+            this.validateAppendTarget();
+            return this.appendTarget;
+        }
+
+        DataFrame dataFrame = new DataFrame(dataFrameName);
+
+        if (this.projection == null && this.computedColumns.notEmpty())
+        {
+            this.addColumnsInSchemaOrder(dataFrame);
+        }
+        else
+        {
+            this.projectedColumns()
+                    .forEach(schemaColumn -> dataFrame.newColumn(schemaColumn.getName(), schemaColumn.getType()));
+        }
+
+        if (this.expectedRowCount > 0)
+        {
+            int capacity = Math.min(this.expectedRowCount, this.batchSize);
+            dataFrame.getColumns()
+                    .select(DfColumn::isStored)
+                    .forEach(column -> ((DfColumnStored) column).ensureInitialCapacity(capacity));
+        }
+
+        return dataFrame;
+    }
+
+    /**
+     * Adds the stored columns and the computed columns recreated from their expressions in the order they are listed in
+     * the schema
+     */
+    private void addColumnsInSchemaOrder(DataFrame dataFrame)
+    {
+        MutableList<CsvSchemaColumn> storedColumns = this.schema.getColumns();
+
+        int computedIndex = 0;
+        for (int storedIndex = 0; storedIndex <= storedColumns.size(); storedIndex++)
+        {
+            while (computedIndex < this.computedColumns.size()
+                    && this.computedColumns.get(computedIndex).storedColumnsBefore == storedIndex)
+            {
+                ComputedColumn computed = this.computedColumns.get(computedIndex);
+                dataFrame.newColumn(computed.name, computed.type, computed.expression);
+                computedIndex++;
+            }
+
+            if (storedIndex < storedColumns.size())
+            {
+                CsvSchemaColumn schemaColumn = storedColumns.get(storedIndex);
+                dataFrame.newColumn(schemaColumn.getName(), schemaColumn.getType());
+            }
+        }
+    }
+
+    private MutableList<CsvSchemaColumn> projectedColumns()
+    {
+        MutableList<CsvSchemaColumn> schemaColumns = this.schema.getColumns();
+
+        return this.projection == null
+                ? schemaColumns
+                : schemaColumns.select(schemaColumn -> this.projection.contains(schemaColumn.getName()));
+    }
+
+    /**
+     * Checks that the stored columns of the data frame the rows are appended to are the columns of the schema
+     */
+    private void validateAppendTarget()
+    {
+        MutableList<CsvSchemaColumn> schemaColumns = this.projectedColumns();
+        MutableList<DfColumn> storedColumns = this.appendTarget.getColumns().select(DfColumn::isStored).toList();
+
+        boolean matches = schemaColumns.size() == storedColumns.size()
+                && schemaColumns.allSatisfy(schemaColumn -> storedColumns.anySatisfy(
+                        column -> column.getName().equals(schemaColumn.getName()) && column.getType() == schemaColumn.getType()));
+
+        if (!matches)
+        {
+            throw ExceptionFactory
+                    .exception("Columns of data frame " + this.appendTarget.getName() + " do not match the schema of the Json data")
+                    .get();
+        }
+    }
+
+    /**
+     * Creates the populators of the data frame columns, the populators are reused as long as the data frame and the
+     * schema stay the same, which is the case when batches of rows are appended to the same data frame
+     */
+    private MutableList<JsonColumnPopulator> columnPopulators(DataFrame dataFrame)
+    {
+        if (dataFrame != this.populatedDataFrame || this.schema != this.populatedSchema)
+        {
+            this.cachedPopulators = this.projectedColumns()
+                    .collect(schemaColumn -> JsonColumnPopulator.forColumn(
+                            schemaColumn,
+                            dataFrame.getColumnNamed(schemaColumn.getName()),
+                            this.columnEncoding(schemaColumn)
+                    ));
+
+            this.populatedDataFrame = dataFrame;
+            this.populatedSchema = this.schema;
+        }
+
+        return this.cachedPopulators;
+    }
+
+    /**
+     * Reads the data array into the data frame
+     *
+     * @return the data frame containing the last rows read, which is the data frame passed in unless the data is read
+     * in batches
+     */
+    private DataFrame readData(JsonParser parser, DataFrame dataFrame)
+    throws IOException
+    {
+        if (parser.currentToken() != JsonToken.START_ARRAY)
+        {
+            throw ExceptionFactory.exception("Unexpected data node type, expected array, got " + parser.currentToken()).get();
+        }
+
+        long dataStart = this.metrics.now();
+
+        DataFrame populated = dataFrame;
+
+        if (this.dataSet.dataByRows())
+        {
+            populated = this.readRows(parser, dataFrame);
+        }
+        else
+        {
+            this.readColumns(parser, this.columnPopulators(dataFrame));
+        }
+
+        this.metrics.dataPhase(dataStart);
+
+        return populated;
+    }
+
+    private DataFrame readRows(JsonParser parser, DataFrame dataFrame)
+    throws IOException
+    {
+        if (this.dataSet.nestedRows())
+        {
+            return this.readNestedRows(parser, dataFrame);
+        }
+
+        DataFrame batch = dataFrame;
+        MutableList<JsonColumnPopulator> populators = this.columnPopulators(batch);
+
+        JsonRowLayout layout = JsonRowLayout.forColumns(populators.collect(JsonColumnPopulator::getColumnName));
+
+        int columnCount = layout.columnCount();
+        int[] lastPopulatedRow = new int[columnCount];
+        Arrays.fill(lastPopulatedRow, -1);
+
+        for (int skipped = 0; skipped < this.skipRows && parser.nextToken() != JsonToken.END_ARRAY; skipped++)
+        {
+            parser.skipChildren();
+        }
+
+        int rowIndex = 0;
+        while (rowIndex < this.maxRows && parser.nextToken() != JsonToken.END_ARRAY)
+        {
+            this.expectToken(JsonToken.START_OBJECT, parser);
+
+            if (this.batchConsumer != null && rowIndex > 0 && rowIndex % this.batchSize == 0)
+            {
+                this.batchConsumer.value(batch.seal());
+                this.batchConsumed = true;
+
+                batch = this.newDataFrame(batch.getName());
+                populators = this.columnPopulators(batch);
+            }
+
+            int populatedCount = 0;
+            int expectedColumn = 0;
+            while (true)
+            {
+                int columnIndex = layout.nextColumn(parser, expectedColumn);
+                if (columnIndex == JsonRowLayout.END_OF_ROW)
+                {
+                    break;
+                }
+
+                parser.nextToken();
+
+                if (columnIndex == JsonRowLayout.UNKNOWN_COLUMN)
+                {
+                    parser.skipChildren();
+                }
+                else if (lastPopulatedRow[columnIndex] == rowIndex)
+                {
+                    throw ExceptionFactory
+                            .exception("Duplicate value for column " + populators.get(columnIndex).getColumnName() + " in row " + rowIndex)
+                            .get();
+                }
+                else
+                {
+                    populators.get(columnIndex).populateFrom(parser);
+                    lastPopulatedRow[columnIndex] = rowIndex;
+                    populatedCount++;
+                    expectedColumn = columnIndex + 1;
+                }
+            }
+
+            if (populatedCount < columnCount)
+            {
+                // a field missing from the row object means the value is null
+                for (int columnIndex = 0; columnIndex < columnCount; columnIndex++)
+                {
+                    if (lastPopulatedRow[columnIndex] != rowIndex)
+                    {
+                        populators.get(columnIndex).getColumn().addEmptyValue();
+                    }
+                }
+            }
+
+            rowIndex++;
+        }
+
+        return batch;
+    }
+
+    /**
+     * Reads the rows whose column values are located by the column paths of the data set, see
+     * {@link JsonRowFlattener}
+     */
+    private DataFrame readNestedRows(JsonParser parser, DataFrame dataFrame)
+    throws IOException
+    {
+        DataFrame batch = dataFrame;
+        JsonRowFlattener flattener = new JsonRowFlattener(this.dataSet, this.columnPopulators(batch));
+
+        for (int skipped = 0; skipped < this.skipRows && parser.nextToken() != JsonToken.END_ARRAY; skipped++)
+        {
+            parser.skipChildren();
+        }
+
+        int rowIndex = 0;
+        while (rowIndex < this.maxRows && parser.nextToken() != JsonToken.END_ARRAY)
+        {
+            this.expectToken(JsonToken.START_OBJECT, parser);
+
+            if (this.batchConsumer != null && rowIndex > 0 && rowIndex % this.batchSize == 0)
+            {
+                this.batchConsumer.value(batch.seal());
+                this.batchConsumed = true;
+
+                batch = this.newDataFrame(batch.getName());
+                flattener = new JsonRowFlattener(this.dataSet, this.columnPopulators(batch));
+            }
+
+            flattener.readRow(parser);
+
+            rowIndex++;
+        }
+
+        return batch;
+    }
+
+    private void readColumns(JsonParser parser, MutableList<JsonColumnPopulator> populators)
+    throws IOException
+    {
+        if (this.dataSet.nestedRows())
+        {
+            throw ExceptionFactory
+                    .exception("Column paths and exploded arrays are only supported for data organized by rows")
+                    .getUnsupported();
+        }
+
+        MutableMap<String, JsonColumnPopulator> populatorsByName = Maps.mutable.withInitialCapacity(populators.size());
+        populators.forEach(populator -> populatorsByName.put(populator.getColumnName(), populator));
+
+        while (parser.nextToken() != JsonToken.END_ARRAY)
+        {
+            this.readColumnObject(parser, populatorsByName);
+        }
+    }
+
+    private void readColumnObject(JsonParser parser, MutableMap<String, JsonColumnPopulator> populatorsByName)
+    throws IOException
+    {
+        this.expectToken(JsonToken.START_OBJECT, parser);
+
+        String columnName = null;
+        IntList nullRuns = IntLists.immutable.empty();
+        JsonNumberEncoding encoding = null;
+        long base = 0L;
+        boolean valuesRead = false;
+        TreeNode bufferedValues = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+
+            if ("column".equals(fieldName))
+            {
+                columnName = parser.getValueAsString();
+            }
+            else if (valuesRead && ("nullRuns".equals(fieldName) || "encoding".equals(fieldName) || "base".equals(fieldName)))
+            {
+                throw ExceptionFactory.exception("Field " + fieldName + " of column " + columnName + " must precede its values").get();
+            }
+            else if ("nullRuns".equals(fieldName))
+            {
+                nullRuns = this.readNullRuns(parser);
+            }
+            else if ("encoding".equals(fieldName))
+            {
+                encoding = JsonNumberEncoding.valueOf(parser.getValueAsString());
+            }
+            else if ("base".equals(fieldName))
+            {
+                base = parser.getLongValue();
+            }
+            else if ("values".equals(fieldName) && columnName != null)
+            {
+                this.readColumnValues(parser, this.decoding(populatorsByName.get(columnName), encoding, base), nullRuns);
+                valuesRead = true;
+            }
+            else if ("values".equals(fieldName))
+            {
+                bufferedValues = parser.readValueAsTree();
+            }
+            else
+            {
+                parser.skipChildren();
+            }
+        }
+
+        if (bufferedValues != null && columnName != null)
+        {
+            try (JsonParser valuesParser = bufferedValues.traverse(parser.getCodec()))
+            {
+                valuesParser.nextToken();
+                this.readColumnValues(valuesParser, this.decoding(populatorsByName.get(columnName), encoding, base), nullRuns);
+            }
+        }
+    }
+
+    private JsonColumnPopulator decoding(JsonColumnPopulator populator, JsonNumberEncoding encoding, long base)
+    {
+        return populator == null || encoding == null ? populator : JsonColumnPopulator.decoding(populator, encoding, base);
+    }
+
+    /**
+     * Scans a data frame organized by columns without parsing the column values: the name and the schema are read,
+     * while for each column in the data only the location of its Json object in the input is recorded. The input is
+     * expected to be a byte array, so that the recorded locations are byte offsets into that array.
+     *
+     * @param parser the parser to scan
+     * @param columnRanges receives the name of each column and the offsets of the start and the end of its Json object
+     * @return the name of the data frame
+     */
+    String scanColumns(JsonParser parser, MutableMap<String, long[]> columnRanges)
+    throws IOException
+    {
+        return this.scanDataFrame(parser, dataParser -> this.scanColumnObjects(dataParser, columnRanges));
+    }
+
+    /**
+     * Scans a data frame without creating it, counting the rows, the non-null values of each column and the lengths
+     * of the string values, to estimate the heap space the data frame would take
+     *
+     * @param parser the parser to scan
+     * @return the estimate of the data frame size
+     */
+    JsonLoadEstimate estimateLoad(JsonParser parser)
+    throws IOException
+    {
+        JsonLoadEstimate.Builder estimate = new JsonLoadEstimate.Builder();
+
+        String dataFrameName = this.scanDataFrame(
+                parser,
+                this.dataSet.dataByRows()
+                        ? dataParser -> this.sizeRows(dataParser, estimate)
+                        : dataParser -> this.sizeColumnObjects(dataParser, estimate));
+
+        return estimate.build(dataFrameName, this.schema);
+    }
+
+    /**
+     * Reads the name and the schema of a data frame, passing the parser positioned at the start of the data to the
+     * data scanner instead of reading the data
+     *
+     * @return the name of the data frame
+     */
+    private String scanDataFrame(JsonParser parser, DataScanner dataScanner)
+    throws IOException
+    {
+        this.metrics = JsonMetricsRecorder.start(JsonOperationMetrics.Operation.READ, this.dataSet);
+        this.initializeSchema();
+
+        if (!parser.hasCurrentToken())
+        {
+            parser.nextToken();
+        }
+
+        String dataFrameName = this.dataSet.getName();
+
+        if (this.dataSet.dataOnly())
+        {
+            dataScanner.scan(parser);
+        }
+        else
+        {
+            this.expectToken(JsonToken.START_OBJECT, parser);
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String fieldName = parser.currentName();
+                parser.nextToken();
+
+                if ("name".equals(fieldName))
+                {
+                    dataFrameName = parser.getValueAsString();
+                }
+                else if ("schema".equals(fieldName))
+                {
+                    this.readSchemaUnlessDataWasRead(parser, false);
+                }
+                else if ("data".equals(fieldName))
+                {
+                    dataScanner.scan(parser);
+                }
+                else
+                {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        this.validateSchemaIsDefinedOrThrow();
+
+        return dataFrameName;
+    }
+
+    /**
+     * Reads the name and the schema of a data frame organized by rows up to the start of the data and finds the row
+     * objects in the data with the structural scanner. The input is expected to be the input of the scanner, so that
+     * the parser offsets are valid scanner offsets.
+     *
+     * @param parser the parser positioned before the start of the input
+     * @param scanner the scanner of the same input
+     * @return the index of the rows or {@code null} if the schema is not known before the start of the data
+     */
+    JsonIndex indexRows(JsonParser parser, JsonStructuralScanner scanner)
+    throws IOException
+    {
+        this.metrics = JsonMetricsRecorder.start(JsonOperationMetrics.Operation.READ, this.dataSet);
+        this.initializeSchema();
+
+        parser.nextToken();
+
+        String dataFrameName = this.dataSet.getName();
+
+        if (!this.dataSet.dataOnly())
+        {
+            this.expectToken(JsonToken.START_OBJECT, parser);
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String fieldName = parser.currentName();
+                parser.nextToken();
+
+                if ("name".equals(fieldName))
+                {
+                    dataFrameName = parser.getValueAsString();
+                }
+                else if ("schema".equals(fieldName))
+                {
+                    this.readSchemaUnlessDataWasRead(parser, false);
+                }
+                else if ("data".equals(fieldName))
+                {
+                    break;
+                }
+                else
+                {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        if (this.schema == null || parser.currentToken() != JsonToken.START_ARRAY)
+        {
+            return null;
+        }
+
+        return scanner.indexRows(
+                parser.currentTokenLocation().getByteOffset(), dataFrameName, this.schema, this.columnEncodings);
+    }
+
+    private void sizeRows(JsonParser parser, JsonLoadEstimate.Builder estimate)
+    throws IOException
+    {
+        this.expectToken(JsonToken.START_ARRAY, parser);
+
+        while (parser.nextToken() != JsonToken.END_ARRAY)
+        {
+            this.expectToken(JsonToken.START_OBJECT, parser);
+            estimate.addRow();
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String columnName = parser.currentName();
+                JsonToken valueToken = parser.nextToken();
+
+                if (valueToken == JsonToken.VALUE_STRING)
+                {
+                    estimate.addValue(columnName, parser.getTextLength());
+                }
+                else if (valueToken != JsonToken.VALUE_NULL)
+                {
+                    parser.skipChildren();
+                    estimate.addValue(columnName, 0);
+                }
+            }
+        }
+    }
+
+    private void sizeColumnObjects(JsonParser parser, JsonLoadEstimate.Builder estimate)
+    throws IOException
+    {
+        this.expectToken(JsonToken.START_ARRAY, parser);
+
+        while (parser.nextToken() != JsonToken.END_ARRAY)
+        {
+            this.expectToken(JsonToken.START_OBJECT, parser);
+
+            String columnName = null;
+            int rowCount = 0;
+            long valueCount = 0L;
+            long charCount = 0L;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String fieldName = parser.currentName();
+                parser.nextToken();
+
+                if ("column".equals(fieldName))
+                {
+                    columnName = parser.getValueAsString();
+                }
+                else if ("nullRuns".equals(fieldName))
+                {
+                    IntList nullRuns = this.readNullRuns(parser);
+                    for (int runIndex = 1; runIndex < nullRuns.size(); runIndex += 2)
+                    {
+                        rowCount += nullRuns.get(runIndex);
+                    }
+                }
+                else if ("values".equals(fieldName))
+                {
+                    this.expectToken(JsonToken.START_ARRAY, parser);
+
+                    while (true)
+                    {
+                        JsonToken valueToken = parser.nextToken();
+                        if (valueToken == JsonToken.END_ARRAY)
+                        {
+                            break;
+                        }
+
+                        rowCount++;
+
+                        if (valueToken == JsonToken.VALUE_STRING)
+                        {
+                            charCount += parser.getTextLength();
+                            valueCount++;
+                        }
+                        else if (valueToken != JsonToken.VALUE_NULL)
+                        {
+                            parser.skipChildren();
+                            valueCount++;
+                        }
+                    }
+                }
+                else
+                {
+                    parser.skipChildren();
+                }
+            }
+
+            if (columnName != null)
+            {
+                estimate.addColumn(columnName, rowCount, valueCount, charCount);
+            }
+        }
+    }
+
+    private void scanColumnObjects(JsonParser parser, MutableMap<String, long[]> columnRanges)
+    throws IOException
+    {
+        this.expectToken(JsonToken.START_ARRAY, parser);
+
+        while (parser.nextToken() != JsonToken.END_ARRAY)
+        {
+            this.expectToken(JsonToken.START_OBJECT, parser);
+
+            long start = parser.currentTokenLocation().getByteOffset();
+            String columnName = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String fieldName = parser.currentName();
+                parser.nextToken();
+
+                if ("column".equals(fieldName))
+                {
+                    columnName = parser.getValueAsString();
+                }
+                else
+                {
+                    parser.skipChildren();
+                }
+            }
+
+            if (columnName != null)
+            {
+                columnRanges.put(columnName, new long[] {start, parser.currentLocation().getByteOffset()});
+            }
+        }
+    }
+
+    /**
+     * Reads the values of a single column from its Json object located by {@link #scanColumns(JsonParser, MutableMap)}
+     *
+     * @param parser the parser positioned before the start of the column object
+     * @param column the column to add the values to, must be described by the schema of the scanned data frame
+     */
+    void readColumn(JsonParser parser, DfColumn column)
+    throws IOException
+    {
+        CsvSchemaColumn schemaColumn = this.schema.getColumns().detect(each -> each.getName().equals(column.getName()));
+
+        MutableMap<String, JsonColumnPopulator> populatorsByName = Maps.mutable.of(
+                column.getName(),
+                JsonColumnPopulator.forColumn(schemaColumn, column, this.columnEncoding(schemaColumn))
+        );
+
+        parser.nextToken();
+        this.readColumnObject(parser, populatorsByName);
+    }
+
+    /**
+     * @return the schema of the data frame being read, either specified by the data set or read from the Json
+     */
+    CsvSchema schema()
+    {
+        return this.schema;
+    }
+
+    private IntList readNullRuns(JsonParser parser)
+    throws IOException
+    {
+        this.expectToken(JsonToken.START_ARRAY, parser);
+
+        MutableIntList nullRuns = IntLists.mutable.empty();
+        while (parser.nextToken() != JsonToken.END_ARRAY)
+        {
+            nullRuns.add(parser.getIntValue());
+        }
+
+        if (nullRuns.size() % 2 != 0)
+        {
+            throw ExceptionFactory.exception("Null runs must be pairs of a row index and a run length").get();
+        }
+
+        return nullRuns;
+    }
+
+    /**
+     * Reads the column values, inserting the runs of nulls at the row indices listed in {@code nullRuns}. The runs
+     * are added to the column with no parsing involved.
+     */
+    private void readColumnValues(JsonParser parser, JsonColumnPopulator populator, IntList nullRuns)
+    throws IOException
+    {
+        this.expectToken(JsonToken.START_ARRAY, parser);
+
+        if (populator == null)
+        {
+            parser.skipChildren();
+            return;
+        }
+
+        DfColumn column = populator.getColumn();
+
+        int rowIndex = 0;
+        int runIndex = 0;
+
+        while (true)
+        {
+            while (runIndex < nullRuns.size() && nullRuns.get(runIndex) == rowIndex)
+            {
+                int runLength = nullRuns.get(runIndex + 1);
+                for (int i = 0; i < runLength; i++)
+                {
+                    column.addEmptyValue();
+                }
+
+                rowIndex += runLength;
+                runIndex += 2;
+            }
+
+            if (parser.nextToken() == JsonToken.END_ARRAY)
+            {
+                break;
+            }
+
+            populator.populateFrom(parser);
+            rowIndex++;
+        }
+
+        if (runIndex < nullRuns.size())
+        {
+            throw ExceptionFactory
+                    .exception("Null run at row " + nullRuns.get(runIndex) + " is out of order or beyond the end of column " + column.getName())
+                    .get();
+        }
+    }
+
+    private void validateSchemaIsDefinedOrThrow()
+    {
+        if (this.schema == null)
+        {
+            throw ExceptionFactory
+                    .exception("When reading a Json object, schema must be specified in the data set definition or in the json string")
+                    .get();
+        }
+    }
+
+    private void expectToken(JsonToken expected, JsonParser parser)
+    {
+        if (parser.currentToken() != expected)
+        {
+            throw ExceptionFactory
+                    .exception("Unexpected Json token " + parser.currentToken() + ", expected " + expected)
+                    .get();
+        }
+    }
+
+    /**
+     * A computed column listed in the embedded schema, recreated from its expression when the data frame is created
+     */
+    static private final class ComputedColumn
+    {
+        private final String name;
+        private final ValueType type;
+        private final String expression;
+        // the number of stored columns preceding the computed column in the schema
+        private final int storedColumnsBefore;
+
+        private ComputedColumn(String newName, ValueType newType, String newExpression, int newStoredColumnsBefore)
+        {
+            this.name = newName;
+            this.type = newType;
+            this.expression = newExpression;
+            this.storedColumnsBefore = newStoredColumnsBefore;
+        }
+    }
+
+    /**
+     * Processes the data of a data frame, the parser is positioned at the start of the data array
+     */
+    @FunctionalInterface
+    private interface DataScanner
+    {
+        void scan(JsonParser parser)
+        throws IOException;
+    }
+}
@@ -0,0 +1,929 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.dataframe.DfColumn;
+import io.github.vmzakharov.ecdataframe.util.ExceptionFactory;
+import org.eclipse.collections.api.list.ImmutableList;
+import org.eclipse.collections.api.block.function.Function;
+import org.eclipse.collections.api.list.ListIterable;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.api.list.primitive.IntList;
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.api.map.MutableMap;
+import org.eclipse.collections.impl.factory.Lists;
+import org.eclipse.collections.impl.factory.Maps;
+import org.eclipse.collections.impl.factory.primitive.IntLists;
+import org.eclipse.collections.impl.list.primitive.IntInterval;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongSupplier;
+
+/**
+ * Writes data frames as JSON directly to a stream using the Jackson streaming API, without building an intermediate
+ * tree of JSON nodes. The structure of the output is driven by the properties of the data set the writer is created
+ * for.
+ * <p>
+ * If the data set parallelism is greater than one, the data is encoded concurrently: when the data is organized by rows,
+ * the rows of the data frame are split into contiguous ranges, and when it is organized by columns, the columns are
+ * split into contiguous groups, as many as the parallelism. Each part is encoded into its own UTF-8 buffer on the common
+ * fork-join pool and the buffers are then copied to the output in row or schema order.
+ * <p>
+ * If the data set has an index interval specified, the writer records the offsets of the data in the output as it is
+ * written, which can then be saved as a {@link JsonIndex}.
+ * <p>
+ * A writer can also be created for a selection of the rows and the columns of a data frame, for example the row order
+ * of a sort or the rows matching a filter, in which case only the selected cells are written, in the order of the
+ * selection, directly from the columns of the data frame. The output is the same as that of writing a data frame
+ * containing just the selected rows and columns, except that no index is recorded.
+ */
+final class JsonDataFrameWriter
+{
+    private final JsonDataSet dataSet;
+    private final JsonFactory jsonFactory;
+    private final IntList rowIndexes;
+    private final ListIterable<String> columnNames;
+
+    JsonDataFrameWriter(JsonDataSet newDataSet)
+    {
+        this(newDataSet, null, null);
+    }
+
+    /**
+     * @param newDataSet the data set specifying the structure of the output
+     * @param newRowIndexes the indexes of the rows to write in the order they are to be written, {@code null} to write
+     * all the rows in their order in the data frame
+     * @param newColumnNames the names of the columns to write in the order they are to be written, {@code null} to write
+     * all the columns
+     */
+    JsonDataFrameWriter(JsonDataSet newDataSet, IntList newRowIndexes, ListIterable<String> newColumnNames)
+    {
+        this.dataSet = newDataSet;
+        this.jsonFactory = newDataSet.jsonFactory();
+        this.rowIndexes = newRowIndexes;
+        this.columnNames = newColumnNames;
+    }
+
+    /**
+     * Writes the data frame to an output stream
+     *
+     * @param dataFrame the data frame to write
+     * @param outputStream the stream to write to, it is flushed but not closed
+     * @return the index of the written Json if the data set has an index interval specified, {@code null} otherwise
+     */
+    public JsonIndex write(DataFrame dataFrame, OutputStream outputStream)
+    {
+        this.validateRowIndexes(dataFrame);
+
+        JsonMetricsRecorder metrics = JsonMetricsRecorder.start(JsonOperationMetrics.Operation.WRITE, this.dataSet);
+        JsonIndex.Builder index = this.dataSet.indexInterval() > 0 && this.dataSet.textFormat() && !this.isSelection()
+                ? new JsonIndex.Builder(dataFrame, this.dataSet)
+                : null;
+
+        CountingOutputStream countingStream = metrics.isActive() || index != null ? new CountingOutputStream(outputStream) : null;
+        OutputStream target = countingStream == null ? outputStream : countingStream;
+        OutputPosition position = index == null ? null : new OutputPosition(index, countingStream::getCount);
+
+        try (JsonGenerator generator = this.jsonFactory.createGenerator(target))
+        {
+            this.writeDataFrame(dataFrame, generator, target, position, metrics);
+        }
+        catch (IOException e)
+        {
+            throw ExceptionFactory.exception("Failed to write data frame " + dataFrame.getName() + " as JSON").get(e);
+        }
+
+        metrics.finish(dataFrame, countingStream == null ? -1L : countingStream.getCount());
+
+        return index == null ? null : index.build();
+    }
+
+    /**
+     * Writes the data frame as the next value of a generator, which may be in the middle of writing an enclosing
+     * document. The generator output is not directly accessible in this case, so the data is always written
+     * sequentially.
+     *
+     * @param dataFrame the data frame to write
+     * @param generator the generator to write to, it is neither flushed nor closed
+     */
+    public void write(DataFrame dataFrame, JsonGenerator generator)
+    throws IOException
+    {
+        this.validateRowIndexes(dataFrame);
+
+        JsonMetricsRecorder metrics = JsonMetricsRecorder.start(JsonOperationMetrics.Operation.WRITE, this.dataSet);
+
+        this.writeDataFrame(dataFrame, generator, null, null, metrics);
+
+        metrics.finish(dataFrame, -1L);
+    }
+
+    private void writeDataFrame(
+            DataFrame dataFrame,
+            JsonGenerator generator,
+            OutputStream outputStream,
+            OutputPosition position,
+            JsonMetricsRecorder metrics)
+    throws IOException
+    {
+        this.writeDocument(
+                dataFrame,
+                generator,
+                position,
+                metrics,
+                (dataGenerator, dataPosition) -> this.writeData(dataFrame, dataGenerator, outputStream, dataPosition));
+    }
+
+    /**
+     * Writes the data frame name and schema as specified by the data set, and the data using the procedure passed in
+     */
+    private void writeDocument(
+            DataFrame dataFrame,
+            JsonGenerator generator,
+            OutputPosition position,
+            JsonMetricsRecorder metrics,
+            GeneratorProcedure writeData)
+    throws IOException
+    {
+        if (this.dataSet.dataOnly())
+        {
+            long dataStart = metrics.now();
+            writeData.write(generator, position);
+            metrics.dataPhase(dataStart);
+        }
+        else
+        {
+            generator.writeStartObject();
+            generator.writeStringField("name", dataFrame.getName());
+
+            if (this.dataSet.schemaIncluded())
+            {
+                long schemaStart = metrics.now();
+                generator.writeFieldName("schema");
+                this.writeSchema(dataFrame, generator);
+                metrics.schemaPhase(schemaStart);
+            }
+
+            long dataStart = metrics.now();
+            generator.writeFieldName("data");
+            writeData.write(generator, position);
+            metrics.dataPhase(dataStart);
+
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeSchema(DataFrame dataFrame, JsonGenerator generator)
+    throws IOException
+    {
+        DataFrame schema = dataFrame.schema();
+        ImmutableList<DfColumn> schemaColumns = schema.getColumns();
+        JsonValueWriter valueWriter = new JsonValueWriter(generator, this.dataSet);
+
+        generator.writeStartArray();
+
+        // the schema has a row for each column of the data frame, in the same order
+        ImmutableList<DfColumn> columns = dataFrame.getColumns();
+        ListIterable<DfColumn> writtenColumns = this.selectedColumns(dataFrame);
+
+        for (int i = 0; i < writtenColumns.size(); i++)
+        {
+            DfColumn column = writtenColumns.get(i);
+            int rowIndex = this.columnNames == null ? i : columns.indexOf(column);
+
+            this.writeRowFields(schemaColumns, rowIndex, generator, valueWriter);
+
+            JsonColumnEncoding encoding = this.dataSet.temporalEncoding().columnEncoding(column.getType());
+
+            if (encoding != null)
+            {
+                generator.writeStringField("Encoding", encoding.name());
+            }
+
+            generator.writeEndObject();
+        }
+
+        generator.writeEndArray();
+    }
+
+    private void writeData(DataFrame dataFrame, JsonGenerator generator, OutputStream outputStream, OutputPosition position)
+    throws IOException
+    {
+        boolean inParallel = outputStream != null && this.canWriteInParallel(dataFrame);
+
+        if (this.dataSet.dataByColumns())
+        {
+            if (inParallel)
+            {
+                this.writeColumnsInParallel(dataFrame, generator, outputStream, position);
+            }
+            else
+            {
+                this.writeColumns(dataFrame, generator, position);
+            }
+        }
+        else if (inParallel && this.rowCount(dataFrame) > 1)
+        {
+            this.writeRowsInParallel(dataFrame, generator, outputStream, position);
+        }
+        else
+        {
+            this.writeRows(dataFrame, generator, position);
+        }
+    }
+
+    private boolean canWriteInParallel(DataFrame dataFrame)
+    {
+        // computed columns are evaluated using the data frame's shared evaluation context, so they cannot be
+        // evaluated from more than one thread at a time
+        // the partitions are joined as text, so that the output of each partition can be copied without re-encoding
+        return this.dataSet.parallelism() > 1
+                && this.dataSet.textFormat()
+                && this.dataColumns(dataFrame).allSatisfy(DfColumn::isStored);
+    }
+
+    /**
+     * @return the columns whose values are written to the data section
+     */
+    private ImmutableList<DfColumn> dataColumns(DataFrame dataFrame)
+    {
+        ImmutableList<DfColumn> columns = this.selectedColumns(dataFrame);
+
+        return this.dataSet.computedColumnsAsExpressions()
+                ? columns.select(DfColumn::isStored)
+                : columns;
+    }
+
+    /**
+     * @return the columns described in the schema, the data frame columns unless a subset of them is selected
+     */
+    private ImmutableList<DfColumn> selectedColumns(DataFrame dataFrame)
+    {
+        return this.columnNames == null
+                ? dataFrame.getColumns()
+                : this.columnNames.collect(dataFrame::getColumnNamed).toImmutable();
+    }
+
+    private boolean isSelection()
+    {
+        return this.rowIndexes != null || this.columnNames != null;
+    }
+
+    /**
+     * @return the number of rows written
+     */
+    private int rowCount(DataFrame dataFrame)
+    {
+        return this.rowIndexes == null ? dataFrame.rowCount() : this.rowIndexes.size();
+    }
+
+    /**
+     * @param position the position of a row in the output
+     * @return the index of the row in the data frame
+     */
+    private int sourceRow(int position)
+    {
+        return this.rowIndexes == null ? position : this.rowIndexes.get(position);
+    }
+
+    /**
+     * @return the indexes of the rows written, in the order they are written
+     */
+    private IntList writtenRows(int rowCount)
+    {
+        if (this.rowIndexes != null)
+        {
+            return this.rowIndexes;
+        }
+
+        return rowCount == 0 ? IntLists.immutable.empty() : IntInterval.zeroTo(rowCount - 1);
+    }
+
+    private void validateRowIndexes(DataFrame dataFrame)
+    {
+        if (this.rowIndexes == null)
+        {
+            return;
+        }
+
+        int rowCount = dataFrame.rowCount();
+        if (this.rowIndexes.anySatisfy(rowIndex -> rowIndex < 0 || rowIndex >= rowCount))
+        {
+            throw ExceptionFactory
+                    .exception("Row indexes to write are not all in the range of 0 to " + rowCount + " for data frame " + dataFrame.getName())
+                    .get();
+        }
+    }
+
+    private void writeRows(DataFrame dataFrame, JsonGenerator generator, OutputPosition position)
+    throws IOException
+    {
+        generator.writeStartArray();
+        this.writeRowRange(this.dataColumns(dataFrame), 0, this.rowCount(dataFrame), generator, position);
+        this.endData(generator, position);
+    }
+
+    /**
+     * Closes the data array, recording the offset of its end in the index if one is being built
+     */
+    private void endData(JsonGenerator generator, OutputPosition position)
+    throws IOException
+    {
+        if (position != null)
+        {
+            position.index().dataEnd(position.of(generator));
+        }
+
+        generator.writeEndArray();
+    }
+
+    private void writeRowsInParallel(DataFrame dataFrame, JsonGenerator generator, OutputStream outputStream, OutputPosition position)
+    throws IOException
+    {
+        int rowCount = this.rowCount(dataFrame);
+        int partitionCount = Math.min(this.dataSet.parallelism(), rowCount);
+
+        ImmutableList<DfColumn> columns = this.dataColumns(dataFrame);
+
+        MutableList<CompletableFuture<PartitionBuffer>> partitions = Lists.mutable.withInitialCapacity(partitionCount);
+
+        for (int partitionIndex = 0; partitionIndex < partitionCount; partitionIndex++)
+        {
+            int from = (int) ((long) rowCount * partitionIndex / partitionCount);
+            int to = (int) ((long) rowCount * (partitionIndex + 1) / partitionCount);
+
+            partitions.add(this.encodeAsync(
+                    (partitionGenerator, partitionPosition) -> this.writeRowRange(columns, from, to, partitionGenerator, partitionPosition),
+                    "rows " + from + " to " + to,
+                    position
+            ));
+        }
+
+        this.writePartitionsInOrder(partitions, generator, outputStream, position, (partitionIndex, shift) ->
+                position.index().shiftRowOffsets(
+                        (int) ((long) rowCount * partitionIndex / partitionCount),
+                        (int) ((long) rowCount * (partitionIndex + 1) / partitionCount),
+                        shift));
+    }
+
+    private void writeColumns(DataFrame dataFrame, JsonGenerator generator, OutputPosition position)
+    throws IOException
+    {
+        generator.writeStartArray();
+
+        ImmutableList<DfColumn> columns = this.dataColumns(dataFrame);
+        int rowCount = this.rowCount(dataFrame);
+        for (int columnIndex = 0; columnIndex < columns.size(); columnIndex++)
+        {
+            this.writeColumn(columns.get(columnIndex), rowCount, generator, position, columnIndex == 0);
+        }
+
+        this.endData(generator, position);
+    }
+
+    private void writeColumnsInParallel(DataFrame dataFrame, JsonGenerator generator, OutputStream outputStream, OutputPosition position)
+    throws IOException
+    {
+        ImmutableList<DfColumn> columns = this.dataColumns(dataFrame);
+        int rowCount = this.rowCount(dataFrame);
+
+        int columnCount = columns.size();
+        int partitionCount = Math.min(this.dataSet.parallelism(), columnCount);
+
+        MutableList<CompletableFuture<PartitionBuffer>> partitions = Lists.mutable.withInitialCapacity(partitionCount);
+
+        for (int partitionIndex = 0; partitionIndex < partitionCount; partitionIndex++)
+        {
+            int from = columnCount * partitionIndex / partitionCount;
+            int to = columnCount * (partitionIndex + 1) / partitionCount;
+
+            partitions.add(this.encodeAsync(
+                    (partitionGenerator, partitionPosition) -> {
+                        for (int columnIndex = from; columnIndex < to; columnIndex++)
+                        {
+                            this.writeColumn(columns.get(columnIndex), rowCount, partitionGenerator, partitionPosition, columnIndex == from);
+                        }
+                    },
+                    "columns " + columns.get(from).getName() + " to " + columns.get(to - 1).getName(),
+                    position
+            ));
+        }
+
+        this.writePartitionsInOrder(partitions, generator, outputStream, position, (partitionIndex, shift) -> {
+            for (int columnIndex = columnCount * partitionIndex / partitionCount;
+                    columnIndex < columnCount * (partitionIndex + 1) / partitionCount;
+                    columnIndex++)
+            {
+                position.index().shiftColumnRange(columns.get(columnIndex).getName(), shift);
+            }
+        });
+    }
+
+    private CompletableFuture<PartitionBuffer> encodeAsync(GeneratorProcedure writeContent, String description, OutputPosition position)
+    {
+        return CompletableFuture.supplyAsync(() -> this.encode(writeContent, description, position), ForkJoinPool.commonPool());
+    }
+
+    private PartitionBuffer encode(GeneratorProcedure writeContent, String description, OutputPosition position)
+    {
+        PartitionBuffer buffer = new PartitionBuffer();
+
+        try (JsonGenerator generator = this.jsonFactory.createGenerator(buffer))
+        {
+            generator.writeStartArray();
+            writeContent.write(generator, position == null ? null : position.inBuffer(buffer));
+            generator.writeEndArray();
+        }
+        catch (IOException e)
+        {
+            throw ExceptionFactory.exception("Failed to write " + description + " as JSON").get(e);
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Copies the encoded partitions to the output in order. If an index is being built, the offsets recorded by each
+     * partition relative to its buffer are shifted to the offsets in the output once the partition is copied.
+     */
+    private void writePartitionsInOrder(
+            MutableList<CompletableFuture<PartitionBuffer>> partitions,
+            JsonGenerator generator,
+            OutputStream outputStream,
+            OutputPosition position,
+            PartitionPlacement placement)
+    throws IOException
+    {
+        generator.writeStartArray();
+        generator.flush();
+
+        for (int partitionIndex = 0; partitionIndex < partitions.size(); partitionIndex++)
+        {
+            if (partitionIndex > 0)
+            {
+                outputStream.write(',');
+            }
+
+            PartitionBuffer buffer = this.joinPartition(partitions.get(partitionIndex));
+
+            if (position != null)
+            {
+                // the opening bracket of the partition array is not copied to the output
+                placement.placed(partitionIndex, position.of(generator) - 1);
+            }
+
+            buffer.writeArrayContentTo(outputStream);
+        }
+
+        this.endData(generator, position);
+    }
+
+    /**
+     * Writes the rows of the data frame to a separate file for each distinct value of the key column. The rows are
+     * grouped by the key in a single pass over the key column, and each file is then written straight from the columns
+     * of the data frame, with the rows in their original order. If the data set parallelism is greater than one and the
+     * data frame has no computed columns to be written, the keys are split into as many groups as the parallelism, and
+     * the groups are written concurrently, a file at a time in each group.
+     *
+     * @param dataFrame the data frame to write
+     * @param keyColumnName the name of the column to partition the rows by
+     * @param partitionFile returns the file to write the rows with the key value passed to it
+     * @return the files written, by the key value
+     */
+    MutableMap<Object, Path> writePartitions(DataFrame dataFrame, String keyColumnName, Function<Object, Path> partitionFile)
+    {
+        if (this.dataSet.dataByColumns())
+        {
+            throw ExceptionFactory.exception("Partitioned writing is only supported for data organized by rows").getUnsupported();
+        }
+
+        JsonMetricsRecorder metrics = JsonMetricsRecorder.start(JsonOperationMetrics.Operation.WRITE, this.dataSet);
+
+        DfColumn keyColumn = dataFrame.getColumnNamed(keyColumnName);
+
+        MutableMap<Object, MutableIntList> rowsByKey = Maps.mutable.of();
+
+        int rowCount = dataFrame.rowCount();
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++)
+        {
+            Object key = keyColumn.isNull(rowIndex) ? null : keyColumn.getObject(rowIndex);
+            rowsByKey.getIfAbsentPut(key, IntLists.mutable::empty).add(rowIndex);
+        }
+
+        MutableMap<Object, Path> filesByKey = rowsByKey.keysView().toMap(key -> key, partitionFile::valueOf);
+
+        this.validatePartitionFiles(filesByKey);
+
+        MutableList<Object> keys = rowsByKey.keysView().toList();
+        int taskCount = this.canWritePartitionsInParallel(dataFrame) ? Math.min(this.dataSet.parallelism(), keys.size()) : 1;
+
+        long byteCount;
+
+        if (taskCount > 1)
+        {
+            MutableList<CompletableFuture<Long>> tasks = Lists.mutable.withInitialCapacity(taskCount);
+
+            for (int taskIndex = 0; taskIndex < taskCount; taskIndex++)
+            {
+                int from = (int) ((long) keys.size() * taskIndex / taskCount);
+                int to = (int) ((long) keys.size() * (taskIndex + 1) / taskCount);
+
+                tasks.add(CompletableFuture.supplyAsync(
+                        () -> this.writePartitionRange(dataFrame, keys, from, to, rowsByKey, filesByKey),
+                        ForkJoinPool.commonPool()));
+            }
+
+            byteCount = tasks.sumOfLong(this::joinPartition);
+        }
+        else
+        {
+            byteCount = this.writePartitionRange(dataFrame, keys, 0, keys.size(), rowsByKey, filesByKey);
+        }
+
+        metrics.finish(dataFrame, byteCount);
+
+        return filesByKey;
+    }
+
+    private boolean canWritePartitionsInParallel(DataFrame dataFrame)
+    {
+        // each partition has its own generator writing to its own file, but computed columns are evaluated using the
+        // data frame's shared evaluation context, so they still cannot be evaluated from more than one thread at a time
+        return this.dataSet.parallelism() > 1
+                && this.dataColumns(dataFrame).allSatisfy(DfColumn::isStored);
+    }
+
+    /**
+     * Verifies that a different file is to be written for each key, as the rows of the keys sharing a file would
+     * otherwise overwrite each other
+     */
+    private void validatePartitionFiles(MutableMap<Object, Path> filesByKey)
+    {
+        MutableMap<Path, Object> keysByFile = Maps.mutable.withInitialCapacity(filesByKey.size());
+
+        filesByKey.forEachKeyValue((key, file) -> {
+            Path normalizedFile = file.toAbsolutePath().normalize();
+
+            if (keysByFile.containsKey(normalizedFile))
+            {
+                throw ExceptionFactory
+                        .exception("Partitions with keys " + keysByFile.get(normalizedFile) + " and " + key + " are both to be written to " + file)
+                        .get();
+            }
+
+            keysByFile.put(normalizedFile, key);
+        });
+    }
+
+    /**
+     * Writes the partitions of the keys in the range one after another
+     *
+     * @return the number of bytes written to the partition files
+     */
+    private long writePartitionRange(
+            DataFrame dataFrame,
+            MutableList<Object> keys,
+            int from,
+            int to,
+            MutableMap<Object, MutableIntList> rowsByKey,
+            MutableMap<Object, Path> filesByKey)
+    {
+        long byteCount = 0L;
+
+        for (int keyIndex = from; keyIndex < to; keyIndex++)
+        {
+            Object key = keys.get(keyIndex);
+            byteCount += this.writePartition(dataFrame, rowsByKey.get(key), filesByKey.get(key));
+        }
+
+        return byteCount;
+    }
+
+    /**
+     * @return the number of bytes written to the file
+     */
+    private long writePartition(DataFrame dataFrame, IntList rows, Path file)
+    {
+        JsonMetricsRecorder metrics = JsonMetricsRecorder.inactive(JsonOperationMetrics.Operation.WRITE, this.dataSet);
+        ImmutableList<DfColumn> columns = this.dataColumns(dataFrame);
+
+        CountingOutputStream countingStream;
+
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(file)))
+        {
+            countingStream = new CountingOutputStream(outputStream);
+
+            try (JsonGenerator generator = this.jsonFactory.createGenerator(countingStream))
+            {
+                this.writeDocument(dataFrame, generator, null, metrics, (dataGenerator, dataPosition) -> {
+                    JsonValueWriter valueWriter = new JsonValueWriter(dataGenerator, this.dataSet);
+
+                    dataGenerator.writeStartArray();
+                    for (int i = 0; i < rows.size(); i++)
+                    {
+                        this.writeRowFields(columns, rows.get(i), dataGenerator, valueWriter);
+                        dataGenerator.writeEndObject();
+                    }
+                    dataGenerator.writeEndArray();
+                });
+            }
+        }
+        catch (IOException e)
+        {
+            throw ExceptionFactory.exception("Failed to write JSON file " + file).get(e);
+        }
+
+        return countingStream.getCount();
+    }
+
+    private <T> T joinPartition(CompletableFuture<T> partition)
+    {
+        try
+        {
+            return partition.join();
+        }
+        catch (CompletionException e)
+        {
+            if (e.getCause() instanceof RuntimeException runtimeException)
+            {
+                throw runtimeException;
+            }
+
+            throw e;
+        }
+    }
+
+    private void writeRowRange(ImmutableList<DfColumn> columns, int from, int to, JsonGenerator generator, OutputPosition position)
+    throws IOException
+    {
+        JsonValueWriter valueWriter = new JsonValueWriter(generator, this.dataSet);
+
+        for (int rowIndex = from; rowIndex < to; rowIndex++)
+        {
+            if (position != null && position.index().isIndexedRow(rowIndex))
+            {
+                position.index().rowOffset(rowIndex, position.ofNextElement(generator, rowIndex == from));
+            }
+
+            this.writeRowFields(columns, this.sourceRow(rowIndex), generator, valueWriter);
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Starts a row object and writes the values of the row into it, leaving the object open
+     */
+    private void writeRowFields(ImmutableList<DfColumn> columns, int rowIndex, JsonGenerator generator, JsonValueWriter valueWriter)
+    throws IOException
+    {
+        generator.writeStartObject();
+
+        boolean omitNulls = this.dataSet.omitNulls();
+
+        for (int columnIndex = 0; columnIndex < columns.size(); columnIndex++)
+        {
+            DfColumn column = columns.get(columnIndex);
+
+            if (!omitNulls || !column.isNull(rowIndex))
+            {
+                generator.writeFieldName(column.getName());
+                valueWriter.writeValue(column, rowIndex);
+            }
+        }
+    }
+
+    private void writeColumn(DfColumn column, int rowCount, JsonGenerator generator, OutputPosition position, boolean first)
+    throws IOException
+    {
+        long start = position == null ? 0L : position.ofNextElement(generator, first);
+
+        generator.writeStartObject();
+        generator.writeStringField("column", column.getName());
+
+        boolean omitNulls = this.dataSet.omitNulls();
+        if (omitNulls)
+        {
+            this.writeNullRuns(column, rowCount, generator);
+        }
+
+        IntList rows = this.writtenRows(rowCount);
+        JsonNumberEncoding encoding = this.numberEncoding(column, rows);
+        long reference = 0L;
+
+        if (encoding != null)
+        {
+            generator.writeStringField("encoding", encoding.name());
+
+            reference = encoding.base(column, rows);
+            if (encoding.hasBase())
+            {
+                generator.writeNumberField("base", reference);
+            }
+        }
+
+        generator.writeArrayFieldStart("values");
+
+        JsonValueWriter valueWriter = new JsonValueWriter(generator, this.dataSet);
+
+        for (int i = 0; i < rowCount; i++)
+        {
+            int rowIndex = this.sourceRow(i);
+
+            if (encoding != null && !column.isNull(rowIndex))
+            {
+                long value = JsonNumberEncoding.longValue(column, rowIndex);
+                generator.writeNumber(encoding.encode(value, reference));
+                reference = encoding.nextReference(value, reference);
+            }
+            else if (!omitNulls || !column.isNull(rowIndex))
+            {
+                valueWriter.writeValue(column, rowIndex);
+            }
+        }
+
+        generator.writeEndArray();
+        generator.writeEndObject();
+
+        if (position != null)
+        {
+            position.index().columnRange(column.getName(), start, position.of(generator));
+        }
+    }
+
+    private JsonNumberEncoding numberEncoding(DfColumn column, IntList rows)
+    {
+        if (this.dataSet.compactNumbers() && (column.getType().isLong() || column.getType().isInt()))
+        {
+            return JsonNumberEncoding.forColumn(column, rows);
+        }
+
+        return null;
+    }
+
+    /**
+     * Writes the start row index and the length of each run of consecutive null values in the column as a flat
+     * {@code nullRuns} array, the field is not written if the column has no nulls. The row indexes are the positions of
+     * the rows in the output.
+     */
+    private void writeNullRuns(DfColumn column, int rowCount, JsonGenerator generator)
+    throws IOException
+    {
+        boolean hasNulls = false;
+
+        int rowIndex = 0;
+        while (rowIndex < rowCount)
+        {
+            if (column.isNull(this.sourceRow(rowIndex)))
+            {
+                int runStart = rowIndex;
+                while (rowIndex < rowCount && column.isNull(this.sourceRow(rowIndex)))
+                {
+                    rowIndex++;
+                }
+
+                if (!hasNulls)
+                {
+                    generator.writeArrayFieldStart("nullRuns");
+                    hasNulls = true;
+                }
+
+                generator.writeNumber(runStart);
+                generator.writeNumber(rowIndex - runStart);
+            }
+            else
+            {
+                rowIndex++;
+            }
+        }
+
+        if (hasNulls)
+        {
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Writes a part of the data (a range of rows or a column) to a JSON generator
+     */
+    @FunctionalInterface
+    private interface GeneratorProcedure
+    {
+        void write(JsonGenerator generator, OutputPosition position)
+        throws IOException;
+    }
+
+    /**
+     * Receives the difference between the offsets in the output and the offsets in the buffer of a partition once the
+     * partition has been placed in the output
+     */
+    @FunctionalInterface
+    private interface PartitionPlacement
+    {
+        void placed(int partitionIndex, long shift);
+    }
+
+    /**
+     * The position in the output of the data written by a generator, which is the number of bytes the generator has
+     * flushed to its target plus the number of bytes it has buffered
+     */
+    static private final class OutputPosition
+    {
+        private final JsonIndex.Builder index;
+        private final LongSupplier flushedByteCount;
+
+        OutputPosition(JsonIndex.Builder newIndex, LongSupplier newFlushedByteCount)
+        {
+            this.index = newIndex;
+            this.flushedByteCount = newFlushedByteCount;
+        }
+
+        JsonIndex.Builder index()
+        {
+            return this.index;
+        }
+
+        long of(JsonGenerator generator)
+        {
+            return this.flushedByteCount.getAsLong() + generator.getOutputBuffered();
+        }
+
+        /**
+         * The offset of the next array element to be written, skipping the comma the generator writes before each
+         * element but the first one
+         */
+        long ofNextElement(JsonGenerator generator, boolean first)
+        {
+            return this.of(generator) + (first ? 0 : 1);
+        }
+
+        OutputPosition inBuffer(PartitionBuffer buffer)
+        {
+            return new OutputPosition(this.index, buffer::size);
+        }
+    }
+
+    /**
+     * A byte buffer holding a JSON array of values (rows or columns) encoded by a single partition. Only the content
+     * of the array, without the enclosing brackets, is copied to the output so that the partitions can be stitched
+     * together into one array.
+     */
+    static private final class PartitionBuffer
+    extends ByteArrayOutputStream
+    {
+        PartitionBuffer()
+        {
+            super(8192);
+        }
+
+        void writeArrayContentTo(OutputStream outputStream)
+        throws IOException
+        {
+            outputStream.write(this.buf, 1, this.count - 2);
+        }
+    }
+
+    /**
+     * Passes the output through to the underlying stream, counting the bytes written
+     */
+    static private final class CountingOutputStream
+    extends FilterOutputStream
+    {
+        private long count = 0L;
+
+        CountingOutputStream(OutputStream newOutputStream)
+        {
+            super(newOutputStream);
+        }
+
+        @Override
+        public void write(int aByte)
+        throws IOException
+        {
+            this.out.write(aByte);
+            this.count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length)
+        throws IOException
+        {
+            this.out.write(bytes, offset, length);
+            this.count += length;
+        }
+
+        long getCount()
+        {
+            return this.count;
+        }
+    }
+}
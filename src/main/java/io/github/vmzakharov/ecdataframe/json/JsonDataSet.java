@@ -1,47 +1,37 @@
 package io.github.vmzakharov.ecdataframe.json;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import io.github.vmzakharov.ecdataframe.dataframe.AggregateFunction;
 import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
-import io.github.vmzakharov.ecdataframe.dataframe.DfBooleanColumn;
-import io.github.vmzakharov.ecdataframe.dataframe.DfColumn;
-import io.github.vmzakharov.ecdataframe.dataframe.DfDateColumn;
-import io.github.vmzakharov.ecdataframe.dataframe.DfDateTimeColumn;
-import io.github.vmzakharov.ecdataframe.dataframe.DfDecimalColumn;
-import io.github.vmzakharov.ecdataframe.dataframe.DfDoubleColumn;
-import io.github.vmzakharov.ecdataframe.dataframe.DfFloatColumn;
-import io.github.vmzakharov.ecdataframe.dataframe.DfIntColumn;
-import io.github.vmzakharov.ecdataframe.dataframe.DfLongColumn;
-import io.github.vmzakharov.ecdataframe.dataframe.DfStringColumn;
 import io.github.vmzakharov.ecdataframe.dataset.CsvSchema;
-import io.github.vmzakharov.ecdataframe.dataset.CsvSchemaColumn;
 import io.github.vmzakharov.ecdataframe.dataset.DataSetAbstract;
-import io.github.vmzakharov.ecdataframe.dsl.value.ValueType;
 import io.github.vmzakharov.ecdataframe.util.ExceptionFactory;
+import org.eclipse.collections.api.block.function.Function;
 import org.eclipse.collections.api.block.procedure.Procedure;
 import org.eclipse.collections.api.list.ImmutableList;
 import org.eclipse.collections.api.list.ListIterable;
 import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.api.list.primitive.IntList;
 import org.eclipse.collections.api.map.MutableMap;
 import org.eclipse.collections.impl.factory.Lists;
 import org.eclipse.collections.impl.factory.Maps;
 
-import java.util.function.IntConsumer;
-
-import static io.github.vmzakharov.ecdataframe.dsl.value.ValueType.BOOLEAN;
-import static io.github.vmzakharov.ecdataframe.dsl.value.ValueType.DATE;
-import static io.github.vmzakharov.ecdataframe.dsl.value.ValueType.DATE_TIME;
-import static io.github.vmzakharov.ecdataframe.dsl.value.ValueType.DECIMAL;
-import static io.github.vmzakharov.ecdataframe.dsl.value.ValueType.DOUBLE;
-import static io.github.vmzakharov.ecdataframe.dsl.value.ValueType.FLOAT;
-import static io.github.vmzakharov.ecdataframe.dsl.value.ValueType.INT;
-import static io.github.vmzakharov.ecdataframe.dsl.value.ValueType.LONG;
-import static io.github.vmzakharov.ecdataframe.dsl.value.ValueType.STRING;
-import static io.github.vmzakharov.ecdataframe.util.ExceptionFactory.exceptionByKey;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The main class for data frame JSON serialization support. It supports serializing and deserializing data frames
@@ -55,13 +45,33 @@ import static io.github.vmzakharov.ecdataframe.util.ExceptionFactory.exceptionBy
 public class JsonDataSet
 extends DataSetAbstract
 {
-    static private final ListIterable<ValueType> SUPPORTED_TYPES = Lists.immutable.with(
-        LONG, DOUBLE, INT, FLOAT, BOOLEAN, STRING, DATE, DATE_TIME, DECIMAL
-    );
+    static private final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .build();
+
+    static private final ObjectMapper JSON_MAPPER = new ObjectMapper(JSON_FACTORY);
+
+    static private final int DEFAULT_BATCH_SIZE = 65_536;
 
     private boolean dataByRows = true;
     private boolean schemaIncluded = false;
     private boolean dataOnly = false;
+    private int parallelism = 1;
+    private boolean fastNumberWriting = false;
+    private TemporalEncoding temporalEncoding = TemporalEncoding.ISO_TEXT;
+    private boolean omitNulls = false;
+    private boolean compactNumbers = false;
+    private boolean computedColumnsAsExpressions = false;
+    private JsonMetricsListener metricsListener;
+    private boolean metricsNullCount = false;
+    private int indexInterval = 0;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private long memoryBudget = 0L;
+    private final MutableMap<String, String> columnPaths = Maps.mutable.of();
+    private String explodedArray;
+    private JsonFactory jsonFactory = JSON_FACTORY;
+    private ObjectMapper jsonMapper = JSON_MAPPER;
 
     private CsvSchema schema;
 
@@ -170,6 +180,410 @@ extends DataSetAbstract
         return this;
     }
 
+    /**
+     * The number of partitions of a data frame that are serialized concurrently when writing Json
+     *
+     * @return the degree of parallelism used when writing Json
+     */
+    public int parallelism()
+    {
+        return this.parallelism;
+    }
+
+    /**
+     * Specifies the number of partitions of a data frame to serialize concurrently. When the data is organized by rows,
+     * the rows of the data frame are split into this many contiguous ranges, each range is converted to Json on a
+     * separate thread and the results are written to the output in row order. When the data is organized by columns,
+     * each column is converted to Json as a separate task and the results are written to the output in the column
+     * order. The default value is 1, meaning that the data frame is serialized sequentially on the calling thread.
+     * The parallelism also applies to reading a Json file organized by rows with {@link #readJson(Path)}, the file
+     * is split into this many parts parsed concurrently.
+     * NOTE: data frames with computed columns are always serialized sequentially
+     *
+     * @param newParallelism the number of partitions to serialize concurrently, must be a positive number
+     * @return this data set
+     */
+    public JsonDataSet parallelism(int newParallelism)
+    {
+        if (newParallelism < 1)
+        {
+            throw ExceptionFactory.exception("Parallelism must be a positive number, got " + newParallelism).get();
+        }
+
+        this.parallelism = newParallelism;
+        return this;
+    }
+
+    /**
+     * Indicates whether floating point and decimal values are formatted by the built-in number formatter, which avoids
+     * the intermediate strings of the standard formatting, when writing Json
+     *
+     * @return {@code true} if the fast number formatting is enabled, {@code false} otherwise
+     */
+    public boolean fastNumberWriting()
+    {
+        return this.fastNumberWriting;
+    }
+
+    /**
+     * Specifies whether the values of {@code DOUBLE} and {@code FLOAT} columns are formatted directly into a reusable
+     * buffer instead of going through {@code Double.toString()} and {@code Float.toString()}. The fast path covers
+     * values with a short exact decimal representation in the range [0.001, 10,000,000), which is where most of the
+     * numbers in a typical data frame fall, and produces the same text as the standard formatting. All other values
+     * are formatted the standard way.
+     * The same applies to the values of {@code DECIMAL} columns with up to 18 digits, which are formatted from their
+     * unscaled value instead of going through {@code BigDecimal.toString()}. Formatting a decimal value with a fraction
+     * still allocates its unscaled {@code BigInteger}, as {@code BigDecimal} has no other way to expose it.
+     * {@code LONG} and {@code INT} values are always written without intermediate strings.
+     *
+     * @param newFastNumberWriting true to enable the fast number formatting, false otherwise
+     * @return this data set
+     */
+    public JsonDataSet fastNumberWriting(boolean newFastNumberWriting)
+    {
+        this.fastNumberWriting = newFastNumberWriting;
+        return this;
+    }
+
+    /**
+     * The representation of the values of {@code DATE} and {@code DATE_TIME} columns in Json
+     *
+     * @return the encoding of the temporal values
+     */
+    public TemporalEncoding temporalEncoding()
+    {
+        return this.temporalEncoding;
+    }
+
+    /**
+     * Specifies how the values of {@code DATE} and {@code DATE_TIME} columns are represented in Json. By default they
+     * are written as ISO-8601 strings. With one of the epoch encodings dates are written as the number of days since
+     * 1970-01-01 and date-times as the number of milliseconds or microseconds since 1970-01-01T00:00:00, which is
+     * faster to write and to read and is more compact.
+     * If the schema is included in the Json object, the encoding of each column is recorded in the schema and is used
+     * when reading the object regardless of this setting. Otherwise, the setting must match the encoding that was used
+     * to write the data.
+     *
+     * @param newTemporalEncoding the encoding of the temporal values
+     * @return this data set
+     */
+    public JsonDataSet temporalEncoding(TemporalEncoding newTemporalEncoding)
+    {
+        this.temporalEncoding = newTemporalEncoding;
+        return this;
+    }
+
+    /**
+     * Indicates whether null values are left out of the Json representation of the data frame data
+     *
+     * @return {@code true} if null values are omitted, {@code false} if they are written as Json nulls
+     */
+    public boolean omitNulls()
+    {
+        return this.omitNulls;
+    }
+
+    /**
+     * Specifies whether null values are left out of the Json representation of the data frame data, which makes the
+     * representation of sparse data frames considerably smaller. If the data is organized by rows, the fields with
+     * null values are not written to the row objects. If the data is organized by columns, the null values are not
+     * written to the column value arrays, instead each column object containing nulls gets a {@code nullRuns} array
+     * listing the row index and the length of each run of consecutive nulls in the column, for example
+     * {@code {"column":"bar","nullRuns":[1,3],"values":[10,14]}} represents the column values
+     * {@code [10, null, null, null, 14]}.
+     * When reading, a field missing from a row object is always treated as a null value, and the null runs are
+     * recognized regardless of this setting.
+     *
+     * @param newOmitNulls true to omit null values, false to write them as Json nulls
+     * @return this data set
+     */
+    public JsonDataSet omitNulls(boolean newOmitNulls)
+    {
+        this.omitNulls = newOmitNulls;
+        return this;
+    }
+
+    /**
+     * Indicates whether the computed columns are represented only by their expressions in the schema rather than by
+     * their values in the data
+     *
+     * @return {@code true} if the computed columns are represented by their expressions, {@code false} otherwise
+     */
+    public boolean computedColumnsAsExpressions()
+    {
+        return this.computedColumnsAsExpressions;
+    }
+
+    /**
+     * Specifies whether the computed columns are represented only by their expressions in the schema rather than by
+     * their values in the data. When enabled, the values of the computed columns are not written to the data section,
+     * and when a data frame with the schema included is read, the computed columns listed in the schema are recreated
+     * from their expressions, so their values are evaluated only when they are accessed. When disabled, the values of
+     * the computed columns are written like the values of the stored columns, and are read as stored columns only if
+     * they are in the schema of the data set.
+     * The computed columns are recreated only if the schema is included, and only if all the columns are read. A file
+     * is therefore read sequentially when this is enabled, regardless of the parallelism, and a range of rows read
+     * using the index of a file contains only the stored columns.
+     *
+     * @param newComputedColumnsAsExpressions true to represent the computed columns by their expressions, false to
+     *                                        write their values
+     * @return this data set
+     */
+    public JsonDataSet computedColumnsAsExpressions(boolean newComputedColumnsAsExpressions)
+    {
+        this.computedColumnsAsExpressions = newComputedColumnsAsExpressions;
+        return this;
+    }
+
+    /**
+     * Indicates whether the values of {@code LONG} and {@code INT} columns are written with a compact encoding when the
+     * data is organized by columns
+     *
+     * @return {@code true} if the compact encoding of numbers is enabled, {@code false} otherwise
+     */
+    public boolean compactNumbers()
+    {
+        return this.compactNumbers;
+    }
+
+    /**
+     * Specifies whether the values of {@code LONG} and {@code INT} columns are written with a compact encoding when the
+     * data is organized by columns. The values of a column can be written as the differences between the consecutive
+     * values, for example {@code {"column":"id","encoding":"DELTA","values":[1000001,1,1,2,1]}} represents the column
+     * values {@code [1000001, 1000002, 1000003, 1000005, 1000006]}, or as the differences from the minimum value, for
+     * example {@code {"column":"year","encoding":"FRAME_OF_REFERENCE","base":2010,"values":[14,3,0,9]}}. Each column is
+     * written in whichever of these forms or as is takes the fewest characters. This setting has no effect on data
+     * organized by rows.
+     * When reading, the encoded columns are recognized and decoded regardless of this setting.
+     *
+     * @param newCompactNumbers true to encode the numbers compactly, false to write them as is
+     * @return this data set
+     */
+    public JsonDataSet compactNumbers(boolean newCompactNumbers)
+    {
+        this.compactNumbers = newCompactNumbers;
+        return this;
+    }
+
+    /**
+     * The listener receiving the metrics of the read and write operations of this data set
+     *
+     * @return the metrics listener or {@code null} if none has been specified
+     */
+    public JsonMetricsListener metricsListener()
+    {
+        return this.metricsListener;
+    }
+
+    /**
+     * Specifies a listener to receive the metrics of each read and write operation of this data set: the size of the
+     * Json, the number of rows, columns and, if {@link #metricsNullCount(boolean)} is set, nulls, the time spent in
+     * each phase of the operation and an estimate of the allocated memory. Regardless of this setting, the same metrics
+     * are recorded as a JDK Flight Recorder event ({@code io.github.vmzakharov.ecdataframe.json.JsonOperation}) when
+     * the event is enabled in a recording. If there is no listener and the event is not enabled, no metrics are
+     * collected.
+     *
+     * @param newMetricsListener the metrics listener, {@code null} to stop reporting metrics to a listener
+     * @return this data set
+     */
+    public JsonDataSet metricsListener(JsonMetricsListener newMetricsListener)
+    {
+        this.metricsListener = newMetricsListener;
+        return this;
+    }
+
+    /**
+     * Indicates whether the metrics of the operations include the number of nulls
+     *
+     * @return {@code true} if the nulls are counted, {@code false} otherwise
+     */
+    public boolean metricsNullCount()
+    {
+        return this.metricsNullCount;
+    }
+
+    /**
+     * Specifies whether the metrics of the read and write operations include the number of nulls in the data frame.
+     * Counting the nulls takes a pass over every value of the data frame, so it is off by default, in which case the
+     * null count is reported as -1.
+     *
+     * @param newMetricsNullCount true to count the nulls, false otherwise
+     * @return this data set
+     */
+    public JsonDataSet metricsNullCount(boolean newMetricsNullCount)
+    {
+        this.metricsNullCount = newMetricsNullCount;
+        return this;
+    }
+
+    /**
+     * The number of rows between the consecutive row offsets recorded in the sidecar index written with the Json file
+     *
+     * @return the index interval, zero if no index is written
+     */
+    public int indexInterval()
+    {
+        return this.indexInterval;
+    }
+
+    /**
+     * Specifies whether a sidecar index is written next to the Json file when a data frame is written to a file. The
+     * index records the row count and the schema of the data frame together with the byte offsets of the data: when the
+     * data is organized by rows, the offset of every {@code newIndexInterval}-th row, when it is organized by columns,
+     * the offsets of each column. Reading a file with an index does not require a schema to be specified and sizes the
+     * data frame upfront, and, if the data is organized by rows, allows reading ranges of rows without parsing the
+     * preceding rows and reading the file in parallel.
+     *
+     * @param newIndexInterval the number of rows between the recorded row offsets, zero not to write an index
+     * @return this data set
+     */
+    public JsonDataSet indexInterval(int newIndexInterval)
+    {
+        if (newIndexInterval < 0)
+        {
+            throw ExceptionFactory.exception("Index interval must not be negative, got " + newIndexInterval).get();
+        }
+
+        this.indexInterval = newIndexInterval;
+        return this;
+    }
+
+    /**
+     * The maximum number of rows held in memory at a time when the data organized by rows is processed as it is read
+     *
+     * @return the batch size
+     */
+    public int batchSize()
+    {
+        return this.batchSize;
+    }
+
+    /**
+     * Specifies the maximum number of rows held in memory at a time when the data organized by rows is processed as it
+     * is read, for example, when it is aggregated by {@link #aggregateJson(InputStream, ListIterable, ListIterable)}.
+     * The default value is 65,536.
+     *
+     * @param newBatchSize the number of rows in a batch, must be a positive number
+     * @return this data set
+     */
+    public JsonDataSet batchSize(int newBatchSize)
+    {
+        if (newBatchSize < 1)
+        {
+            throw ExceptionFactory.exception("Batch size must be a positive number, got " + newBatchSize).get();
+        }
+
+        this.batchSize = newBatchSize;
+        return this;
+    }
+
+    /**
+     * The maximum estimated heap size of the data read from a Json file
+     *
+     * @return the memory budget in bytes, zero if the size of the data read is not limited
+     */
+    public long memoryBudget()
+    {
+        return this.memoryBudget;
+    }
+
+    /**
+     * Specifies the maximum estimated heap size of the data read from a Json file. When a memory budget is specified,
+     * the file is scanned before it is read to estimate the size of the data frame (see
+     * {@link #estimateLoad(Path)}): {@link #readJson(Path)} fails upfront if the estimate exceeds the budget, rather
+     * than running out of memory partway through reading, and {@link #readJsonInBatches(Path, Procedure)} reduces the
+     * batch size so that each batch of rows fits within the budget.
+     *
+     * @param newMemoryBudget the memory budget in bytes, zero not to limit the size of the data read
+     * @return this data set
+     */
+    public JsonDataSet memoryBudget(long newMemoryBudget)
+    {
+        if (newMemoryBudget < 0L)
+        {
+            throw ExceptionFactory.exception("Memory budget must not be negative, got " + newMemoryBudget).get();
+        }
+
+        this.memoryBudget = newMemoryBudget;
+        return this;
+    }
+
+    /**
+     * The location of the value of a column in a row object, as a Json pointer
+     *
+     * @param columnName the name of the column
+     * @return the Json pointer specified for the column, or the pointer to the field of the row object with the name of
+     * the column if none was specified
+     */
+    public String columnPath(String columnName)
+    {
+        String path = this.columnPaths.get(columnName);
+        return path == null ? JsonRowFlattener.CHILD_SEPARATOR + JsonRowFlattener.escape(columnName) : path;
+    }
+
+    /**
+     * Specifies the location of the value of a column in the row objects of data organized by rows as a Json pointer
+     * (RFC 6901) relative to the row object, so that the columns can be populated from nested objects and arrays, for
+     * example, {@code "/trade/price"} or {@code "/tags/0"}. The values are extracted as the rows are parsed, without
+     * building a Json tree for the row. The paths apply to reading only, data frames are always written as flat row
+     * objects.
+     *
+     * @param columnName the name of the column
+     * @param jsonPointer the Json pointer to the value of the column
+     * @return this data set
+     */
+    public JsonDataSet columnPath(String columnName, String jsonPointer)
+    {
+        this.columnPaths.put(columnName, this.validJsonPointer(jsonPointer));
+        return this;
+    }
+
+    /**
+     * The array in the row objects whose elements become separate rows
+     *
+     * @return the Json pointer to the array, {@code null} if no array is exploded
+     */
+    public String explodedArray()
+    {
+        return this.explodedArray;
+    }
+
+    /**
+     * Specifies an array in the row objects of data organized by rows whose elements become separate rows, each row
+     * containing the values of an element along with the values from outside the array, which are repeated for each
+     * element. The columns whose paths (see {@link #columnPath(String, String)}) start with the path of the array are
+     * populated from the elements: the path of the array itself refers to the elements that are not objects or arrays,
+     * and the remainder of the path is applied to the elements that are. A row object whose array is empty or missing
+     * becomes a single row with no values in the element columns.
+     *
+     * @param arrayJsonPointer the Json pointer to the array, relative to the row object, or {@code null} not to explode
+     *                         any array
+     * @return this data set
+     */
+    public JsonDataSet explodedArray(String arrayJsonPointer)
+    {
+        this.explodedArray = arrayJsonPointer == null ? null : this.validJsonPointer(arrayJsonPointer);
+        return this;
+    }
+
+    /**
+     * @return {@code true} if the row objects are not read as flat objects with a field for each column
+     */
+    boolean nestedRows()
+    {
+        return this.columnPaths.notEmpty() || this.explodedArray != null;
+    }
+
+    private String validJsonPointer(String jsonPointer)
+    {
+        if (!jsonPointer.startsWith(JsonRowFlattener.CHILD_SEPARATOR))
+        {
+            throw ExceptionFactory.exception("Invalid Json pointer '" + jsonPointer + "', a pointer must start with '/'").get();
+        }
+
+        return jsonPointer;
+    }
+
     @Override
     public void openFileForReading()
     {
@@ -194,9 +608,104 @@ extends DataSetAbstract
         throw this.notYetSupportedException();
     }
 
-    private boolean schemaIsNotDefined()
+    /**
+     * The schema describing the data frame columns in the JSON object. If the JSON object that has been read includes
+     * a schema, this is the schema read from the object.
+     *
+     * @return the schema of this data set, or {@code null} if it has not been specified
+     */
+    public CsvSchema getSchema()
+    {
+        return this.schema;
+    }
+
+    void setSchema(CsvSchema newSchema)
+    {
+        this.schema = newSchema;
+    }
+
+    /**
+     * The Jackson factory used to create the parsers and generators for reading and writing data frames
+     *
+     * @return the factory, by default the factory of textual Json
+     */
+    public JsonFactory jsonFactory()
+    {
+        return this.jsonFactory;
+    }
+
+    /**
+     * Specifies the Jackson factory used to create the parsers and generators for reading and writing data frames,
+     * which may be a factory of a binary format compatible with Json, such as Smile or CBOR. The data frames are laid
+     * out the same way regardless of the format: by rows or by columns, with or without the name and the schema.
+     * A copy of the factory is used, configured not to close the streams passed to the data set.
+     * <p>
+     * The features that depend on the textual representation of Json are only available with a factory of textual
+     * Json: writing and reading Json strings, fast number writing, sidecar indexes, lazy reading, and parallel writing
+     * and reading. With a binary format, data frames are read and written sequentially and as byte arrays or streams.
+     *
+     * @param newJsonFactory the Jackson factory
+     * @return this data set
+     */
+    public JsonDataSet jsonFactory(JsonFactory newJsonFactory)
+    {
+        this.jsonFactory = newJsonFactory.rebuild()
+                .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+                .build();
+
+        this.jsonMapper = new ObjectMapper(this.jsonFactory);
+        return this;
+    }
+
+    ObjectMapper jsonMapper()
     {
-        return this.schema == null;
+        return this.jsonMapper;
+    }
+
+    /**
+     * The properties of the data set that determine the data frame read from a given Json file, two data sets with equal
+     * read configurations read the same data frame from the same file. The schema of the data set is always included,
+     * as it is used whenever the file does not have a schema of its own.
+     *
+     * @return the list of the property values
+     */
+    ImmutableList<Object> readConfiguration()
+    {
+        return Lists.immutable.of(
+                this.getName(),
+                this.dataByRows,
+                this.schemaIncluded,
+                this.dataOnly,
+                this.temporalEncoding,
+                this.computedColumnsAsExpressions,
+                this.jsonFactory.getFormatName(),
+                this.columnPaths.toImmutable(),
+                this.explodedArray == null ? "" : this.explodedArray,
+                this.schema == null
+                        ? Lists.immutable.empty()
+                        : this.schema.getColumns()
+                                .collect(column -> column.getName() + ":" + column.getType() + ":" + column.getPattern())
+                                .toImmutable()
+        );
+    }
+
+    /**
+     * @return {@code true} if the data set reads and writes textual Json, {@code false} if it uses a binary format
+     */
+    boolean textFormat()
+    {
+        return JsonFactory.FORMAT_NAME_JSON.equals(this.jsonFactory.getFormatName());
+    }
+
+    private void checkTextFormat(String operation)
+    {
+        if (!this.textFormat())
+        {
+            throw ExceptionFactory
+                    .exception(operation + " is not supported for the " + this.jsonFactory.getFormatName() + " format")
+                    .getUnsupported();
+        }
     }
 
     /**
@@ -210,186 +719,379 @@ extends DataSetAbstract
      */
     public DataFrame fromJsonString(String jsonString)
     {
-        JsonNode topNode = this.readTree(jsonString);
+        this.checkTextFormat("Reading a Json string");
 
-        return this.fromJsonObject(topNode);
+        try (JsonParser parser = this.jsonMapper.createParser(jsonString))
+        {
+            return new JsonDataFrameReader(this).read(parser);
+        }
+        catch (IOException e)
+        {
+            throw ExceptionFactory.exception("Failed to parse JSON string").get(e);
+        }
     }
 
-        /**
-         * De-serialize a data frame from a Json string based on the parameters of the data set (by rows, by columns, based
-         * on the included schema, etc.)
-         * If the json object does not have schema specified, the schema must be explicitly provided with the data set
-         *
-         * @param topNode a Json node object containing the data in the data frame organized as described by the properties
-         *                of the data set
-         * @return a data frame populated with the data in the Json object passes as the parameter
-         */
-    public DataFrame fromJsonObject(JsonNode topNode)
+    /**
+     * De-serialize data frames from many Json strings concurrently, each string converted the same way as by
+     * {@link #fromJsonString(String)}. The strings are converted in tasks of several strings each, run on the common
+     * fork join pool.
+     * Unlike {@link #fromJsonString(String)}, the schemas included in the strings are not retained by the data set.
+     *
+     * @param jsonStrings the Json strings, each containing a data frame
+     * @return the data frames, in the same order as the strings they were read from
+     */
+    public MutableList<DataFrame> fromJsonStrings(ListIterable<String> jsonStrings)
     {
-        MutableList<Procedure<String>> columnPopulators = Lists.mutable.of();
+        return this.fromJsonStrings(jsonStrings, ForkJoinPool.commonPool());
+    }
 
-        JsonNode dataNode;
+    /**
+     * De-serialize data frames from many Json strings concurrently, each string converted the same way as by
+     * {@link #fromJsonString(String)}. The strings are converted in tasks of several strings each, each task reusing a
+     * single reader for its strings, so the cost of setting up the conversion is paid once per task rather than once per
+     * string.
+     * Unlike {@link #fromJsonString(String)}, the schemas included in the strings are not retained by the data set.
+     *
+     * @param jsonStrings the Json strings, each containing a data frame
+     * @param executor the executor to run the conversion tasks on
+     * @return the data frames, in the same order as the strings they were read from
+     */
+    public MutableList<DataFrame> fromJsonStrings(ListIterable<String> jsonStrings, Executor executor)
+    {
+        this.checkTextFormat("Reading Json strings");
 
-        if (this.dataOnly())
-        {
-            this.validateSchemaIsDefinedOrThrow();
+        return new JsonBatchConverter(this, executor).fromJsonStrings(jsonStrings);
+    }
 
-            dataNode = topNode;
+    /**
+     * De-serialize a data frame from a byte array containing Json, or the binary format of the Jackson factory of the
+     * data set, based on the parameters of the data set (by rows, by columns, based on the included schema, etc.)
+     * If the json object does not have schema specified, the schema must be explicitly provided with the data set
+     *
+     * @param json the encoded data frame organized as described by the properties of the data set
+     * @return a data frame populated with the data in the byte array
+     */
+    public DataFrame fromJsonBytes(byte[] json)
+    {
+        try (JsonParser parser = this.jsonMapper.createParser(json))
+        {
+            return new JsonDataFrameReader(this).read(parser);
         }
-        else
+        catch (IOException e)
         {
-            JsonNode schemaNode = topNode.get("schema");
-
-            if (schemaNode == null)
-            {
-                this.validateSchemaIsDefinedOrThrow();
-            }
-            else
-            {
-                this.populateSchemaFromSchemaNode(schemaNode);
-            }
-
-            dataNode = topNode.get("data");
+            throw ExceptionFactory.exception("Failed to parse " + this.jsonFactory.getFormatName()).get(e);
         }
+    }
 
-        DataFrame dataFrame = new DataFrame(this.dataOnly() ? this.getName() : topNode.get("name").asText());
+    /**
+     * De-serialize a data frame from a Json node based on the parameters of the data set (by rows, by columns, based
+     * on the included schema, etc.)
+     * If the json object does not have schema specified, the schema must be explicitly provided with the data set
+     *
+     * @param topNode a Json node object containing the data in the data frame organized as described by the properties
+     *                of the data set
+     * @return a data frame populated with the data in the Json object passes as the parameter
+     */
+    public DataFrame fromJsonObject(JsonNode topNode)
+    {
+        try (JsonParser parser = topNode.traverse(this.jsonMapper))
+        {
+            return new JsonDataFrameReader(this).read(parser);
+        }
+        catch (IOException e)
+        {
+            throw ExceptionFactory.exception("Failed to read JSON object").get(e);
+        }
+    }
 
-        this.schema.getColumns()
-                   .forEach(col -> this.addDataFrameColumn(dataFrame, col, columnPopulators));
+    /**
+     * De-serialize a data frame from a stream containing Json based on the parameters of the data set (by rows, by
+     * columns, based on the included schema, etc.). The values are added to the data frame as they are parsed, without
+     * building an intermediate Json object or string. The input stream is not closed.
+     * If the json object does not have schema specified, the schema must be explicitly provided with the data set
+     *
+     * @param inputStream the stream to read Json from
+     * @return a data frame populated with the data read from the stream
+     */
+    public DataFrame readJson(InputStream inputStream)
+    {
+        try (JsonParser parser = this.jsonMapper.createParser(inputStream))
+        {
+            return new JsonDataFrameReader(this).read(parser);
+        }
+        catch (IOException e)
+        {
+            throw ExceptionFactory.exception("Failed to parse JSON").get(e);
+        }
+    }
 
-        this.populateDataFrameWithData(columnPopulators, dataNode);
+    /**
+     * Scans a data frame organized by columns in Json without parsing the column values. The values of each column
+     * are parsed when the column is first selected from the returned lazy data frame, so the columns that are never
+     * selected are never parsed. The array is not copied and must not be modified while the lazy data frame is in use.
+     * If the json object does not have schema specified, the schema must be explicitly provided with the data set
+     *
+     * @param json the UTF-8 encoded Json containing the data frame organized as described by the properties of the data
+     *             set
+     * @return a lazy data frame to select the columns from
+     */
+    public JsonLazyDataFrame readLazy(byte[] json)
+    {
+        return JsonLazyDataFrame.fromBytes(this, json);
+    }
 
-        dataFrame.seal();
+    /**
+     * Scans a data frame organized by columns in a Json file without parsing the column values, or, if the file has a
+     * sidecar index, takes the locations of the columns from the index instead of scanning. The values of each
+     * column are parsed when the column is first selected from the returned lazy data frame. The contents of the file
+     * may be released under memory pressure, in which case the file is read again when a column that has not been
+     * parsed yet is selected.
+     * If the json object does not have schema specified, the schema must be explicitly provided with the data set
+     *
+     * @param path the UTF-8 encoded Json file containing the data frame organized as described by the properties of the
+     *             data set
+     * @return a lazy data frame to select the columns from
+     */
+    public JsonLazyDataFrame readLazy(Path path)
+    {
+        return JsonLazyDataFrame.fromFile(this, path);
+    }
 
-        return dataFrame;
+    /**
+     * De-serialize a data frame from a Json file based on the parameters of the data set (by rows, by columns, based
+     * on the included schema, etc.). If the file has a sidecar index, it is used to size the data frame and as the
+     * source of the schema if the data set does not have one, and, if the data is organized by rows and the
+     * parallelism of the data set is greater than one, to split the file into parts that are parsed concurrently,
+     * unless the computed columns are read as expressions, as they are defined in the schema included in the file.
+     * If the file has no index, the data is organized by rows and the parallelism is greater than one, the file is
+     * first scanned for the positions of the rows without parsing them, and is then split into parts the same way.
+     * If a memory budget is specified, the file is scanned first and is not read if the estimated size of the data
+     * frame exceeds the budget.
+     * If the json object does not have schema specified and there is no index, the schema must be explicitly provided
+     * with the data set
+     *
+     * @param jsonFile the file to read Json from
+     * @return a data frame populated with the data read from the file
+     */
+    public DataFrame readJson(Path jsonFile)
+    {
+        return this.readJson(jsonFile, true);
     }
 
-    private void validateSchemaIsDefinedOrThrow()
+    /**
+     * De-serialize a data frame from a Json file as {@link #readJson(Path)} does
+     *
+     * @param jsonFile the file to read Json from
+     * @param publishSchema whether a schema embedded in the file replaces the schema of this data set
+     * @return a data frame populated with the data read from the file
+     */
+    DataFrame readJson(Path jsonFile, boolean publishSchema)
     {
-        if (this.schemaIsNotDefined())
+        if (this.memoryBudget > 0L)
         {
-            throw ExceptionFactory
-                    .exception("When reading a Json object, schema must be specified in the data set definition or in the json string")
-                    .get();
+            this.checkFitsInMemoryBudget(this.estimateLoad(jsonFile));
+        }
+
+        JsonIndex index = this.readIndexIfPresent(jsonFile);
+
+        // the computed columns are defined in the schema included in the file, which the parts of the file read
+        // concurrently do not contain
+        boolean inParallel = this.dataByRows() && this.parallelism() > 1 && !this.computedColumnsAsExpressions();
+
+        if (index == null && inParallel && this.textFormat())
+        {
+            index = this.scanRows(jsonFile);
+        }
+
+        if (index != null && index.isByRows() && inParallel && index.rowOffsetCount() > 1)
+        {
+            return new JsonIndexedReader(this, jsonFile, index).readInParallel();
+        }
+
+        try (InputStream inputStream = Files.newInputStream(jsonFile);
+             JsonParser parser = this.jsonMapper.createParser(inputStream))
+        {
+            return new JsonDataFrameReader(this, publishSchema).useIndex(index).read(parser);
+        }
+        catch (IOException e)
+        {
+            throw ExceptionFactory.exception("Failed to parse JSON file " + jsonFile).get(e);
         }
     }
 
-    private void populateSchemaFromSchemaNode(JsonNode schemaNode)
+    /**
+     * De-serialize a range of rows from a Json file organized by rows, using the sidecar index of the file to locate
+     * the range. Only the part of the file containing the range is read.
+     *
+     * @param jsonFile the file to read Json from, it must have an index written with it
+     * @param fromRow the index of the first row to read
+     * @param toRow the index of the row following the last row to read
+     * @return a data frame populated with the rows in the range
+     */
+    public DataFrame readJson(Path jsonFile, int fromRow, int toRow)
     {
-        DataFrame schemaDataFrame = this.schemaDataFrame(schemaNode);
-
-        this.schema = new CsvSchema();
-        schemaDataFrame
-                .selectBy("Stored == 'Y'")
-                .forEach(
-                        row -> this.schema.addColumn(
-                                row.getString("Name"),
-                                ValueType.valueOf(row.getString("Type"))
-                        )
-                );
+        return new JsonIndexedReader(this, jsonFile, this.readIndex(jsonFile)).readRange(fromRow, toRow);
     }
 
-    private void populateDataFrameWithData(MutableList<Procedure<String>>  columnPopulators, JsonNode dataNode)
+    /**
+     * De-serialize a data frame from a Json file in batches of rows, passing each batch to the consumer as soon as it
+     * has been read, so that only one batch is held in memory at a time. The batch size is the batch size of the data
+     * set or, if a memory budget is specified and the estimated size of a batch would exceed it, the number of rows
+     * estimated to fit within the budget. Data organized by columns cannot be split into batches and is passed to the
+     * consumer as a single batch, provided it fits within the memory budget.
+     *
+     * @param jsonFile the file to read Json from
+     * @param consumer receives the data frames containing the consecutive batches of rows, at least one (possibly
+     *                 empty) batch is passed to it
+     */
+    public void readJsonInBatches(Path jsonFile, Procedure<DataFrame> consumer)
     {
-        if (dataNode instanceof ArrayNode arrayNode)
+        int rowsInBatch = this.batchSize;
+
+        if (this.memoryBudget > 0L)
         {
+            JsonLoadEstimate estimate = this.estimateLoad(jsonFile);
+
             if (this.dataByRows())
             {
-                this.populateDataFrameFromJsonRows(arrayNode, columnPopulators);
+                rowsInBatch = Math.min(rowsInBatch, estimate.batchSizeFor(this.memoryBudget));
             }
             else
             {
-                this.populateDataFrameFromJsonColumns(arrayNode, columnPopulators);
+                this.checkFitsInMemoryBudget(estimate);
             }
         }
-        else
+
+        try (InputStream inputStream = Files.newInputStream(jsonFile);
+             JsonParser parser = this.jsonMapper.createParser(inputStream))
+        {
+            new JsonDataFrameReader(this)
+                    .useIndex(this.readIndexIfPresent(jsonFile))
+                    .readInBatches(parser, rowsInBatch, consumer);
+        }
+        catch (IOException e)
         {
-            throw ExceptionFactory.exception("Unexpected data node type, expected array node: " + dataNode.getClass().getSimpleName()).get();
+            throw ExceptionFactory.exception("Failed to parse JSON file " + jsonFile).get(e);
         }
     }
 
-    private DataFrame schemaDataFrame(JsonNode schemaNode)
+    /**
+     * Scans a Json file without creating a data frame to estimate the heap space the data frame read from the file
+     * would take. The schema is taken from the data set, the Json or the sidecar index of the file, in this order.
+     *
+     * @param jsonFile the file to scan
+     * @return the estimate of the number of rows and the heap size of the data frame
+     */
+    public JsonLoadEstimate estimateLoad(Path jsonFile)
     {
-        CsvSchema schemaSchema = new CsvSchema()
-                .addColumn("Name", STRING)
-                .addColumn("Type", STRING)
-                .addColumn("Stored", STRING)
-                .addColumn("Expression", STRING);
-
-        JsonDataSet dataSet = new JsonDataSet("df schema", schemaSchema)
-                .dataByRows(true)
-                .dataOnly(true);
-
-        return dataSet.fromJsonObject(schemaNode);
+        try (InputStream inputStream = Files.newInputStream(jsonFile);
+             JsonParser parser = this.jsonMapper.createParser(inputStream))
+        {
+            return new JsonDataFrameReader(this, false)
+                    .useIndex(this.readIndexIfPresent(jsonFile))
+                    .estimateLoad(parser);
+        }
+        catch (IOException e)
+        {
+            throw ExceptionFactory.exception("Failed to scan JSON file " + jsonFile).get(e);
+        }
     }
 
-    private void populateDataFrameFromJsonColumns(ArrayNode columns, MutableList<Procedure<String>> columnPopulators)
+    /**
+     * Finds the row objects in a Json file organized by rows using the structural scanner, so that the file can be read
+     * in parallel even though it has no sidecar index
+     *
+     * @return the index of the rows held in memory or {@code null} if the file cannot be scanned, in which case it is
+     * read sequentially
+     */
+    private JsonIndex scanRows(Path jsonFile)
     {
-        MutableMap<String, Procedure<String>> columnPopulatorsByName = Maps.mutable.of();
-
-        this.schema.getColumns()
-                 .forEachInBoth(columnPopulators,
-                     (col, populator) -> columnPopulatorsByName.put(col.getName(), populator));
+        JsonStructuralScanner scanner = JsonStructuralScanner.forFile(jsonFile);
 
-        for (int columnIndex = 0; columnIndex < columns.size(); columnIndex++)
+        if (scanner == null)
         {
-            JsonNode columnObject = columns.get(columnIndex);
-            String columnName = columnObject.get("column").asText();
-            ArrayNode columnValues = (ArrayNode) columnObject.get("values");
-
-            Procedure<String> columnPopulator = columnPopulatorsByName.get(columnName);
+            return null;
+        }
 
-            for (int valueIndex = 0; valueIndex < columnValues.size(); valueIndex++)
-            {
-                columnPopulator.value(this.nodeTextOrNull(columnValues.get(valueIndex)));
-            }
+        try (InputStream inputStream = Files.newInputStream(jsonFile);
+             JsonParser parser = this.jsonMapper.createParser(inputStream))
+        {
+            return new JsonDataFrameReader(this, false).indexRows(parser, scanner);
+        }
+        catch (IOException e)
+        {
+            throw ExceptionFactory.exception("Failed to scan JSON file " + jsonFile).get(e);
         }
     }
 
-    private void populateDataFrameFromJsonRows(ArrayNode rows, MutableList<Procedure<String>> columnPopulators)
+    private void checkFitsInMemoryBudget(JsonLoadEstimate estimate)
     {
-        for (int rowIndex = 0; rowIndex < rows.size(); rowIndex++)
+        if (!estimate.fitsIn(this.memoryBudget))
         {
-            JsonNode rowObject = rows.get(rowIndex);
-            this.schema.getColumns()
-                       .forEachInBoth(columnPopulators,
-                               (col, populator) -> populator.value(this.nodeTextOrNull(rowObject.get(col.getName())))
-                       );
+            throw ExceptionFactory
+                    .exception("Estimated size of data frame " + estimate.getDataFrameName() + ", " + estimate.getHeapSize()
+                            + " bytes, exceeds the memory budget of " + this.memoryBudget + " bytes")
+                    .get();
         }
     }
 
-    private String nodeTextOrNull(JsonNode node)
+    /**
+     * Reads the sidecar index written with a Json file
+     *
+     * @param jsonFile the Json file (not the index file)
+     * @return the index of the file
+     */
+    public JsonIndex readIndex(Path jsonFile)
     {
-        return node.isNull() ? null : node.asText();
+        return JsonIndex.read(JSON_FACTORY, jsonFile);
     }
 
-    private void addDataFrameColumn(DataFrame df, CsvSchemaColumn schemaCol, MutableList<Procedure<String>> columnPopulators)
+    private JsonIndex readIndexIfPresent(Path jsonFile)
     {
-        ValueType columnType = schemaCol.getType();
-
-        DfColumn lastColumn = df.newColumn(schemaCol.getName(), columnType);
+        return Files.exists(JsonIndex.sidecarPath(jsonFile)) ? this.readIndex(jsonFile) : null;
+    }
 
-        if (SUPPORTED_TYPES.contains(columnType))
+    /**
+     * Aggregates the data frame read from a stream containing Json without materializing it, producing the same result
+     * as reading the data frame and calling {@code aggregateBy} on it. Only the group by columns and the columns being
+     * aggregated are read. If the data is organized by rows, the rows are read and aggregated in batches, so the memory
+     * used is proportional to the batch size and the number of groups rather than the number of rows. If the data is
+     * organized by columns, the columns to aggregate are read in full before they are aggregated.
+     * The supported aggregations are sum, min, max, avg, avg2d, count and same.
+     *
+     * @param inputStream the stream to read Json from, it is not closed
+     * @param aggregators the aggregations to apply
+     * @param groupByColumns the names of the columns to group by
+     * @return a data frame with a row for each group
+     */
+    public DataFrame aggregateJson(
+            InputStream inputStream,
+            ListIterable<AggregateFunction> aggregators,
+            ListIterable<String> groupByColumns)
+    {
+        try (JsonParser parser = this.jsonMapper.createParser(inputStream))
         {
-            Procedure<String> populator = s -> schemaCol.parseAndAddToColumn(s, lastColumn);
-            columnPopulators.add(populator);
+            return new JsonAggregation(this, aggregators, groupByColumns).aggregate(parser);
         }
-        else
+        catch (IOException e)
         {
-            throw exceptionByKey("CSV_POPULATING_BAD_COL_TYPE").with("columnType", columnType).get();
+            throw ExceptionFactory.exception("Failed to parse JSON").get(e);
         }
     }
 
-    private JsonNode readTree(String jsonString)
+    /**
+     * Creates an appender that adds the rows of Json batches to an existing data frame, for example to accumulate the
+     * messages received from a stream into one data frame. The stored columns of the data frame must match the schema
+     * of the batches, which is the schema of the data set, the schema included in the batch, or, if neither is
+     * available, the schema implied by the stored columns of the data frame. The data frame is sealed only when
+     * {@link JsonAppender#seal()} is called, not after each batch.
+     *
+     * @param dataFrame the data frame to add the rows to
+     * @return an appender of the batches to the data frame
+     */
+    public JsonAppender appendTo(DataFrame dataFrame)
     {
-        try
-        {
-            return new ObjectMapper().readTree(jsonString);
-        }
-        catch (JsonProcessingException e)
-        {
-            throw ExceptionFactory.exception("Failed to parse JSON string").get(e);
-        }
+        return new JsonAppender(this, dataFrame);
     }
 
     /**
@@ -402,160 +1104,237 @@ extends DataSetAbstract
      */
     public String toJsonString(DataFrame dataFrame)
     {
-        JsonNode dataNode = this.dataByColumns() ? this.toJsonNodeByColumns(dataFrame) : this.toJsonNodeByRows(dataFrame);
-
-        if (this.dataOnly())
-        {
-            return dataNode.toString();
-        }
-
-        ObjectNode dfAsJson = new ObjectMapper().createObjectNode();
-
-        dfAsJson.put("name", dataFrame.getName());
+        this.checkTextFormat("Writing a Json string");
 
-        if (this.schemaIncluded())
-        {
-            dfAsJson.set("schema", this.toJsonNodeByRows(dataFrame.schema()));
-        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
 
-        dfAsJson.set("data", dataNode);
+        this.writeJson(dataFrame, outputStream);
 
-        return dfAsJson.toString();
+        return outputStream.toString(StandardCharsets.UTF_8);
     }
 
-    private JsonNode toJsonNodeByRows(DataFrame dataFrame)
+    /**
+     * Serialize a selection of the rows and the columns of a data frame into a Json string based on the parameters of
+     * the data set, the same as {@link #writeJson(DataFrame, IntList, ListIterable, OutputStream)}.
+     *
+     * @param dataFrame the data frame to serialize to Json
+     * @param rowIndexes the indexes of the rows to serialize, in the order they are to be serialized, or {@code null} for
+     * all the rows
+     * @param columnNames the names of the columns to serialize, in the order they are to be serialized, or {@code null}
+     * for all the columns
+     * @return Json string containing the selected data organized as described by the properties of the data set
+     */
+    public String toJsonString(DataFrame dataFrame, IntList rowIndexes, ListIterable<String> columnNames)
     {
-        ArrayNode dfByRows = new ObjectMapper().createArrayNode();
+        this.checkTextFormat("Writing a Json string");
 
-        ImmutableList<DfColumn> columns = dataFrame.getColumns();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
 
-        dataFrame.forEach(
-                row -> {
-                    ObjectNode rowNode = new ObjectMapper().createObjectNode();
-                    dfByRows.add(rowNode);
-                    columns.forEach(col ->
-                            this.addValueToRowNode(rowNode, col, row.rowIndex())
-                    );
-                }
-        );
+        this.writeJson(dataFrame, rowIndexes, columnNames, outputStream);
 
-        return dfByRows;
+        return outputStream.toString(StandardCharsets.UTF_8);
     }
 
-    private void addValueToRowNode(ObjectNode rowNode, DfColumn column, int rowIndex)
+    /**
+     * Serialize many data frames into Json strings concurrently, each data frame converted the same way as by
+     * {@link #toJsonString(DataFrame)}. The data frames are converted in tasks of several data frames each, run on the
+     * common fork join pool.
+     *
+     * @param dataFrames the data frames to serialize
+     * @return the Json strings, in the same order as the data frames they were written from
+     */
+    public MutableList<String> toJsonStrings(ListIterable<DataFrame> dataFrames)
     {
-        String name = column.getName();
-
-        if (column.isNull(rowIndex))
-        {
-            rowNode.putNull(name);
-        }
-        else
-        {
-            switch (column.getType())
-            {
-                case LONG -> rowNode.put(name, ((DfLongColumn) column).getLong(rowIndex));
-                case INT -> rowNode.put(name, ((DfIntColumn) column).getInt(rowIndex));
-                case FLOAT -> rowNode.put(name, ((DfFloatColumn) column).getFloat(rowIndex));
-                case DOUBLE -> rowNode.put(name, ((DfDoubleColumn) column).getDouble(rowIndex));
-                case DECIMAL -> rowNode.put(name, ((DfDecimalColumn) column).getTypedObject(rowIndex));
-                case STRING -> rowNode.put(name, column.getValueAsString(rowIndex));
-                case BOOLEAN -> rowNode.put(name, ((DfBooleanColumn) column).getBoolean(rowIndex));
-                case DATE, DATE_TIME -> rowNode.put(name, column.getValueAsStringLiteral(rowIndex));
-                default -> throw this.unsupportedColumnException(column);
-            }
-        }
+        return this.toJsonStrings(dataFrames, ForkJoinPool.commonPool());
     }
 
-    private JsonNode toJsonNodeByColumns(DataFrame dataFrame)
+    /**
+     * Serialize many data frames into Json strings concurrently, each data frame converted the same way as by
+     * {@link #toJsonString(DataFrame)}. The data frames are converted in tasks of several data frames each, each task
+     * reusing a single writer and output buffer for its data frames. A data frame must not be passed more than once, as
+     * the computed columns of a data frame cannot be evaluated from more than one thread at a time.
+     *
+     * @param dataFrames the data frames to serialize
+     * @param executor the executor to run the conversion tasks on
+     * @return the Json strings, in the same order as the data frames they were written from
+     */
+    public MutableList<String> toJsonStrings(ListIterable<DataFrame> dataFrames, Executor executor)
     {
-        ImmutableList<DfColumn> columns = dataFrame.getColumns();
+        this.checkTextFormat("Writing Json strings");
+
+        return new JsonBatchConverter(this, executor).toJsonStrings(dataFrames);
+    }
 
-        ArrayNode dataNode = new ObjectMapper().createArrayNode();
+    /**
+     * Serialize a data frame into a byte array containing UTF-8 encoded Json, or the binary format of the Jackson
+     * factory of the data set, based on the parameters of the data set (by rows, by columns, include schema, etc.)
+     *
+     * @param dataFrame the data frame to serialize
+     * @return the encoded data frame organized as described by the properties of the data set
+     */
+    public byte[] toJsonBytes(DataFrame dataFrame)
+    {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
 
-        columns.forEach(column -> this.addColumnValues(dataNode, column));
+        this.writeJson(dataFrame, outputStream);
 
-        return dataNode;
+        return outputStream.toByteArray();
     }
 
-    private void addColumnValues(ArrayNode arrayNode, DfColumn column)
+    /**
+     * Serialize a data frame as UTF-8 encoded Json to an output stream based on the parameters of the data set (by
+     * rows, by columns, include schema, etc.). The Json is written to the stream as it is produced, without building
+     * an intermediate Json object or string. The output stream is flushed but not closed.
+     *
+     * @param dataFrame the data frame to serialize to Json
+     * @param outputStream the stream to write Json to
+     */
+    public void writeJson(DataFrame dataFrame, OutputStream outputStream)
     {
-        ObjectNode columnNode = new ObjectMapper().createObjectNode();
-        columnNode.put("column", column.getName());
-
-        ArrayNode values = new ObjectMapper().createArrayNode();
+        new JsonDataFrameWriter(this).write(dataFrame, outputStream);
+    }
 
-        int columnSize = column.getSize();
+    /**
+     * Serialize a selection of the rows and the columns of a data frame as Json to an output stream based on the
+     * parameters of the data set, for example the rows in the order of a sort, or the rows matching a filter. Only the
+     * selected values are written, in the order of the selection, directly from the columns of the data frame, so no
+     * data frame holding the selection needs to be created. The output is the same as serializing a data frame
+     * containing just the selected rows and columns, with the name of the data frame passed in. If the computed columns
+     * are written as expressions, the columns their expressions refer to should be selected as well.
+     * <p>
+     * No index is produced for the output, regardless of the index interval of the data set. The output stream is
+     * flushed but not closed.
+     *
+     * @param dataFrame the data frame to serialize to Json
+     * @param rowIndexes the indexes of the rows to serialize, in the order they are to be serialized, or {@code null} for
+     * all the rows
+     * @param columnNames the names of the columns to serialize, in the order they are to be serialized, or {@code null}
+     * for all the columns
+     * @param outputStream the stream to write Json to
+     */
+    public void writeJson(DataFrame dataFrame, IntList rowIndexes, ListIterable<String> columnNames, OutputStream outputStream)
+    {
+        new JsonDataFrameWriter(this, rowIndexes, columnNames).write(dataFrame, outputStream);
+    }
 
-        IntConsumer addBlock;
+    /**
+     * Serialize a data frame as UTF-8 encoded Json to a file based on the parameters of the data set (by rows, by
+     * columns, include schema, etc.). If the index interval of the data set is greater than zero, a sidecar index of
+     * the file is written next to it.
+     *
+     * @param dataFrame the data frame to serialize to Json
+     * @param jsonFile the file to write Json to
+     */
+    public void writeJson(DataFrame dataFrame, Path jsonFile)
+    {
+        JsonIndex index;
 
-        if (column instanceof DfLongColumn longColumn)
-        {
-            addBlock = rowIndex -> values.add(longColumn.getLong(rowIndex));
-        }
-        else if (column instanceof DfIntColumn intColumn)
-        {
-            addBlock = rowIndex -> values.add(intColumn.getInt(rowIndex));
-        }
-        else if (column instanceof DfFloatColumn floatColumn)
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(jsonFile)))
         {
-            addBlock = rowIndex -> values.add(floatColumn.getFloat(rowIndex));
+            index = new JsonDataFrameWriter(this).write(dataFrame, outputStream);
         }
-        else if (column instanceof DfDoubleColumn doubleColumn)
+        catch (IOException e)
         {
-            addBlock = rowIndex -> values.add(doubleColumn.getDouble(rowIndex));
+            throw ExceptionFactory.exception("Failed to write JSON file " + jsonFile).get(e);
         }
-        else if (column instanceof DfBooleanColumn booleanColumn)
-        {
-            addBlock = rowIndex -> values.add(booleanColumn.getBoolean(rowIndex));
-        }
-        else if (column instanceof DfStringColumn stringColumn)
-        {
-            addBlock = rowIndex -> values.add(stringColumn.getTypedObject(rowIndex));
-        }
-        else if (column instanceof DfDateColumn dateColumn)
-        {
-            addBlock = rowIndex -> values.add(dateColumn.getValueAsStringLiteral(rowIndex));
-        }
-        else if (column instanceof DfDateTimeColumn dateTimeColumn)
+
+        Path indexFile = JsonIndex.sidecarPath(jsonFile);
+
+        try
         {
-            addBlock = rowIndex -> values.add(dateTimeColumn.getValueAsStringLiteral(rowIndex));
+            if (index == null)
+            {
+                Files.deleteIfExists(indexFile);
+            }
+            else
+            {
+                try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(indexFile)))
+                {
+                    index.write(JSON_FACTORY, outputStream);
+                }
+            }
         }
-        else if (column instanceof DfDecimalColumn decimalColumn)
+        catch (IOException e)
         {
-            addBlock = rowIndex -> values.add(decimalColumn.getTypedObject(rowIndex));
+            throw ExceptionFactory.exception("Failed to write JSON index " + indexFile).get(e);
         }
-        else
+    }
+
+    /**
+     * Serialize the rows of a data frame to a separate Json file for each distinct value of a key column, for example,
+     * a file for each region, based on the parameters of the data set. Each file contains a complete data frame with the
+     * name and the schema of the data frame being written and the rows with the key value, in their original order. The
+     * rows are grouped in a single pass over the key column and written straight from the data frame, without creating
+     * a data frame for each key. If the parallelism of the data set is greater than one, the files are written
+     * concurrently. Only the data organized by rows can be partitioned, and no sidecar indexes are written for the
+     * files.
+     *
+     * @param dataFrame the data frame to serialize
+     * @param keyColumnName the name of the column to partition the rows by
+     * @param partitionFile returns the file to write the rows with the key value passed to it, which is {@code null}
+     *                      for the rows with no value in the key column
+     * @return the files written, by the key value
+     */
+    public MutableMap<Object, Path> writeJsonPartitions(DataFrame dataFrame, String keyColumnName, Function<Object, Path> partitionFile)
+    {
+        return new JsonDataFrameWriter(this).writePartitions(dataFrame, keyColumnName, partitionFile);
+    }
+
+    /**
+     * Serialize the rows of a data frame to a separate Json file in a directory for each distinct value of a key
+     * column, as described in {@link #writeJsonPartitions(DataFrame, String, Function)}. The files are named after the
+     * data frame and the key value, for example {@code sales-EMEA.json}. The characters of the key value other than
+     * letters, digits, dots and dashes are escaped as an underscore followed by the hexadecimal code of each of their
+     * UTF-8 bytes, for example {@code sales-North_20America.json}, so that different key values are written to
+     * different files. The file for the rows with no key value is named {@code sales-_null.json}.
+     *
+     * @param dataFrame the data frame to serialize
+     * @param keyColumnName the name of the column to partition the rows by
+     * @param directory the directory to write the files to
+     * @return the files written, by the key value
+     */
+    public MutableMap<Object, Path> writeJsonPartitions(DataFrame dataFrame, String keyColumnName, Path directory)
+    {
+        return this.writeJsonPartitions(
+                dataFrame,
+                keyColumnName,
+                key -> directory.resolve(dataFrame.getName() + "-" + this.partitionFileSuffix(key) + ".json"));
+    }
+
+    /**
+     * @return the part of a partition file name derived from the key value, unique for each key value
+     */
+    private String partitionFileSuffix(Object key)
+    {
+        if (key == null)
         {
-            throw this.unsupportedColumnException(column);
+            // an escaped key value never has an underscore followed by a letter other than A to F
+            return "_null";
         }
 
-        for (int rowIndex = 0; rowIndex < columnSize; rowIndex++)
+        StringBuilder suffix = new StringBuilder();
+
+        for (byte keyByte : String.valueOf(key).getBytes(StandardCharsets.UTF_8))
         {
-            if (column.isNull(rowIndex))
+            char keyChar = (char) (keyByte & 0xFF);
+
+            if (keyChar >= 'A' && keyChar <= 'Z' || keyChar >= 'a' && keyChar <= 'z' || keyChar >= '0' && keyChar <= '9'
+                    || keyChar == '.' || keyChar == '-')
             {
-                values.addNull();
+                suffix.append(keyChar);
             }
             else
             {
-                addBlock.accept(rowIndex);
+                suffix.append('_').append(Character.toUpperCase(Character.forDigit(keyChar >> 4, 16)))
+                      .append(Character.toUpperCase(Character.forDigit(keyChar & 0xF, 16)));
             }
         }
 
-        columnNode.set("values", values);
-
-        arrayNode.add(columnNode);
+        return suffix.toString();
     }
 
     private RuntimeException notYetSupportedException()
     {
         return ExceptionFactory.exception("Not supported yet.").getUnsupported();
     }
-
-    private RuntimeException unsupportedColumnException(DfColumn column)
-    {
-        return ExceptionFactory
-                .exception("Cannot convert values in column " + column.getName() + " of type " + column.getType() + " to Json")
-                .getUnsupported();
-    }
 }
@@ -0,0 +1,193 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import java.math.BigDecimal;
+
+/**
+ * Parses and formats decimal values whose unscaled value fits in a {@code long}, which covers most of the monetary and
+ * quantity values found in data frames, directly from and into character buffers.
+ * <p>
+ * Parsing accumulates the digits of a JSON number into an unscaled {@code long} and a scale and creates the
+ * {@code BigDecimal} from them with {@link BigDecimal#valueOf(long, int)}, bypassing the intermediate string and
+ * {@code BigInteger} of the standard parsing. The result is equal (including the scale) to the one of
+ * {@link BigDecimal#BigDecimal(String)}. Numbers with more than 18 significant digits are rejected, so that the caller
+ * can fall back to the standard parsing.
+ * <p>
+ * Formatting produces the same text as {@link BigDecimal#toString()} for values with a non-negative scale of up to
+ * 18 digits, up to 18 digits of precision and without the exponent notation; other values are rejected. It writes the
+ * digits straight into the buffer, avoiding the string and the character arrays of {@code BigDecimal.toString()}. A
+ * whole value is formatted without allocating, a value with a fraction allocates the {@code BigInteger} holding its
+ * unscaled value.
+ */
+final class JsonDecimalCodec
+{
+    /**
+     * The smallest size of a buffer that can be passed to the formatting method
+     */
+    static final int BUFFER_SIZE = 32;
+
+    static private final int MAX_DIGITS = 18;
+    static private final int MAX_EXPONENT_DIGITS = 9;
+
+    private JsonDecimalCodec()
+    {
+        // Utility class
+    }
+
+    /**
+     * Parses a JSON number as a decimal value
+     *
+     * @param chars the buffer containing the text of the number
+     * @param offset the offset of the text in the buffer
+     * @param length the length of the text
+     * @return the parsed value, or {@code null} if the text is not a number or the number has too many digits to be
+     * parsed by this method
+     */
+    static BigDecimal parseDecimal(char[] chars, int offset, int length)
+    {
+        int end = offset + length;
+        int position = offset;
+
+        boolean negative = position < end && chars[position] == '-';
+        if (negative)
+        {
+            position++;
+        }
+
+        long unscaled = 0L;
+        int significantDigits = 0;
+        int integerDigits = 0;
+        long scale = 0L;
+
+        while (position < end && isDigit(chars[position]))
+        {
+            unscaled = unscaled * 10L + chars[position] - '0';
+            significantDigits += unscaled == 0L ? 0 : 1;
+            integerDigits++;
+            position++;
+        }
+
+        if (integerDigits == 0)
+        {
+            return null;
+        }
+
+        if (position < end && chars[position] == '.')
+        {
+            position++;
+            int fractionStart = position;
+
+            while (position < end && isDigit(chars[position]))
+            {
+                unscaled = unscaled * 10L + chars[position] - '0';
+                significantDigits += unscaled == 0L ? 0 : 1;
+                position++;
+            }
+
+            if (position == fractionStart)
+            {
+                return null;
+            }
+
+            scale = position - fractionStart;
+        }
+
+        if (significantDigits > MAX_DIGITS)
+        {
+            return null;
+        }
+
+        if (position < end && (chars[position] == 'e' || chars[position] == 'E'))
+        {
+            position++;
+
+            boolean negativeExponent = position < end && chars[position] == '-';
+            if (position < end && (chars[position] == '-' || chars[position] == '+'))
+            {
+                position++;
+            }
+
+            int exponentStart = position;
+            long exponent = 0L;
+
+            while (position < end && isDigit(chars[position]))
+            {
+                exponent = exponent * 10L + chars[position] - '0';
+                position++;
+            }
+
+            int exponentDigits = position - exponentStart;
+            if (exponentDigits == 0 || exponentDigits > MAX_EXPONENT_DIGITS)
+            {
+                return null;
+            }
+
+            scale -= negativeExponent ? -exponent : exponent;
+        }
+
+        if (position != end || scale < Integer.MIN_VALUE || scale > Integer.MAX_VALUE)
+        {
+            return null;
+        }
+
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, (int) scale);
+    }
+
+    /**
+     * Formats a decimal value into the end of the buffer
+     *
+     * @param value the value to format
+     * @param buffer the buffer to format the value into, at least {@link #BUFFER_SIZE} characters long
+     * @return the index of the first character of the formatted value in the buffer (the value occupies the rest of
+     * the buffer) or -1 if the value cannot be formatted by this method
+     */
+    static int formatDecimal(BigDecimal value, char[] buffer)
+    {
+        int scale = value.scale();
+        int precision = value.precision();
+
+        // BigDecimal.toString() switches to the exponent notation if the adjusted exponent is less than -6
+        if (scale < 0 || scale > MAX_DIGITS || precision > MAX_DIGITS || precision - 1 - scale < -6)
+        {
+            return -1;
+        }
+
+        // the unscaled value fits in a long given the precision; a whole value is returned as is, while a value with a
+        // fraction has no accessor for its unscaled value that does not create an object
+        long unscaled = scale == 0 ? value.longValue() : value.unscaledValue().longValue();
+
+        boolean negative = unscaled < 0L;
+        long magnitude = Math.abs(unscaled);
+
+        int position = buffer.length;
+
+        if (scale > 0)
+        {
+            for (int i = 0; i < scale; i++)
+            {
+                buffer[--position] = (char) ('0' + magnitude % 10L);
+                magnitude /= 10L;
+            }
+
+            buffer[--position] = '.';
+        }
+
+        do
+        {
+            buffer[--position] = (char) ('0' + magnitude % 10L);
+            magnitude /= 10L;
+        }
+        while (magnitude > 0L);
+
+        if (negative)
+        {
+            buffer[--position] = '-';
+        }
+
+        return position;
+    }
+
+    static private boolean isDigit(char aChar)
+    {
+        return aChar >= '0' && aChar <= '9';
+    }
+}
@@ -0,0 +1,516 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.dataframe.DfColumn;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchema;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchemaColumn;
+import io.github.vmzakharov.ecdataframe.dsl.value.ValueType;
+import io.github.vmzakharov.ecdataframe.util.ExceptionFactory;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.api.map.MutableMap;
+import org.eclipse.collections.impl.factory.Maps;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A sidecar index of a Json file containing a data frame, written next to the file when the data set has an index
+ * interval specified. The index records the number of rows and the schema of the data frame as well as the byte offsets
+ * of the data in the file: for data organized by rows, the offset of every Nth row object and the offset of the end of
+ * the data array, for data organized by columns, the start and the end offsets of each column object.
+ * <p>
+ * The index makes it possible to read a range of rows without parsing the rows that precede it, to split a file into
+ * parts that are read concurrently, to size the data frame columns upfront and to read the columns of a file lazily
+ * without scanning it first.
+ */
+public final class JsonIndex
+{
+    static private final String SIDECAR_SUFFIX = ".idx";
+
+    private final String dataFrameName;
+    private final boolean byRows;
+    private final int rowCount;
+    private final int interval;
+    private final CsvSchema schema;
+    private final MutableMap<String, JsonColumnEncoding> columnEncodings;
+    private final long[] rowOffsets;
+    private final long dataEnd;
+    private final MutableMap<String, long[]> columnRanges;
+
+    private JsonIndex(
+            String newDataFrameName,
+            boolean newByRows,
+            int newRowCount,
+            int newInterval,
+            CsvSchema newSchema,
+            MutableMap<String, JsonColumnEncoding> newColumnEncodings,
+            long[] newRowOffsets,
+            long newDataEnd,
+            MutableMap<String, long[]> newColumnRanges)
+    {
+        this.dataFrameName = newDataFrameName;
+        this.byRows = newByRows;
+        this.rowCount = newRowCount;
+        this.interval = newInterval;
+        this.schema = newSchema;
+        this.columnEncodings = newColumnEncodings;
+        this.rowOffsets = newRowOffsets;
+        this.dataEnd = newDataEnd;
+        this.columnRanges = newColumnRanges;
+    }
+
+    /**
+     * The location of the sidecar index of a Json file, which is the file name with {@code .idx} appended to it
+     *
+     * @param jsonFile the Json file
+     * @return the path of the index file
+     */
+    static public Path sidecarPath(Path jsonFile)
+    {
+        return jsonFile.resolveSibling(jsonFile.getFileName() + SIDECAR_SUFFIX);
+    }
+
+    /**
+     * Creates an index of data organized by rows from the offsets of the row objects found by scanning the data
+     */
+    static JsonIndex ofRows(
+            String dataFrameName,
+            int rowCount,
+            int interval,
+            CsvSchema schema,
+            MutableMap<String, JsonColumnEncoding> columnEncodings,
+            long[] rowOffsets,
+            long dataEnd)
+    {
+        return new JsonIndex(
+                dataFrameName, true, rowCount, interval, schema, columnEncodings, rowOffsets, dataEnd, Maps.mutable.empty());
+    }
+
+    public String getDataFrameName()
+    {
+        return this.dataFrameName;
+    }
+
+    /**
+     * @return {@code true} if the indexed data is organized by rows, {@code false} if it is organized by columns
+     */
+    public boolean isByRows()
+    {
+        return this.byRows;
+    }
+
+    public int getRowCount()
+    {
+        return this.rowCount;
+    }
+
+    /**
+     * @return the number of rows between the consecutive row offsets recorded in the index
+     */
+    public int getInterval()
+    {
+        return this.interval;
+    }
+
+    /**
+     * @return the schema of the stored columns of the data frame
+     */
+    public CsvSchema getSchema()
+    {
+        return this.schema;
+    }
+
+    MutableMap<String, JsonColumnEncoding> columnEncodings()
+    {
+        return this.columnEncodings;
+    }
+
+    int rowOffsetCount()
+    {
+        return this.rowOffsets.length;
+    }
+
+    /**
+     * @return the offset of the first byte of the row object with the index {@code entry * interval}
+     */
+    long rowOffset(int entry)
+    {
+        return this.rowOffsets[entry];
+    }
+
+    /**
+     * @return the offset of the closing bracket of the data array
+     */
+    long dataEnd()
+    {
+        return this.dataEnd;
+    }
+
+    /**
+     * @return the offset of the opening brace and the offset following the closing brace of the column object, or
+     * {@code null} if the column is not present in the data
+     */
+    long[] columnRange(String columnName)
+    {
+        return this.columnRanges.get(columnName);
+    }
+
+    MutableMap<String, long[]> columnRanges()
+    {
+        return this.columnRanges;
+    }
+
+    /**
+     * Finds the byte range containing the specified rows. The range starts with the row object closest to
+     * {@code fromRow} for which the offset is recorded and ends before the separator following the last row in the
+     * range, so the bytes in the range are a comma separated list of row objects.
+     *
+     * @return the start offset, the end offset (exclusive) and the number of rows at the start of the range that
+     * precede {@code fromRow}
+     */
+    long[] rowRange(int fromRow, int toRow)
+    {
+        if (fromRow < 0 || toRow > this.rowCount || fromRow > toRow)
+        {
+            throw ExceptionFactory
+                    .exception("Invalid row range " + fromRow + " to " + toRow + " for " + this.rowCount + " rows")
+                    .get();
+        }
+
+        int startEntry = fromRow / this.interval;
+        int endEntry = (toRow + this.interval - 1) / this.interval;
+
+        long start = startEntry < this.rowOffsets.length ? this.rowOffsets[startEntry] : this.dataEnd;
+        long end = endEntry < this.rowOffsets.length ? this.rowOffsets[endEntry] - 1 : this.dataEnd;
+
+        return new long[] {start, Math.max(start, end), fromRow - (long) startEntry * this.interval};
+    }
+
+    void write(JsonFactory jsonFactory, OutputStream outputStream)
+    throws IOException
+    {
+        try (JsonGenerator generator = jsonFactory.createGenerator(outputStream))
+        {
+            generator.writeStartObject();
+            generator.writeStringField("name", this.dataFrameName);
+            generator.writeBooleanField("byRows", this.byRows);
+            generator.writeNumberField("rowCount", this.rowCount);
+            generator.writeNumberField("interval", this.interval);
+
+            generator.writeArrayFieldStart("schema");
+            for (CsvSchemaColumn schemaColumn : this.schema.getColumns())
+            {
+                generator.writeStartObject();
+                generator.writeStringField("Name", schemaColumn.getName());
+                generator.writeStringField("Type", schemaColumn.getType().name());
+
+                JsonColumnEncoding encoding = this.columnEncodings.get(schemaColumn.getName());
+                if (encoding != null)
+                {
+                    generator.writeStringField("Encoding", encoding.name());
+                }
+
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+
+            if (this.byRows)
+            {
+                generator.writeFieldName("rowOffsets");
+                generator.writeArray(this.rowOffsets, 0, this.rowOffsets.length);
+                generator.writeNumberField("dataEnd", this.dataEnd);
+            }
+            else
+            {
+                generator.writeArrayFieldStart("columns");
+                for (CsvSchemaColumn schemaColumn : this.schema.getColumns())
+                {
+                    long[] range = this.columnRanges.get(schemaColumn.getName());
+                    if (range != null)
+                    {
+                        generator.writeStartObject();
+                        generator.writeStringField("column", schemaColumn.getName());
+                        generator.writeNumberField("start", range[0]);
+                        generator.writeNumberField("end", range[1]);
+                        generator.writeEndObject();
+                    }
+                }
+                generator.writeEndArray();
+            }
+
+            generator.writeEndObject();
+        }
+    }
+
+    static JsonIndex read(JsonFactory jsonFactory, InputStream inputStream)
+    throws IOException
+    {
+        String dataFrameName = null;
+        boolean byRows = true;
+        int rowCount = 0;
+        int interval = 1;
+        CsvSchema schema = new CsvSchema();
+        MutableMap<String, JsonColumnEncoding> columnEncodings = Maps.mutable.of();
+        MutableLongList rowOffsets = LongLists.mutable.empty();
+        long dataEnd = -1L;
+        MutableMap<String, long[]> columnRanges = Maps.mutable.of();
+
+        try (JsonParser parser = jsonFactory.createParser(inputStream))
+        {
+            expectToken(JsonToken.START_OBJECT, parser.nextToken());
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String fieldName = parser.currentName();
+                parser.nextToken();
+
+                if ("name".equals(fieldName))
+                {
+                    dataFrameName = parser.getValueAsString();
+                }
+                else if ("byRows".equals(fieldName))
+                {
+                    byRows = parser.getBooleanValue();
+                }
+                else if ("rowCount".equals(fieldName))
+                {
+                    rowCount = parser.getIntValue();
+                }
+                else if ("interval".equals(fieldName))
+                {
+                    interval = parser.getIntValue();
+                }
+                else if ("dataEnd".equals(fieldName))
+                {
+                    dataEnd = parser.getLongValue();
+                }
+                else if ("schema".equals(fieldName))
+                {
+                    readSchema(parser, schema, columnEncodings);
+                }
+                else if ("rowOffsets".equals(fieldName))
+                {
+                    readRowOffsets(parser, rowOffsets);
+                }
+                else if ("columns".equals(fieldName))
+                {
+                    readColumnRanges(parser, columnRanges);
+                }
+                else
+                {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        return new JsonIndex(
+                dataFrameName, byRows, rowCount, interval, schema, columnEncodings,
+                rowOffsets.toArray(), dataEnd, columnRanges);
+    }
+
+    static JsonIndex read(JsonFactory jsonFactory, Path jsonFile)
+    {
+        Path indexFile = sidecarPath(jsonFile);
+
+        try (InputStream inputStream = Files.newInputStream(indexFile))
+        {
+            return read(jsonFactory, inputStream);
+        }
+        catch (IOException e)
+        {
+            throw ExceptionFactory.exception("Failed to read Json index " + indexFile).get(e);
+        }
+    }
+
+    static private void readSchema(JsonParser parser, CsvSchema schema, MutableMap<String, JsonColumnEncoding> columnEncodings)
+    throws IOException
+    {
+        expectToken(JsonToken.START_ARRAY, parser.currentToken());
+
+        while (parser.nextToken() == JsonToken.START_OBJECT)
+        {
+            String columnName = null;
+            String type = null;
+            String encoding = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String attributeName = parser.currentName();
+                parser.nextToken();
+
+                if ("Name".equals(attributeName))
+                {
+                    columnName = parser.getValueAsString();
+                }
+                else if ("Type".equals(attributeName))
+                {
+                    type = parser.getValueAsString();
+                }
+                else if ("Encoding".equals(attributeName))
+                {
+                    encoding = parser.getValueAsString();
+                }
+                else
+                {
+                    parser.skipChildren();
+                }
+            }
+
+            schema.addColumn(columnName, ValueType.valueOf(type));
+            if (encoding != null)
+            {
+                columnEncodings.put(columnName, JsonColumnEncoding.valueOf(encoding));
+            }
+        }
+    }
+
+    static private void readRowOffsets(JsonParser parser, MutableLongList rowOffsets)
+    throws IOException
+    {
+        expectToken(JsonToken.START_ARRAY, parser.currentToken());
+
+        while (parser.nextToken() != JsonToken.END_ARRAY)
+        {
+            rowOffsets.add(parser.getLongValue());
+        }
+    }
+
+    static private void readColumnRanges(JsonParser parser, MutableMap<String, long[]> columnRanges)
+    throws IOException
+    {
+        expectToken(JsonToken.START_ARRAY, parser.currentToken());
+
+        while (parser.nextToken() == JsonToken.START_OBJECT)
+        {
+            String columnName = null;
+            long[] range = new long[2];
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String fieldName = parser.currentName();
+                parser.nextToken();
+
+                if ("column".equals(fieldName))
+                {
+                    columnName = parser.getValueAsString();
+                }
+                else if ("start".equals(fieldName))
+                {
+                    range[0] = parser.getLongValue();
+                }
+                else if ("end".equals(fieldName))
+                {
+                    range[1] = parser.getLongValue();
+                }
+                else
+                {
+                    parser.skipChildren();
+                }
+            }
+
+            columnRanges.put(columnName, range);
+        }
+    }
+
+    static private void expectToken(JsonToken expected, JsonToken actual)
+    {
+        if (actual != expected)
+        {
+            throw ExceptionFactory.exception("Unexpected Json token in index " + actual + ", expected " + expected).get();
+        }
+    }
+
+    /**
+     * Collects the offsets of the data as it is being written. When the data is written in parallel, each partition
+     * records the offsets relative to its own buffer and they are shifted to the output offsets once the position of
+     * the partition in the output is known.
+     */
+    static final class Builder
+    {
+        private final DataFrame dataFrame;
+        private final JsonDataSet dataSet;
+        private final int interval;
+        private final long[] rowOffsets;
+        private final MutableMap<String, long[]> columnRanges = Maps.mutable.of();
+        private long dataEnd = -1L;
+
+        Builder(DataFrame newDataFrame, JsonDataSet newDataSet)
+        {
+            this.dataFrame = newDataFrame;
+            this.dataSet = newDataSet;
+            this.interval = newDataSet.indexInterval();
+            this.rowOffsets = newDataSet.dataByRows()
+                    ? new long[(newDataFrame.rowCount() + this.interval - 1) / this.interval]
+                    : new long[0];
+        }
+
+        boolean isIndexedRow(int rowIndex)
+        {
+            return rowIndex % this.interval == 0;
+        }
+
+        void rowOffset(int rowIndex, long offset)
+        {
+            this.rowOffsets[rowIndex / this.interval] = offset;
+        }
+
+        void shiftRowOffsets(int fromRow, int toRow, long shift)
+        {
+            for (int entry = (fromRow + this.interval - 1) / this.interval; entry * (long) this.interval < toRow; entry++)
+            {
+                this.rowOffsets[entry] += shift;
+            }
+        }
+
+        synchronized void columnRange(String columnName, long start, long end)
+        {
+            this.columnRanges.put(columnName, new long[] {start, end});
+        }
+
+        synchronized void shiftColumnRange(String columnName, long shift)
+        {
+            long[] range = this.columnRanges.get(columnName);
+            range[0] += shift;
+            range[1] += shift;
+        }
+
+        void dataEnd(long offset)
+        {
+            this.dataEnd = offset;
+        }
+
+        JsonIndex build()
+        {
+            CsvSchema schema = new CsvSchema();
+            MutableMap<String, JsonColumnEncoding> columnEncodings = Maps.mutable.of();
+
+            for (DfColumn column : this.dataFrame.getColumns())
+            {
+                if (column.isStored())
+                {
+                    schema.addColumn(column.getName(), column.getType());
+
+                    JsonColumnEncoding encoding = this.dataSet.temporalEncoding().columnEncoding(column.getType());
+                    if (encoding != null)
+                    {
+                        columnEncodings.put(column.getName(), encoding);
+                    }
+                }
+            }
+
+            return new JsonIndex(
+                    this.dataFrame.getName(), this.dataSet.dataByRows(), this.dataFrame.rowCount(), this.interval,
+                    schema, columnEncodings, Arrays.copyOf(this.rowOffsets, this.rowOffsets.length), this.dataEnd,
+                    this.columnRanges);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.util.ExceptionFactory;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.impl.factory.Lists;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Reads data organized by rows from a Json file using its sidecar index: a range of rows is read by parsing only the
+ * part of the file containing the range, and the whole file can be split into parts that are parsed concurrently.
+ */
+final class JsonIndexedReader
+{
+    private final JsonDataSet dataSet;
+    private final Path jsonFile;
+    private final JsonIndex index;
+
+    JsonIndexedReader(JsonDataSet newDataSet, Path newJsonFile, JsonIndex newIndex)
+    {
+        if (!newIndex.isByRows())
+        {
+            throw ExceptionFactory.exception("Reading row ranges is only supported for data organized by rows").getUnsupported();
+        }
+
+        this.dataSet = newDataSet;
+        this.jsonFile = newJsonFile;
+        this.index = newIndex;
+    }
+
+    /**
+     * Reads the rows in the range, the bytes of the file preceding the row offset recorded in the index closest to the
+     * start of the range and the bytes following the range are not read
+     *
+     * @param fromRow the index of the first row to read
+     * @param toRow the index of the row following the last row to read
+     * @return the data frame containing the rows in the range
+     */
+    public DataFrame readRange(int fromRow, int toRow)
+    {
+        return this.readRange(fromRow, toRow, false);
+    }
+
+    private DataFrame readRange(int fromRow, int toRow, boolean partOfOperation)
+    {
+        long[] range = this.index.rowRange(fromRow, toRow);
+
+        byte[] rows = this.readBytesAsArray(range[0], range[1]);
+
+        try (JsonParser parser = this.dataSet.jsonFactory().createParser(rows))
+        {
+            JsonDataFrameReader reader = new JsonDataFrameReader(this.dataSet, false).useIndex(this.index);
+
+            if (partOfOperation)
+            {
+                reader.partOfOperation();
+            }
+
+            return reader.readRowRange(parser, (int) range[2], toRow - fromRow);
+        }
+        catch (IOException e)
+        {
+            throw ExceptionFactory.exception("Failed to parse rows " + fromRow + " to " + toRow + " of " + this.jsonFile).get(e);
+        }
+    }
+
+    /**
+     * Splits the rows of the file into as many ranges as the parallelism of the data set, aligned with the row offsets
+     * recorded in the index, and reads the ranges concurrently. The metrics are recorded once for the whole file.
+     *
+     * @return the data frame containing all the rows in the file
+     */
+    public DataFrame readInParallel()
+    {
+        JsonMetricsRecorder metrics = JsonMetricsRecorder.start(JsonOperationMetrics.Operation.READ, this.dataSet);
+        long dataStart = metrics.now();
+
+        int entryCount = this.index.rowOffsetCount();
+        int partitionCount = Math.min(this.dataSet.parallelism(), entryCount);
+
+        MutableList<CompletableFuture<DataFrame>> partitions = Lists.mutable.withInitialCapacity(partitionCount);
+
+        for (int partitionIndex = 0; partitionIndex < partitionCount; partitionIndex++)
+        {
+            int fromRow = this.entryRow(entryCount * partitionIndex / partitionCount);
+            int toRow = this.entryRow(entryCount * (partitionIndex + 1) / partitionCount);
+
+            partitions.add(CompletableFuture.supplyAsync(() -> this.readRange(fromRow, toRow, true), ForkJoinPool.commonPool()));
+        }
+
+        DataFrame dataFrame = this.join(partitions.get(0));
+        for (int partitionIndex = 1; partitionIndex < partitionCount; partitionIndex++)
+        {
+            dataFrame = dataFrame.union(this.join(partitions.get(partitionIndex)));
+        }
+
+        dataFrame.setName(this.index.getDataFrameName());
+
+        metrics.dataPhase(dataStart);
+        metrics.finish(dataFrame, metrics.isActive() ? this.jsonFile.toFile().length() : -1L);
+
+        return dataFrame;
+    }
+
+    private int entryRow(int entry)
+    {
+        return (int) Math.min((long) entry * this.index.getInterval(), this.index.getRowCount());
+    }
+
+    private DataFrame join(CompletableFuture<DataFrame> partition)
+    {
+        try
+        {
+            return partition.join();
+        }
+        catch (CompletionException e)
+        {
+            if (e.getCause() instanceof RuntimeException runtimeException)
+            {
+                throw runtimeException;
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a comma separated list of rows from the file, enclosing it in brackets so that it can be parsed as an array
+     */
+    private byte[] readBytesAsArray(long start, long end)
+    {
+        int length = Math.toIntExact(end - start);
+        byte[] bytes = new byte[length + 2];
+        bytes[0] = '[';
+        bytes[length + 1] = ']';
+
+        try (FileChannel channel = FileChannel.open(this.jsonFile, StandardOpenOption.READ))
+        {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, length);
+            long position = start;
+            while (buffer.hasRemaining())
+            {
+                int read = channel.read(buffer, position);
+                if (read < 0)
+                {
+                    throw ExceptionFactory.exception("Unexpected end of " + this.jsonFile + " at offset " + position).get();
+                }
+
+                position += read;
+            }
+        }
+        catch (IOException e)
+        {
+            throw ExceptionFactory.exception("Failed to read " + this.jsonFile).get(e);
+        }
+
+        return bytes;
+    }
+}
@@ -0,0 +1,279 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.dataframe.DfColumn;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchema;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchemaColumn;
+import io.github.vmzakharov.ecdataframe.util.ExceptionFactory;
+import org.eclipse.collections.api.list.ListIterable;
+import org.eclipse.collections.api.map.MutableMap;
+import org.eclipse.collections.impl.factory.Lists;
+import org.eclipse.collections.impl.factory.Maps;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * A data frame organized by columns in Json, whose column values are parsed only when the columns are first accessed.
+ * When the lazy data frame is created, the Json is scanned once to read the data frame name and schema and to record
+ * where the values of each column are located, unless this information is available from the sidecar index of the Json
+ * file. Selecting columns then parses just the values of the selected columns.
+ * <p>
+ * Each parsed column is cached and is reused by the subsequent selections. The cached columns are softly referenced,
+ * so the garbage collector can reclaim them under memory pressure, in which case they are parsed again when next
+ * selected. For a lazy data frame read from a file, the contents of the file are softly referenced as well and are
+ * read again if needed after they have been reclaimed.
+ * <p>
+ * Instances of this class are safe to use from multiple threads.
+ */
+public final class JsonLazyDataFrame
+{
+    private final JsonDataSet dataSet;
+    private final JsonDataFrameReader reader;
+    private final JsonSource source;
+
+    private final String name;
+    private final MutableMap<String, long[]> columnRanges = Maps.mutable.of();
+    private final MutableMap<String, SoftReference<DataFrame>> parsedColumns = Maps.mutable.of();
+
+    private JsonLazyDataFrame(JsonDataSet newDataSet, JsonSource newSource, JsonIndex index)
+    {
+        if (!newDataSet.dataByColumns())
+        {
+            throw ExceptionFactory.exception("Lazy reading is only supported for data organized by columns").getUnsupported();
+        }
+
+        if (!newDataSet.textFormat())
+        {
+            throw ExceptionFactory.exception("Lazy reading is only supported for textual Json").getUnsupported();
+        }
+
+        this.dataSet = newDataSet;
+        this.source = newSource;
+        this.reader = new JsonDataFrameReader(newDataSet, false);
+
+        if (index == null)
+        {
+            try (JsonParser parser = this.createParser(this.source.bytes()))
+            {
+                this.name = this.reader.scanColumns(parser, this.columnRanges);
+            }
+            catch (IOException e)
+            {
+                throw ExceptionFactory.exception("Failed to scan JSON").get(e);
+            }
+        }
+        else
+        {
+            this.reader.useIndex(index);
+            this.name = index.getDataFrameName();
+            this.columnRanges.putAll(index.columnRanges());
+        }
+    }
+
+    static JsonLazyDataFrame fromBytes(JsonDataSet dataSet, byte[] json)
+    {
+        return new JsonLazyDataFrame(dataSet, () -> json, null);
+    }
+
+    /**
+     * Creates a lazy data frame for a Json file, using the sidecar index of the file to locate the columns if the file
+     * has one organized by columns, otherwise scanning the file
+     */
+    static JsonLazyDataFrame fromFile(JsonDataSet dataSet, Path path)
+    {
+        JsonIndex index = Files.exists(JsonIndex.sidecarPath(path)) ? dataSet.readIndex(path) : null;
+
+        return new JsonLazyDataFrame(dataSet, new FileSource(path), index == null || index.isByRows() ? null : index);
+    }
+
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * @return the schema of the data frame, as specified by the data set or as read from the Json
+     */
+    public CsvSchema getSchema()
+    {
+        return this.reader.schema();
+    }
+
+    /**
+     * @return the names of the columns present in the data section of the Json, in the order they appear in the schema
+     */
+    public ListIterable<String> getColumnNames()
+    {
+        return this.getSchema().getColumns()
+                .collect(CsvSchemaColumn::getName)
+                .select(this.columnRanges::containsKey);
+    }
+
+    /**
+     * Checks if the values of a column have been parsed and are currently cached
+     *
+     * @param columnName the name of the column
+     * @return {@code true} if the column has been parsed and has not been reclaimed since
+     */
+    public synchronized boolean isColumnParsed(String columnName)
+    {
+        SoftReference<DataFrame> reference = this.parsedColumns.get(columnName);
+        return reference != null && reference.get() != null;
+    }
+
+    /**
+     * Creates a data frame containing the specified columns, parsing the values of the columns that have not been
+     * parsed yet
+     *
+     * @param columnNames the names of the columns to include in the data frame
+     * @return a new sealed data frame with the specified columns, in the order they are listed
+     */
+    public DataFrame select(String... columnNames)
+    {
+        return this.select(Lists.immutable.of(columnNames));
+    }
+
+    /**
+     * Creates a data frame containing the specified columns, parsing the values of the columns that have not been
+     * parsed yet
+     *
+     * @param columnNames the names of the columns to include in the data frame
+     * @return a new sealed data frame with the specified columns, in the order they are listed
+     */
+    public DataFrame select(ListIterable<String> columnNames)
+    {
+        DataFrame dataFrame = new DataFrame(this.name);
+
+        columnNames.forEach(columnName -> this.parsedColumn(columnName).getColumnNamed(columnName).copyTo(dataFrame));
+
+        return dataFrame.seal();
+    }
+
+    /**
+     * Creates a data frame containing all the columns, parsing the values of the columns that have not been parsed yet
+     *
+     * @return a new sealed data frame with all the columns of the Json data
+     */
+    public DataFrame toDataFrame()
+    {
+        return this.select(this.getColumnNames());
+    }
+
+    private synchronized DataFrame parsedColumn(String columnName)
+    {
+        SoftReference<DataFrame> reference = this.parsedColumns.get(columnName);
+        DataFrame parsed = reference == null ? null : reference.get();
+
+        if (parsed == null)
+        {
+            parsed = this.parseColumn(columnName);
+            this.parsedColumns.put(columnName, new SoftReference<>(parsed));
+        }
+
+        return parsed;
+    }
+
+    private DataFrame parseColumn(String columnName)
+    {
+        long[] range = this.columnRanges.get(columnName);
+        CsvSchemaColumn schemaColumn = this.getSchema().getColumns().detect(each -> each.getName().equals(columnName));
+
+        if (range == null || schemaColumn == null)
+        {
+            throw ExceptionFactory.exception("Column " + columnName + " is not present in data frame " + this.name).get();
+        }
+
+        DataFrame parsed = new DataFrame(this.name);
+        DfColumn column = parsed.newColumn(columnName, schemaColumn.getType());
+
+        byte[] bytes = this.source.bytes();
+        try (JsonParser parser = this.dataSet.jsonFactory().createParser(bytes, (int) range[0], (int) (range[1] - range[0])))
+        {
+            this.reader.readColumn(parser, column);
+        }
+        catch (IOException e)
+        {
+            throw ExceptionFactory.exception("Failed to parse JSON for column " + columnName).get(e);
+        }
+
+        return parsed.seal();
+    }
+
+    private JsonParser createParser(byte[] bytes)
+    throws IOException
+    {
+        return this.dataSet.jsonFactory().createParser(bytes);
+    }
+
+    /**
+     * The Json being read lazily
+     */
+    private interface JsonSource
+    {
+        byte[] bytes();
+    }
+
+    /**
+     * Json read from a file, the contents of which are softly referenced and are read again if they have been
+     * reclaimed, provided the file has not been modified in the meantime
+     */
+    static private final class FileSource
+    implements JsonSource
+    {
+        private final Path path;
+        private final long size;
+        private final long lastModifiedMillis;
+        private SoftReference<byte[]> contents;
+
+        private FileSource(Path newPath)
+        {
+            this.path = newPath;
+
+            try
+            {
+                BasicFileAttributes attributes = Files.readAttributes(this.path, BasicFileAttributes.class);
+                this.size = attributes.size();
+                this.lastModifiedMillis = attributes.lastModifiedTime().toMillis();
+            }
+            catch (IOException e)
+            {
+                throw ExceptionFactory.exception("Failed to read " + this.path).get(e);
+            }
+
+            this.contents = new SoftReference<>(null);
+        }
+
+        @Override
+        public synchronized byte[] bytes()
+        {
+            byte[] bytes = this.contents.get();
+
+            if (bytes == null)
+            {
+                try
+                {
+                    BasicFileAttributes attributes = Files.readAttributes(this.path, BasicFileAttributes.class);
+                    if (attributes.size() != this.size || attributes.lastModifiedTime().toMillis() != this.lastModifiedMillis)
+                    {
+                        throw ExceptionFactory.exception("File " + this.path + " has been modified since it was scanned").get();
+                    }
+
+                    bytes = Files.readAllBytes(this.path);
+                }
+                catch (IOException e)
+                {
+                    throw ExceptionFactory.exception("Failed to read " + this.path).get(e);
+                }
+
+                this.contents = new SoftReference<>(bytes);
+            }
+
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.dataframe.DfColumn;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchema;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchemaColumn;
+import io.github.vmzakharov.ecdataframe.dsl.value.ValueType;
+import org.eclipse.collections.api.map.primitive.MutableObjectLongMap;
+import org.eclipse.collections.impl.factory.primitive.ObjectLongMaps;
+
+/**
+ * An estimate of the heap space taken by a data frame read from Json, computed by scanning the Json without
+ * creating the data frame. The estimate is based on the number of rows, the types of the columns, the number of non-null
+ * values in each column and the lengths of the string values. It assumes a 64-bit JVM with compressed references and
+ * Latin-1 strings, and does not account for the spare capacity of the column storage or for the values shared by the
+ * object columns, so it is an approximation rather than an exact measurement.
+ */
+public final class JsonLoadEstimate
+{
+    static private final int REFERENCE_SIZE = 4;
+    static private final int STRING_SIZE = 24;
+    static private final int ARRAY_HEADER_SIZE = 16;
+    static private final int DECIMAL_SIZE = 40;
+    static private final int DATE_SIZE = 24;
+    static private final int DATE_TIME_SIZE = 72;
+    static private final int BITS_PER_BYTE = 8;
+
+    private final String dataFrameName;
+    private final int rowCount;
+    private final MutableObjectLongMap<String> columnHeapSizes;
+    private final long heapSize;
+
+    private JsonLoadEstimate(String newDataFrameName, int newRowCount, MutableObjectLongMap<String> newColumnHeapSizes)
+    {
+        this.dataFrameName = newDataFrameName;
+        this.rowCount = newRowCount;
+        this.columnHeapSizes = newColumnHeapSizes;
+        this.heapSize = newColumnHeapSizes.sum();
+    }
+
+    /**
+     * Estimates the heap space taken by the stored columns of a data frame that has already been loaded
+     *
+     * @param dataFrame a sealed data frame
+     * @return the estimate of the heap space taken by the data frame
+     */
+    static JsonLoadEstimate ofDataFrame(DataFrame dataFrame)
+    {
+        Builder builder = new Builder();
+        CsvSchema schema = new CsvSchema();
+        int rowCount = dataFrame.rowCount();
+
+        dataFrame.getColumns().select(DfColumn::isStored).forEach(column -> {
+            schema.addColumn(column.getName(), column.getType());
+
+            long valueCount = 0L;
+            long charCount = 0L;
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++)
+            {
+                if (!column.isNull(rowIndex))
+                {
+                    valueCount++;
+                    if (column.getType().isString())
+                    {
+                        charCount += ((String) column.getObject(rowIndex)).length();
+                    }
+                }
+            }
+
+            builder.addColumn(column.getName(), rowCount, valueCount, charCount);
+        });
+
+        return builder.build(dataFrame.getName(), schema);
+    }
+
+    public String getDataFrameName()
+    {
+        return this.dataFrameName;
+    }
+
+    public int getRowCount()
+    {
+        return this.rowCount;
+    }
+
+    /**
+     * @return the estimated number of bytes taken by the values of all the columns of the data frame
+     */
+    public long getHeapSize()
+    {
+        return this.heapSize;
+    }
+
+    /**
+     * @param columnName the name of the column
+     * @return the estimated number of bytes taken by the values of the column, zero if there is no such column
+     */
+    public long getColumnHeapSize(String columnName)
+    {
+        return this.columnHeapSizes.get(columnName);
+    }
+
+    /**
+     * @param memoryBudget the number of bytes available for the data frame
+     * @return {@code true} if the estimated heap size of the data frame does not exceed the memory budget
+     */
+    public boolean fitsIn(long memoryBudget)
+    {
+        return this.heapSize <= memoryBudget;
+    }
+
+    /**
+     * The number of rows that can be read at a time without exceeding the memory budget, based on the average
+     * estimated size of a row
+     *
+     * @param memoryBudget the number of bytes available for a batch of rows
+     * @return the number of rows in a batch, at least one
+     */
+    public int batchSizeFor(long memoryBudget)
+    {
+        if (this.heapSize == 0L)
+        {
+            return Integer.MAX_VALUE;
+        }
+
+        // in floating point, as the product of a large budget and the row count overflows a long
+        double rowsInBudget = (double) memoryBudget * this.rowCount / this.heapSize;
+        return (int) Math.max(1.0, Math.min(Integer.MAX_VALUE, rowsInBudget));
+    }
+
+    @Override
+    public String toString()
+    {
+        return "JsonLoadEstimate{" + this.dataFrameName + ", rows=" + this.rowCount + ", heapSize=" + this.heapSize + "}";
+    }
+
+    /**
+     * Accumulates the counts of rows and values seen while scanning the Json data, either a row or a column at a time
+     */
+    static final class Builder
+    {
+        private final MutableObjectLongMap<String> valueCounts = ObjectLongMaps.mutable.empty();
+        private final MutableObjectLongMap<String> charCounts = ObjectLongMaps.mutable.empty();
+        private int rowCount = 0;
+
+        void addRow()
+        {
+            this.rowCount++;
+        }
+
+        /**
+         * Records a non-null value of a column
+         *
+         * @param columnName the name of the column
+         * @param charCount the length of the value if it is a string, zero otherwise
+         */
+        void addValue(String columnName, int charCount)
+        {
+            this.valueCounts.addToValue(columnName, 1L);
+            this.charCounts.addToValue(columnName, charCount);
+        }
+
+        /**
+         * Records all the values of a column
+         *
+         * @param columnName the name of the column
+         * @param columnRowCount the number of values in the column, including nulls
+         * @param valueCount the number of non-null values in the column
+         * @param charCount the total length of the string values in the column
+         */
+        void addColumn(String columnName, int columnRowCount, long valueCount, long charCount)
+        {
+            this.rowCount = Math.max(this.rowCount, columnRowCount);
+            this.valueCounts.addToValue(columnName, valueCount);
+            this.charCounts.addToValue(columnName, charCount);
+        }
+
+        JsonLoadEstimate build(String dataFrameName, CsvSchema schema)
+        {
+            MutableObjectLongMap<String> columnHeapSizes = ObjectLongMaps.mutable.empty();
+
+            for (CsvSchemaColumn schemaColumn : schema.getColumns())
+            {
+                String columnName = schemaColumn.getName();
+                columnHeapSizes.put(
+                        columnName,
+                        this.columnHeapSize(schemaColumn.getType(), this.valueCounts.get(columnName), this.charCounts.get(columnName)));
+            }
+
+            return new JsonLoadEstimate(dataFrameName, this.rowCount, columnHeapSizes);
+        }
+
+        private long columnHeapSize(ValueType type, long valueCount, long charCount)
+        {
+            long nullMapSize = (this.rowCount + BITS_PER_BYTE - 1) / BITS_PER_BYTE;
+
+            if (type.isLong() || type.isDouble())
+            {
+                return this.rowCount * (long) Long.BYTES + nullMapSize;
+            }
+
+            if (type.isInt() || type.isFloat())
+            {
+                return this.rowCount * (long) Integer.BYTES + nullMapSize;
+            }
+
+            if (type.isBoolean())
+            {
+                return 2 * nullMapSize;
+            }
+
+            long referencesSize = this.rowCount * (long) REFERENCE_SIZE;
+
+            if (type.isString())
+            {
+                return referencesSize + valueCount * (STRING_SIZE + ARRAY_HEADER_SIZE) + charCount;
+            }
+
+            if (type.isDecimal())
+            {
+                return referencesSize + valueCount * DECIMAL_SIZE;
+            }
+
+            if (type.isDate())
+            {
+                return referencesSize + valueCount * DATE_SIZE;
+            }
+
+            if (type.isDateTime())
+            {
+                return referencesSize + valueCount * DATE_TIME_SIZE;
+            }
+
+            return referencesSize;
+        }
+    }
+}
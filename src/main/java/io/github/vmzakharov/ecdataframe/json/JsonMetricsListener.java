@@ -0,0 +1,16 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+/**
+ * Receives the metrics of the Json read and write operations performed by a data set. The listener is called on the
+ * thread that performed the operation after the operation has completed successfully.
+ */
+@FunctionalInterface
+public interface JsonMetricsListener
+{
+    /**
+     * Called when a read or a write operation has completed
+     *
+     * @param metrics the metrics of the operation
+     */
+    void operationCompleted(JsonOperationMetrics metrics);
+}
@@ -0,0 +1,233 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.dataframe.DfColumn;
+
+import jdk.jfr.EventType;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Collects the metrics of a single Json read or write operation and reports them to the metrics listener of the data
+ * set and as a JDK Flight Recorder event. If there is no listener and the event is not enabled, the recorder is
+ * inactive: it does not create the event, does not read the clock and all of its methods return immediately. The nulls
+ * are only counted if the data set asks for it, as it takes a pass over every value.
+ */
+final class JsonMetricsRecorder
+{
+    static private final EventType EVENT_TYPE = EventType.getEventType(JsonOperationEvent.class);
+
+    private final JsonOperationMetrics.Operation operation;
+    private final JsonDataSet dataSet;
+    private final JsonMetricsListener listener;
+    private final JsonOperationEvent event;
+    private final boolean active;
+
+    private final long startNanos;
+    private final long startAllocatedBytes;
+
+    private long schemaNanos = 0L;
+    private long dataNanos = 0L;
+    private long sealNanos = 0L;
+
+    private JsonMetricsRecorder(JsonOperationMetrics.Operation newOperation, JsonDataSet newDataSet, boolean enabled)
+    {
+        this.operation = newOperation;
+        this.dataSet = newDataSet;
+        this.listener = newDataSet.metricsListener();
+        this.event = enabled && EVENT_TYPE.isEnabled() ? new JsonOperationEvent() : null;
+        this.active = enabled && (this.listener != null || this.event != null);
+
+        if (this.active)
+        {
+            if (this.event != null)
+            {
+                this.event.begin();
+            }
+
+            this.startNanos = System.nanoTime();
+            this.startAllocatedBytes = currentThreadAllocatedBytes();
+        }
+        else
+        {
+            this.startNanos = 0L;
+            this.startAllocatedBytes = -1L;
+        }
+    }
+
+    static JsonMetricsRecorder start(JsonOperationMetrics.Operation operation, JsonDataSet dataSet)
+    {
+        return new JsonMetricsRecorder(operation, dataSet, true);
+    }
+
+    /**
+     * Creates an inactive recorder, for a part of an operation whose metrics are recorded for the operation as a whole
+     */
+    static JsonMetricsRecorder inactive(JsonOperationMetrics.Operation operation, JsonDataSet dataSet)
+    {
+        return new JsonMetricsRecorder(operation, dataSet, false);
+    }
+
+    public boolean isActive()
+    {
+        return this.active;
+    }
+
+    /**
+     * @return the current time to be passed to one of the phase methods, or zero if the recorder is inactive
+     */
+    public long now()
+    {
+        return this.active ? System.nanoTime() : 0L;
+    }
+
+    public void schemaPhase(long fromNanos)
+    {
+        if (this.active)
+        {
+            this.schemaNanos += System.nanoTime() - fromNanos;
+        }
+    }
+
+    public void dataPhase(long fromNanos)
+    {
+        if (this.active)
+        {
+            this.dataNanos += System.nanoTime() - fromNanos;
+        }
+    }
+
+    public void sealPhase(long fromNanos)
+    {
+        if (this.active)
+        {
+            this.sealNanos += System.nanoTime() - fromNanos;
+        }
+    }
+
+    /**
+     * Completes the operation and reports its metrics
+     *
+     * @param dataFrame the data frame that has been read or written
+     * @param byteCount the size of the Json input or output or -1 if it is not known
+     */
+    public void finish(DataFrame dataFrame, long byteCount)
+    {
+        if (this.active)
+        {
+            this.finish(dataFrame, 0, dataFrame.rowCount(), byteCount);
+        }
+    }
+
+    /**
+     * Completes an operation that added rows to the end of a data frame and reports its metrics for the added rows
+     * only, so that the cost of reporting does not grow with the rows the data frame already had
+     *
+     * @param dataFrame the data frame the rows have been added to, not necessarily sealed
+     * @param firstRow the index of the first added row
+     * @param byteCount the size of the Json input or -1 if it is not known
+     */
+    public void finishAppend(DataFrame dataFrame, int firstRow, long byteCount)
+    {
+        if (this.active)
+        {
+            DfColumn storedColumn = dataFrame.getColumns().detect(DfColumn::isStored);
+            int rowCount = storedColumn == null ? 0 : storedColumn.getSize();
+
+            this.finish(dataFrame, firstRow, rowCount - firstRow, byteCount);
+        }
+    }
+
+    private void finish(DataFrame dataFrame, int firstRow, int rowCount, long byteCount)
+    {
+        long totalNanos = System.nanoTime() - this.startNanos;
+        long allocatedBytes = this.startAllocatedBytes < 0L ? -1L : currentThreadAllocatedBytes() - this.startAllocatedBytes;
+        long nullCount = this.dataSet.metricsNullCount() ? this.countNulls(dataFrame, firstRow, rowCount) : -1L;
+
+        if (this.event != null)
+        {
+            this.event.end();
+        }
+
+        if (this.event != null && this.event.shouldCommit())
+        {
+            this.event.operation = this.operation.name();
+            this.event.dataSetName = this.dataSet.getName();
+            this.event.dataFrameName = dataFrame.getName();
+            this.event.byteCount = byteCount;
+            this.event.rowCount = rowCount;
+            this.event.columnCount = dataFrame.columnCount();
+            this.event.nullCount = nullCount;
+            this.event.schemaNanos = this.schemaNanos;
+            this.event.dataNanos = this.dataNanos;
+            this.event.sealNanos = this.sealNanos;
+            this.event.allocatedBytes = allocatedBytes;
+            this.event.commit();
+        }
+
+        if (this.listener != null)
+        {
+            this.listener.operationCompleted(new JsonOperationMetrics(
+                    this.operation, this.dataSet.getName(), dataFrame.getName(), byteCount,
+                    rowCount, dataFrame.columnCount(), nullCount,
+                    this.schemaNanos, this.dataNanos, this.sealNanos, totalNanos, allocatedBytes
+            ));
+        }
+    }
+
+    private long countNulls(DataFrame dataFrame, int firstRow, int rowCount)
+    {
+        long nullCount = 0L;
+
+        for (DfColumn column : dataFrame.getColumns())
+        {
+            if (column.isStored())
+            {
+                int toRow = Math.min(firstRow + rowCount, column.getSize());
+                for (int rowIndex = firstRow; rowIndex < toRow; rowIndex++)
+                {
+                    if (column.isNull(rowIndex))
+                    {
+                        nullCount++;
+                    }
+                }
+            }
+        }
+
+        return nullCount;
+    }
+
+    static private long currentThreadAllocatedBytes()
+    {
+        com.sun.management.ThreadMXBean threadMxBean = AllocationMeter.THREAD_MX_BEAN;
+        return threadMxBean == null ? -1L : threadMxBean.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Holds the thread MX bean used for measuring allocations, so that it is only looked up once metrics are recorded
+     */
+    static private final class AllocationMeter
+    {
+        static private final com.sun.management.ThreadMXBean THREAD_MX_BEAN = allocationMeasuringThreadMxBean();
+
+        private AllocationMeter()
+        {
+            // Holder class
+        }
+
+        static private com.sun.management.ThreadMXBean allocationMeasuringThreadMxBean()
+        {
+            ThreadMXBean threadMxBean = ManagementFactory.getThreadMXBean();
+
+            if (threadMxBean instanceof com.sun.management.ThreadMXBean allocationMeasuringBean
+                    && allocationMeasuringBean.isThreadAllocatedMemorySupported()
+                    && allocationMeasuringBean.isThreadAllocatedMemoryEnabled())
+            {
+                return allocationMeasuringBean;
+            }
+
+            return null;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.util.ExceptionFactory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A metrics listener that summarizes the latency and the allocation of the operations of a data set, for example to
+ * measure the conversion of many small documents by {@link JsonDataSet#fromJsonStrings} and
+ * {@link JsonDataSet#toJsonStrings} under load. The durations of the operations are counted in a histogram of a fixed
+ * size, with the buckets no wider than 1/16 of their lower bound, so the latency percentiles are within about 6% of the
+ * exact values, and the allocated bytes are summed. Recording the metrics of an operation does not lock or allocate, so
+ * that operations completing on many threads at once do not contend on the summary.
+ * <p>
+ * Instances of this class are safe to use from multiple threads.
+ */
+public final class JsonMetricsSummary
+implements JsonMetricsListener
+{
+    static private final int OPERATION_COUNT = JsonOperationMetrics.Operation.values().length;
+
+    // each power of two range of durations is split into this many buckets, the durations below it are counted exactly
+    static private final int SUB_BUCKET_BITS = 4;
+    static private final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    static private final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray[] durationCounts = new AtomicLongArray[OPERATION_COUNT];
+    private final LongAdder[] operationCounts = new LongAdder[OPERATION_COUNT];
+    private final LongAdder[] allocatedBytes = new LongAdder[OPERATION_COUNT];
+    private final LongAdder[] measuredAllocationCounts = new LongAdder[OPERATION_COUNT];
+
+    public JsonMetricsSummary()
+    {
+        for (int operationIndex = 0; operationIndex < OPERATION_COUNT; operationIndex++)
+        {
+            this.durationCounts[operationIndex] = new AtomicLongArray(BUCKET_COUNT);
+            this.operationCounts[operationIndex] = new LongAdder();
+            this.allocatedBytes[operationIndex] = new LongAdder();
+            this.measuredAllocationCounts[operationIndex] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void operationCompleted(JsonOperationMetrics metrics)
+    {
+        int operationIndex = metrics.getOperation().ordinal();
+
+        this.durationCounts[operationIndex].incrementAndGet(bucketIndex(metrics.getTotalNanos()));
+        this.operationCounts[operationIndex].increment();
+
+        if (metrics.getAllocatedBytes() >= 0L)
+        {
+            this.allocatedBytes[operationIndex].add(metrics.getAllocatedBytes());
+            this.measuredAllocationCounts[operationIndex].increment();
+        }
+    }
+
+    /**
+     * Discards the metrics received so far. The metrics of the operations completing while the summary is being reset
+     * may be partially retained.
+     */
+    public void reset()
+    {
+        for (int operationIndex = 0; operationIndex < OPERATION_COUNT; operationIndex++)
+        {
+            AtomicLongArray counts = this.durationCounts[operationIndex];
+            for (int bucketIndex = 0; bucketIndex < BUCKET_COUNT; bucketIndex++)
+            {
+                counts.set(bucketIndex, 0L);
+            }
+
+            this.operationCounts[operationIndex].reset();
+            this.allocatedBytes[operationIndex].reset();
+            this.measuredAllocationCounts[operationIndex].reset();
+        }
+    }
+
+    /**
+     * @param operation the kind of operation
+     * @return the number of operations of this kind that have completed
+     */
+    public long getOperationCount(JsonOperationMetrics.Operation operation)
+    {
+        return this.operationCounts[operation.ordinal()].sum();
+    }
+
+    /**
+     * The duration within which the specified percentage of the operations completed, using the nearest rank method.
+     * The duration is the upper bound of the histogram bucket the operation of that rank is counted in, so it is no
+     * less than the exact duration and exceeds it by at most 1/16.
+     *
+     * @param operation the kind of operation
+     * @param percentile the percentile, greater than 0 and no greater than 100, for example 50 for the median or 99
+     * @return the duration in nanoseconds, zero if no operations of this kind have completed
+     */
+    public long getLatencyNanos(JsonOperationMetrics.Operation operation, double percentile)
+    {
+        if (percentile <= 0.0 || percentile > 100.0)
+        {
+            throw ExceptionFactory.exception("Percentile must be greater than 0 and no greater than 100, got " + percentile).get();
+        }
+
+        AtomicLongArray counts = this.durationCounts[operation.ordinal()];
+
+        // a snapshot of the buckets, so that the rank is computed from the same counts it is looked up in
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0L;
+        for (int bucketIndex = 0; bucketIndex < BUCKET_COUNT; bucketIndex++)
+        {
+            snapshot[bucketIndex] = counts.get(bucketIndex);
+            total += snapshot[bucketIndex];
+        }
+
+        if (total == 0L)
+        {
+            return 0L;
+        }
+
+        long rank = Math.max((long) Math.ceil(percentile / 100.0 * total), 1L);
+
+        long cumulative = 0L;
+        for (int bucketIndex = 0; bucketIndex < BUCKET_COUNT; bucketIndex++)
+        {
+            cumulative += snapshot[bucketIndex];
+            if (cumulative >= rank)
+            {
+                return bucketUpperBound(bucketIndex);
+            }
+        }
+
+        return bucketUpperBound(BUCKET_COUNT - 1);
+    }
+
+    /**
+     * @param operation the kind of operation
+     * @return the average number of bytes allocated by an operation of this kind, or -1 if the allocation has not been
+     * measured
+     */
+    public long getAllocatedBytesPerOperation(JsonOperationMetrics.Operation operation)
+    {
+        int operationIndex = operation.ordinal();
+
+        long measuredCount = this.measuredAllocationCounts[operationIndex].sum();
+
+        return measuredCount == 0L
+                ? -1L
+                : this.allocatedBytes[operationIndex].sum() / measuredCount;
+    }
+
+    static private int bucketIndex(long nanos)
+    {
+        if (nanos < SUB_BUCKET_COUNT)
+        {
+            return (int) Math.max(nanos, 0L);
+        }
+
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static private long bucketUpperBound(int bucketIndex)
+    {
+        if (bucketIndex < SUB_BUCKET_COUNT)
+        {
+            return bucketIndex;
+        }
+
+        int shift = bucketIndex / SUB_BUCKET_COUNT - 1;
+        long lowerBound = (long) (SUB_BUCKET_COUNT + bucketIndex % SUB_BUCKET_COUNT) << shift;
+
+        return lowerBound + (1L << shift) - 1L;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder summary = new StringBuilder();
+
+        for (JsonOperationMetrics.Operation operation : JsonOperationMetrics.Operation.values())
+        {
+            if (summary.length() > 0)
+            {
+                summary.append("; ");
+            }
+
+            summary.append(operation).append(": ")
+                   .append(this.getOperationCount(operation)).append(" operations, p50 ")
+                   .append(this.getLatencyNanos(operation, 50.0)).append(" ns, p99 ")
+                   .append(this.getLatencyNanos(operation, 99.0)).append(" ns, allocated ")
+                   .append(this.getAllocatedBytesPerOperation(operation)).append(" bytes per operation");
+        }
+
+        return summary.toString();
+    }
+}
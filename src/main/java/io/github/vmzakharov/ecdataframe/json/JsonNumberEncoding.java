@@ -0,0 +1,207 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dataframe.DfColumn;
+import io.github.vmzakharov.ecdataframe.dataframe.DfIntColumn;
+import io.github.vmzakharov.ecdataframe.dataframe.DfLongColumn;
+import org.eclipse.collections.api.list.primitive.IntList;
+
+/**
+ * The compact encodings of the values of {@code LONG} and {@code INT} columns in data organized by columns. The encoding
+ * of a column is recorded in the {@code encoding} field of the column object, followed by the {@code base} field if the
+ * encoding has a base value, so that the values can be decoded regardless of the settings of the data set used for
+ * reading them. Null values are not encoded and do not affect the encoding of the values that follow them.
+ */
+enum JsonNumberEncoding
+{
+    /**
+     * Each value is written as the difference from the preceding non-null value, the first value is written as is.
+     * Shortens the columns with values changing in small steps, such as timestamps and identifiers.
+     */
+    DELTA,
+
+    /**
+     * Each value is written as the difference from the base value, which is the minimum value of the column. Used for
+     * the columns with values in a range that is narrow compared to their magnitude.
+     */
+    FRAME_OF_REFERENCE;
+
+    /**
+     * Chooses the encoding that shortens the values of a column the most, comparing the total length of the text of
+     * the values written as is with the total length of the encoded values, including the base value if the encoding
+     * has one
+     *
+     * @param column a {@code LONG} or {@code INT} column
+     * @param rows the indexes of the rows of the column to encode, in the order they are written
+     * @return the encoding or {@code null} if the values are shortest written as is
+     */
+    static JsonNumberEncoding forColumn(DfColumn column, IntList rows)
+    {
+        int valueCount = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        long previous = 0L;
+        long plainLength = 0L;
+        long deltaLength = 0L;
+        boolean deltaFits = true;
+
+        int rowCount = rows.size();
+        for (int i = 0; i < rowCount; i++)
+        {
+            int rowIndex = rows.get(i);
+            if (!column.isNull(rowIndex))
+            {
+                long value = longValue(column, rowIndex);
+                plainLength += textLength(value);
+
+                if (valueCount == 0)
+                {
+                    deltaLength += textLength(value);
+                }
+                else
+                {
+                    long delta = value - previous;
+
+                    // the difference overflows if the operands have different signs and the result has the sign of
+                    // the subtrahend
+                    deltaFits &= ((value ^ previous) & (value ^ delta)) >= 0L;
+                    deltaLength += textLength(delta);
+                }
+
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                previous = value;
+                valueCount++;
+            }
+        }
+
+        if (valueCount < 2)
+        {
+            return null;
+        }
+
+        JsonNumberEncoding shortest = null;
+        long shortestLength = plainLength;
+
+        if (deltaFits && deltaLength < shortestLength)
+        {
+            shortest = DELTA;
+            shortestLength = deltaLength;
+        }
+
+        // the offsets from the minimum overflow if the range does
+        if (max - min >= 0L && textLength(min) + FRAME_OF_REFERENCE.encodedLength(column, rows, min) < shortestLength)
+        {
+            shortest = FRAME_OF_REFERENCE;
+        }
+
+        return shortest;
+    }
+
+    /**
+     * @return the total length of the text of the values of the column encoded relative to the reference value
+     */
+    private long encodedLength(DfColumn column, IntList rows, long reference)
+    {
+        long length = 0L;
+
+        int rowCount = rows.size();
+        for (int i = 0; i < rowCount; i++)
+        {
+            int rowIndex = rows.get(i);
+            if (!column.isNull(rowIndex))
+            {
+                length += textLength(this.encode(longValue(column, rowIndex), reference));
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * @return the number of characters in the decimal representation of the value
+     */
+    static private int textLength(long value)
+    {
+        if (value == Long.MIN_VALUE)
+        {
+            return 20;
+        }
+
+        int length = value < 0L ? 2 : 1;
+        for (long magnitude = Math.abs(value); magnitude >= 10L; magnitude /= 10L)
+        {
+            length++;
+        }
+
+        return length;
+    }
+
+    /**
+     * @return the value of a {@code LONG} or {@code INT} column as a {@code long}
+     */
+    static long longValue(DfColumn column, int rowIndex)
+    {
+        return column instanceof DfLongColumn longColumn
+                ? longColumn.getLong(rowIndex)
+                : ((DfIntColumn) column).getInt(rowIndex);
+    }
+
+    /**
+     * @param column the column to encode
+     * @param rows the indexes of the rows of the column to encode
+     * @return the base value of the encoding for the column, zero if the encoding has no base value
+     */
+    long base(DfColumn column, IntList rows)
+    {
+        if (this == DELTA)
+        {
+            return 0L;
+        }
+
+        long min = Long.MAX_VALUE;
+        int rowCount = rows.size();
+        for (int i = 0; i < rowCount; i++)
+        {
+            int rowIndex = rows.get(i);
+            if (!column.isNull(rowIndex))
+            {
+                min = Math.min(min, longValue(column, rowIndex));
+            }
+        }
+
+        return min;
+    }
+
+    boolean hasBase()
+    {
+        return this == FRAME_OF_REFERENCE;
+    }
+
+    /**
+     * @param value the value to encode
+     * @param previous the preceding non-null value, or the base value for the first value
+     * @return the encoded value
+     */
+    long encode(long value, long previous)
+    {
+        return value - previous;
+    }
+
+    /**
+     * @param encoded the encoded value
+     * @param previous the preceding decoded non-null value, or the base value for the first value
+     * @return the decoded value
+     */
+    long decode(long encoded, long previous)
+    {
+        return previous + encoded;
+    }
+
+    /**
+     * @return the value the next value is encoded relative to once {@code value} has been encoded
+     */
+    long nextReference(long value, long reference)
+    {
+        return this == DELTA ? value : reference;
+    }
+}
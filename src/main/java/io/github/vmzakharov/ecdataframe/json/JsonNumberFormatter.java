@@ -0,0 +1,152 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+/**
+ * Formats {@code double} and {@code float} values as text directly into a caller supplied character buffer, without
+ * allocating intermediate strings.
+ * <p>
+ * The formatter handles the most common case in the data frames, values in the range [10<sup>-3</sup>, 10<sup>7</sup>)
+ * with a short exact decimal representation (up to 15 significant digits for doubles, 8 for floats), by finding the
+ * smallest number of fraction digits that round-trips back to the original value. For these values the output is the
+ * shortest representation and is identical to that of {@link Double#toString(double)} and
+ * {@link Float#toString(float)}. All other values are rejected, so that the caller can fall back to the standard
+ * formatting.
+ */
+final class JsonNumberFormatter
+{
+    /**
+     * The smallest size of a buffer that can be passed to the formatting methods
+     */
+    static final int BUFFER_SIZE = 32;
+
+    static private final int MAX_SCALE = 17;
+    static private final double MAX_DOUBLE_UNSCALED = 1.0e15;
+    static private final double MAX_FLOAT_UNSCALED = 1.0e8;
+    static private final double MIN_MAGNITUDE = 1.0e-3;
+    static private final double MAX_MAGNITUDE = 1.0e7;
+
+    static private final double[] POWERS_OF_TEN = new double[MAX_SCALE + 1];
+    static private final long[] LONG_POWERS_OF_TEN = new long[MAX_SCALE + 1];
+
+    static
+    {
+        long power = 1L;
+        for (int i = 0; i <= MAX_SCALE; i++)
+        {
+            LONG_POWERS_OF_TEN[i] = power;
+            POWERS_OF_TEN[i] = power;
+            power *= 10L;
+        }
+    }
+
+    private JsonNumberFormatter()
+    {
+        // Utility class
+    }
+
+    /**
+     * Formats a double value into the end of the buffer
+     *
+     * @param value the value to format
+     * @param buffer the buffer to format the value into, at least {@link #BUFFER_SIZE} characters long
+     * @return the index of the first character of the formatted value in the buffer (the value occupies the rest of
+     * the buffer) or -1 if the value cannot be formatted by this formatter
+     */
+    static int formatDouble(double value, char[] buffer)
+    {
+        double magnitude = Math.abs(value);
+
+        if (!(magnitude >= MIN_MAGNITUDE && magnitude < MAX_MAGNITUDE))
+        {
+            return -1;
+        }
+
+        for (int scale = 0; scale <= MAX_SCALE; scale++)
+        {
+            double scaled = magnitude * POWERS_OF_TEN[scale];
+            if (scaled >= MAX_DOUBLE_UNSCALED)
+            {
+                return -1;
+            }
+
+            double unscaled = Math.rint(scaled);
+            if (unscaled / POWERS_OF_TEN[scale] == magnitude)
+            {
+                return formatDecimal(value < 0.0, (long) unscaled, scale, buffer);
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Formats a float value into the end of the buffer
+     *
+     * @param value the value to format
+     * @param buffer the buffer to format the value into, at least {@link #BUFFER_SIZE} characters long
+     * @return the index of the first character of the formatted value in the buffer (the value occupies the rest of
+     * the buffer) or -1 if the value cannot be formatted by this formatter
+     */
+    static int formatFloat(float value, char[] buffer)
+    {
+        float magnitude = Math.abs(value);
+
+        if (!(magnitude >= MIN_MAGNITUDE && magnitude < MAX_MAGNITUDE))
+        {
+            return -1;
+        }
+
+        for (int scale = 0; scale <= MAX_SCALE; scale++)
+        {
+            double scaled = magnitude * POWERS_OF_TEN[scale];
+            if (scaled >= MAX_FLOAT_UNSCALED)
+            {
+                return -1;
+            }
+
+            double unscaled = Math.rint(scaled);
+            if ((float) (unscaled / POWERS_OF_TEN[scale]) == magnitude)
+            {
+                return formatDecimal(value < 0.0f, (long) unscaled, scale, buffer);
+            }
+        }
+
+        return -1;
+    }
+
+    static private int formatDecimal(boolean negative, long unscaled, int scale, char[] buffer)
+    {
+        int position = buffer.length;
+
+        long integerPart = unscaled / LONG_POWERS_OF_TEN[scale];
+        long fractionPart = unscaled % LONG_POWERS_OF_TEN[scale];
+
+        if (scale == 0)
+        {
+            buffer[--position] = '0';
+        }
+        else
+        {
+            for (int i = 0; i < scale; i++)
+            {
+                buffer[--position] = (char) ('0' + fractionPart % 10L);
+                fractionPart /= 10L;
+            }
+        }
+
+        buffer[--position] = '.';
+
+        do
+        {
+            buffer[--position] = (char) ('0' + integerPart % 10L);
+            integerPart /= 10L;
+        }
+        while (integerPart > 0L);
+
+        if (negative)
+        {
+            buffer[--position] = '-';
+        }
+
+        return position;
+    }
+}
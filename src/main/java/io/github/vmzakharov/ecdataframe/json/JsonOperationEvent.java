@@ -0,0 +1,61 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A JDK Flight Recorder event emitted for every Json read or write operation of a data set. The event is disabled
+ * unless it is enabled in the recording settings, in which case creating and checking it is practically free.
+ */
+@Name("io.github.vmzakharov.ecdataframe.json.JsonOperation")
+@Label("Data Frame Json Operation")
+@Category({"Data Frame", "Json"})
+@Description("Reading or writing a data frame as Json")
+@StackTrace(false)
+final class JsonOperationEvent
+extends Event
+{
+    @Label("Operation")
+    String operation;
+
+    @Label("Data Set")
+    String dataSetName;
+
+    @Label("Data Frame")
+    String dataFrameName;
+
+    @Label("Size")
+    @DataAmount
+    long byteCount;
+
+    @Label("Rows")
+    int rowCount;
+
+    @Label("Columns")
+    int columnCount;
+
+    @Label("Nulls")
+    long nullCount;
+
+    @Label("Schema Time")
+    @Timespan
+    long schemaNanos;
+
+    @Label("Data Time")
+    @Timespan
+    long dataNanos;
+
+    @Label("Seal Time")
+    @Timespan
+    long sealNanos;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+}
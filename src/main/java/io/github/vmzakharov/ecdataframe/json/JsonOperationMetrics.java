@@ -0,0 +1,166 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+/**
+ * The metrics of a single read or write operation of a Json data set. The data is read and written in a single pass,
+ * so tokenizing the Json and converting the values to or from the data frame columns are interleaved and are reported
+ * together as the data phase.
+ */
+public final class JsonOperationMetrics
+{
+    /**
+     * The kind of the Json operation
+     */
+    public enum Operation
+    {
+        READ, WRITE
+    }
+
+    private final Operation operation;
+    private final String dataSetName;
+    private final String dataFrameName;
+    private final long byteCount;
+    private final int rowCount;
+    private final int columnCount;
+    private final long nullCount;
+    private final long schemaNanos;
+    private final long dataNanos;
+    private final long sealNanos;
+    private final long totalNanos;
+    private final long allocatedBytes;
+
+    JsonOperationMetrics(
+            Operation newOperation,
+            String newDataSetName,
+            String newDataFrameName,
+            long newByteCount,
+            int newRowCount,
+            int newColumnCount,
+            long newNullCount,
+            long newSchemaNanos,
+            long newDataNanos,
+            long newSealNanos,
+            long newTotalNanos,
+            long newAllocatedBytes)
+    {
+        this.operation = newOperation;
+        this.dataSetName = newDataSetName;
+        this.dataFrameName = newDataFrameName;
+        this.byteCount = newByteCount;
+        this.rowCount = newRowCount;
+        this.columnCount = newColumnCount;
+        this.nullCount = newNullCount;
+        this.schemaNanos = newSchemaNanos;
+        this.dataNanos = newDataNanos;
+        this.sealNanos = newSealNanos;
+        this.totalNanos = newTotalNanos;
+        this.allocatedBytes = newAllocatedBytes;
+    }
+
+    public Operation getOperation()
+    {
+        return this.operation;
+    }
+
+    public String getDataSetName()
+    {
+        return this.dataSetName;
+    }
+
+    public String getDataFrameName()
+    {
+        return this.dataFrameName;
+    }
+
+    /**
+     * The size of the Json input or output
+     *
+     * @return the number of bytes read or written, the number of characters when reading from a string, or -1 if the
+     * size is not known (for example, when reading from a Json node)
+     */
+    public long getByteCount()
+    {
+        return this.byteCount;
+    }
+
+    public int getRowCount()
+    {
+        return this.rowCount;
+    }
+
+    public int getColumnCount()
+    {
+        return this.columnCount;
+    }
+
+    /**
+     * The number of null values in the stored columns of the data frame, counted only if the data set is configured to
+     * with {@link JsonDataSet#metricsNullCount(boolean)}
+     *
+     * @return the number of nulls or -1 if they have not been counted
+     */
+    public long getNullCount()
+    {
+        return this.nullCount;
+    }
+
+    /**
+     * The time spent reading or writing the embedded schema
+     *
+     * @return the time in nanoseconds
+     */
+    public long getSchemaNanos()
+    {
+        return this.schemaNanos;
+    }
+
+    /**
+     * The time spent tokenizing and converting the data frame data
+     *
+     * @return the time in nanoseconds
+     */
+    public long getDataNanos()
+    {
+        return this.dataNanos;
+    }
+
+    /**
+     * The time spent sealing the data frame after it has been populated, zero for write operations
+     *
+     * @return the time in nanoseconds
+     */
+    public long getSealNanos()
+    {
+        return this.sealNanos;
+    }
+
+    /**
+     * The total duration of the operation
+     *
+     * @return the time in nanoseconds
+     */
+    public long getTotalNanos()
+    {
+        return this.totalNanos;
+    }
+
+    /**
+     * An estimate of the memory allocated by the operation, as reported by the JVM for the calling thread. Memory
+     * allocated by the worker threads when writing in parallel is not included.
+     *
+     * @return the number of bytes allocated, or -1 if the JVM does not support allocation measurement
+     */
+    public long getAllocatedBytes()
+    {
+        return this.allocatedBytes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.operation + " " + this.dataFrameName + " (" + this.dataSetName + "): "
+                + this.rowCount + " rows, " + this.columnCount + " columns, " + this.nullCount + " nulls, "
+                + this.byteCount + " bytes in " + this.totalNanos + " ns"
+                + " (schema " + this.schemaNanos + " ns, data " + this.dataNanos + " ns, seal " + this.sealNanos + " ns)"
+                + ", allocated " + this.allocatedBytes + " bytes";
+    }
+}
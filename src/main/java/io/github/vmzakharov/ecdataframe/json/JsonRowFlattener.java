@@ -0,0 +1,227 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.github.vmzakharov.ecdataframe.dataframe.DfColumn;
+import io.github.vmzakharov.ecdataframe.util.ExceptionFactory;
+import org.eclipse.collections.api.list.ListIterable;
+import org.eclipse.collections.api.map.primitive.MutableObjectIntMap;
+import org.eclipse.collections.api.set.MutableSet;
+import org.eclipse.collections.impl.factory.Sets;
+import org.eclipse.collections.impl.factory.primitive.ObjectIntMaps;
+
+import java.io.IOException;
+
+/**
+ * Populates the columns of a data frame from nested row objects, where the value of each column is located by a Json
+ * pointer relative to the row object. The row object is walked as it is parsed: the parser descends only into the
+ * objects and arrays on the paths of the columns, skips everything else, and the value at the path of a column is
+ * passed straight to the populator of the column.
+ * <p>
+ * If an array is exploded, each of its elements becomes a row. The element columns, whose paths are within the
+ * array, are populated once for each element, and once all the fields of the row object have been read the values of
+ * the other columns are repeated for each element, so the fields outside the array may appear either before or after
+ * it in the row object.
+ */
+final class JsonRowFlattener
+{
+    static final String CHILD_SEPARATOR = "/";
+
+    static private final int NOT_A_COLUMN = -1;
+
+    private final ListIterable<JsonColumnPopulator> populators;
+    private final MutableObjectIntMap<String> columnIndexByPath;
+    private final MutableSet<String> containerPaths = Sets.mutable.of();
+    private final String explodedArray;
+    private final boolean[] elementColumn;
+
+    private final int[] populatedStamps;
+    private int stamp = 0;
+    private int rowStamp;
+    private int elementStamp;
+    private int elementCount;
+
+    JsonRowFlattener(JsonDataSet dataSet, ListIterable<JsonColumnPopulator> newPopulators)
+    {
+        this.populators = newPopulators;
+        this.explodedArray = dataSet.explodedArray();
+
+        int columnCount = newPopulators.size();
+        this.columnIndexByPath = ObjectIntMaps.mutable.withInitialCapacity(columnCount);
+        this.elementColumn = new boolean[columnCount];
+        this.populatedStamps = new int[columnCount];
+
+        newPopulators.forEachWithIndex((populator, columnIndex) -> {
+            String path = dataSet.columnPath(populator.getColumnName());
+
+            this.columnIndexByPath.put(path, columnIndex);
+            this.addContainerPaths(path);
+            this.elementColumn[columnIndex] = this.isWithinExplodedArray(path);
+        });
+
+        if (this.explodedArray != null)
+        {
+            this.addContainerPaths(this.explodedArray);
+        }
+    }
+
+    /**
+     * Escapes a field name to be used as a reference token in a Json pointer
+     */
+    static String escape(String fieldName)
+    {
+        return fieldName.replace("~", "~0").replace("/", "~1");
+    }
+
+    private void addContainerPaths(String path)
+    {
+        int separator = path.lastIndexOf(CHILD_SEPARATOR);
+        while (separator > 0)
+        {
+            this.containerPaths.add(path.substring(0, separator));
+            separator = path.lastIndexOf(CHILD_SEPARATOR, separator - 1);
+        }
+    }
+
+    private boolean isWithinExplodedArray(String path)
+    {
+        return this.explodedArray != null
+                && (path.equals(this.explodedArray) || path.startsWith(this.explodedArray + CHILD_SEPARATOR));
+    }
+
+    /**
+     * Reads a row object and adds its values to the columns
+     *
+     * @param parser the parser positioned at the start of the row object
+     * @return the number of rows added, more than one if the exploded array has more than one element
+     */
+    int readRow(JsonParser parser)
+    throws IOException
+    {
+        this.stamp++;
+        this.rowStamp = this.stamp;
+        this.elementCount = 0;
+
+        this.readObject(parser, "", false);
+
+        if (this.explodedArray == null || this.elementCount == 0)
+        {
+            this.elementCount = 1;
+            this.elementStamp = this.rowStamp;
+            this.addMissingValues(true);
+        }
+
+        this.addMissingValues(false);
+
+        return this.elementCount;
+    }
+
+    private void readValue(JsonParser parser, String path, boolean inElement)
+    throws IOException
+    {
+        JsonToken token = parser.currentToken();
+
+        if (!inElement && token == JsonToken.START_ARRAY && path.equals(this.explodedArray))
+        {
+            this.readElements(parser, path);
+            return;
+        }
+
+        int columnIndex = this.columnIndexByPath.getIfAbsent(path, NOT_A_COLUMN);
+
+        if (columnIndex != NOT_A_COLUMN && this.elementColumn[columnIndex] == inElement)
+        {
+            this.populate(parser, columnIndex, inElement ? this.elementStamp : this.rowStamp);
+        }
+        else if (token == JsonToken.START_OBJECT && this.containerPaths.contains(path))
+        {
+            this.readObject(parser, path, inElement);
+        }
+        else if (token == JsonToken.START_ARRAY && this.containerPaths.contains(path))
+        {
+            int index = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY)
+            {
+                this.readValue(parser, path + CHILD_SEPARATOR + index, inElement);
+                index++;
+            }
+        }
+        else
+        {
+            parser.skipChildren();
+        }
+    }
+
+    private void readObject(JsonParser parser, String path, boolean inElement)
+    throws IOException
+    {
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String childPath = path + CHILD_SEPARATOR + escape(parser.currentName());
+            parser.nextToken();
+            this.readValue(parser, childPath, inElement);
+        }
+    }
+
+    private void readElements(JsonParser parser, String path)
+    throws IOException
+    {
+        while (parser.nextToken() != JsonToken.END_ARRAY)
+        {
+            this.stamp++;
+            this.elementStamp = this.stamp;
+
+            this.readValue(parser, path, true);
+
+            this.addMissingValues(true);
+            this.elementCount++;
+        }
+    }
+
+    private void populate(JsonParser parser, int columnIndex, int currentStamp)
+    throws IOException
+    {
+        if (this.populatedStamps[columnIndex] == currentStamp)
+        {
+            throw ExceptionFactory
+                    .exception("Duplicate value for column " + this.populators.get(columnIndex).getColumnName())
+                    .get();
+        }
+
+        this.populators.get(columnIndex).populateFrom(parser);
+        this.populatedStamps[columnIndex] = currentStamp;
+    }
+
+    /**
+     * Adds nulls to the element columns or to the other columns that have not been populated from the current
+     * element or row, and repeats the values of the other columns for each element of the exploded array
+     */
+    private void addMissingValues(boolean elementColumns)
+    {
+        int currentStamp = elementColumns ? this.elementStamp : this.rowStamp;
+
+        for (int columnIndex = 0; columnIndex < this.populatedStamps.length; columnIndex++)
+        {
+            if (this.elementColumn[columnIndex] != elementColumns)
+            {
+                continue;
+            }
+
+            DfColumn column = this.populators.get(columnIndex).getColumn();
+
+            if (this.populatedStamps[columnIndex] != currentStamp)
+            {
+                column.addEmptyValue();
+            }
+
+            if (!elementColumns)
+            {
+                int rowIndex = column.getSize() - 1;
+                for (int element = 1; element < this.elementCount; element++)
+                {
+                    column.addRowToColumn(rowIndex, column);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.eclipse.collections.api.list.ImmutableList;
+import org.eclipse.collections.api.list.ListIterable;
+import org.eclipse.collections.api.map.primitive.MutableObjectIntMap;
+import org.eclipse.collections.impl.factory.primitive.ObjectIntMaps;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The layout of the row objects of a data frame organized by rows: the names of the columns in the order of the
+ * schema, in the form that the parser can match against the raw input, and the position of each column by its name.
+ * Row objects are written with their fields in schema order, so the reader first checks if the next field is the column
+ * following the previously read one, which the parser does without decoding the field name or looking it up, and falls
+ * back to looking up the column by name only if it is not.
+ * <p>
+ * Layouts are immutable and are cached by the list of column names, so the data frames with the same columns share
+ * a layout.
+ */
+final class JsonRowLayout
+{
+    /**
+     * Returned by {@link #nextColumn(JsonParser, int)} when the field is not one of the columns
+     */
+    static final int UNKNOWN_COLUMN = -1;
+
+    /**
+     * Returned by {@link #nextColumn(JsonParser, int)} at the end of the row object
+     */
+    static final int END_OF_ROW = -2;
+
+    static private final int MAX_CACHED_LAYOUTS = 256;
+
+    static private final Map<ImmutableList<String>, JsonRowLayout> CACHE = new ConcurrentHashMap<>();
+
+    private final SerializedString[] fieldNames;
+    private final MutableObjectIntMap<String> columnIndexByName;
+
+    private JsonRowLayout(ImmutableList<String> columnNames)
+    {
+        this.fieldNames = new SerializedString[columnNames.size()];
+        this.columnIndexByName = ObjectIntMaps.mutable.withInitialCapacity(columnNames.size());
+
+        columnNames.forEachWithIndex((columnName, columnIndex) -> {
+            this.fieldNames[columnIndex] = new SerializedString(columnName);
+            this.columnIndexByName.put(columnName, columnIndex);
+        });
+    }
+
+    /**
+     * @param columnNames the names of the columns being read, in the order of the schema
+     * @return the layout of the rows with these columns
+     */
+    static JsonRowLayout forColumns(ListIterable<String> columnNames)
+    {
+        ImmutableList<String> key = columnNames.toImmutableList();
+
+        JsonRowLayout layout = CACHE.get(key);
+
+        if (layout == null)
+        {
+            if (CACHE.size() >= MAX_CACHED_LAYOUTS)
+            {
+                CACHE.clear();
+            }
+
+            layout = CACHE.computeIfAbsent(key, JsonRowLayout::new);
+        }
+
+        return layout;
+    }
+
+    int columnCount()
+    {
+        return this.fieldNames.length;
+    }
+
+    /**
+     * Advances the parser to the next field of the row object and identifies the column it belongs to
+     *
+     * @param parser the parser positioned at the start of the row object or at a value in it
+     * @param expectedColumn the index of the column expected to be next, typically the one following the column read
+     *                       last
+     * @return the index of the column, {@link #UNKNOWN_COLUMN} if the field is not a column, or {@link #END_OF_ROW}
+     * if there are no more fields in the row object
+     */
+    int nextColumn(JsonParser parser, int expectedColumn)
+    throws IOException
+    {
+        if (expectedColumn < this.fieldNames.length)
+        {
+            if (parser.nextFieldName(this.fieldNames[expectedColumn]))
+            {
+                return expectedColumn;
+            }
+        }
+        else
+        {
+            parser.nextToken();
+        }
+
+        if (parser.currentToken() != JsonToken.FIELD_NAME)
+        {
+            return END_OF_ROW;
+        }
+
+        return this.columnIndexByName.getIfAbsent(parser.currentName(), UNKNOWN_COLUMN);
+    }
+}
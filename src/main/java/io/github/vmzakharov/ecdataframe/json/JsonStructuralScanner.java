@@ -0,0 +1,219 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchema;
+import io.github.vmzakharov.ecdataframe.util.ExceptionFactory;
+import org.eclipse.collections.api.map.MutableMap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Finds the row objects of the data array in a Json file without tokenizing the rows. The file is memory mapped and
+ * examined eight bytes at a time: the bytes of each block are compared to the structural characters (quotes,
+ * backslashes, braces and brackets) all at once using arithmetic on a {@code long} value, so a block with no structural
+ * characters, such as a block inside a string or a number, is skipped with a few instructions. Only the structural
+ * characters are then processed one by one to track string boundaries and nesting depth.
+ * <p>
+ * The positions of the row objects are recorded as a {@link JsonIndex} held in memory, which allows reading a file
+ * that has no sidecar index in parallel the same way as a file that has one. At most {@code MAX_ROW_OFFSETS} offsets
+ * are recorded: once the limit is reached, every other offset is dropped and the interval between the recorded rows
+ * is doubled.
+ */
+final class JsonStructuralScanner
+{
+    static private final int MAX_ROW_OFFSETS = 4096;
+
+    static private final long ONES = 0x0101010101010101L;
+    static private final long LOW_SEVEN_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+    // setting bit 0x20 of every byte maps '[' to '{', ']' to '}' and '\' to '|', so four comparisons find all six
+    // structural characters, the other characters they match are filtered out when the bytes are examined one by one
+    static private final long CASE_BITS = ONES * 0x20;
+    static private final long OPENING = ONES * '{';
+    static private final long CLOSING = ONES * '}';
+    static private final long QUOTE = ONES * '"';
+    static private final long BACKSLASH = ONES * '|';
+
+    static private final int BLOCK_SIZE = Long.BYTES;
+    static private final int BYTE_INDEX_SHIFT = 3;
+
+    private final ByteBuffer buffer;
+
+    private JsonStructuralScanner(ByteBuffer newBuffer)
+    {
+        this.buffer = newBuffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Memory maps a Json file for scanning
+     *
+     * @param jsonFile the file to scan
+     * @return the scanner of the file or {@code null} if the file is too large to be mapped as a single buffer
+     */
+    static JsonStructuralScanner forFile(Path jsonFile)
+    {
+        try (FileChannel channel = FileChannel.open(jsonFile, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+            {
+                return null;
+            }
+
+            return new JsonStructuralScanner(channel.map(FileChannel.MapMode.READ_ONLY, 0L, size));
+        }
+        catch (IOException e)
+        {
+            throw ExceptionFactory.exception("Failed to map " + jsonFile).get(e);
+        }
+    }
+
+    static JsonStructuralScanner forBytes(byte[] bytes)
+    {
+        return new JsonStructuralScanner(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Finds the row objects in the array starting at the specified offset
+     *
+     * @param arrayStart the offset of the opening bracket of the data array
+     * @param dataFrameName the name of the data frame
+     * @param schema the schema of the data frame
+     * @param columnEncodings the encodings of the column values or {@code null} if they are implied by the data set
+     * @return the index of the rows in the array
+     */
+    JsonIndex indexRows(long arrayStart, String dataFrameName, CsvSchema schema, MutableMap<String, JsonColumnEncoding> columnEncodings)
+    {
+        long[] rowOffsets = new long[MAX_ROW_OFFSETS];
+        int offsetCount = 0;
+        int interval = 1;
+        int rowCount = 0;
+
+        int depth = 0;
+        boolean inString = false;
+        int escapedPosition = -1;
+
+        int limit = this.buffer.limit();
+
+        for (int blockStart = Math.toIntExact(arrayStart); blockStart < limit; blockStart += BLOCK_SIZE)
+        {
+            long candidates = this.structuralCandidates(blockStart, limit);
+
+            while (candidates != 0L)
+            {
+                int position = blockStart + (Long.numberOfTrailingZeros(candidates) >>> BYTE_INDEX_SHIFT);
+                candidates &= candidates - 1L;
+
+                byte current = this.buffer.get(position);
+
+                if (inString)
+                {
+                    if (position == escapedPosition)
+                    {
+                        continue;
+                    }
+
+                    if (current == '\\')
+                    {
+                        escapedPosition = position + 1;
+                    }
+                    else if (current == '"')
+                    {
+                        inString = false;
+                    }
+                }
+                else if (current == '"')
+                {
+                    inString = true;
+                }
+                else if (current == '{' || current == '[')
+                {
+                    if (depth == 1 && current == '{')
+                    {
+                        if (rowCount % interval == 0 && offsetCount == MAX_ROW_OFFSETS)
+                        {
+                            offsetCount = this.dropEveryOtherOffset(rowOffsets, offsetCount);
+                            interval *= 2;
+                        }
+
+                        if (rowCount % interval == 0)
+                        {
+                            rowOffsets[offsetCount++] = position;
+                        }
+
+                        rowCount++;
+                    }
+
+                    depth++;
+                }
+                else if (current == '}' || current == ']')
+                {
+                    depth--;
+
+                    if (depth == 0)
+                    {
+                        return JsonIndex.ofRows(
+                                dataFrameName, rowCount, interval, schema, columnEncodings,
+                                Arrays.copyOf(rowOffsets, offsetCount), position);
+                    }
+                }
+            }
+        }
+
+        throw ExceptionFactory.exception("Unexpected end of Json data array for data frame " + dataFrameName).get();
+    }
+
+    private int dropEveryOtherOffset(long[] rowOffsets, int offsetCount)
+    {
+        int keptCount = (offsetCount + 1) / 2;
+        for (int i = 1; i < keptCount; i++)
+        {
+            rowOffsets[i] = rowOffsets[2 * i];
+        }
+
+        return keptCount;
+    }
+
+    /**
+     * Reads a block of bytes and finds the bytes that may be structural characters
+     *
+     * @return a value with the high bit set in each byte that may be a structural character, in the little endian order
+     */
+    private long structuralCandidates(int blockStart, int limit)
+    {
+        long block;
+        if (blockStart + BLOCK_SIZE <= limit)
+        {
+            block = this.buffer.getLong(blockStart);
+        }
+        else
+        {
+            block = 0L;
+            for (int position = limit - 1; position >= blockStart; position--)
+            {
+                block = (block << Byte.SIZE) | (this.buffer.get(position) & 0xFF);
+            }
+        }
+
+        long folded = block | CASE_BITS;
+
+        return this.bytesEqual(folded, OPENING)
+                | this.bytesEqual(folded, CLOSING)
+                | this.bytesEqual(folded, QUOTE)
+                | this.bytesEqual(folded, BACKSLASH);
+    }
+
+    /**
+     * @return a value with the high bit set in each byte that is equal in the two values and all other bits cleared
+     */
+    private long bytesEqual(long block, long pattern)
+    {
+        long difference = block ^ pattern;
+        return ~(((difference & LOW_SEVEN_BITS) + LOW_SEVEN_BITS) | difference | LOW_SEVEN_BITS);
+    }
+}
@@ -0,0 +1,351 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+
+/**
+ * Parses and formats ISO-8601 local dates and date-times directly from and into character buffers, bypassing
+ * {@code DateTimeFormatter} and the intermediate strings and parser state objects it allocates.
+ * <p>
+ * Parsing accepts the text produced by the default {@code DATE} ({@code uuuu-M-d}) and {@code DATE_TIME}
+ * ({@code uuuu-M-d'T'H:m:s}) schema column patterns, as well as an optional fraction of a second for date-times. Text
+ * that does not match the expected layout or does not represent a valid date is rejected, so that the caller can fall
+ * back to the standard parsing, which reports the error.
+ * <p>
+ * Formatting produces the same text as {@code DateTimeFormatter.ISO_DATE} and {@code DateTimeFormatter.ISO_DATE_TIME}
+ * for years from 0 to 9999; other dates are rejected.
+ * <p>
+ * Date-times can also be converted to and from a number of units since the epoch, for the numeric encodings of
+ * temporal values.
+ */
+final class JsonTemporalCodec
+{
+    /**
+     * The smallest size of a buffer that can be passed to the formatting methods
+     */
+    static final int BUFFER_SIZE = 32;
+
+    static private final int MAX_FORMATTED_YEAR = 9999;
+    static private final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private JsonTemporalCodec()
+    {
+        // Utility class
+    }
+
+    /**
+     * Parses a date in the {@code uuuu-M-d} format
+     *
+     * @param chars the buffer containing the text to parse
+     * @param offset the offset of the text in the buffer
+     * @param length the length of the text
+     * @return the parsed date, or {@code null} if the text is not a valid date in the expected format
+     */
+    static LocalDate parseDate(char[] chars, int offset, int length)
+    {
+        int end = offset + length;
+
+        long yearMonthDay = parseYearMonthDay(chars, offset, end);
+
+        if (yearMonthDay < 0 || (int) (yearMonthDay >>> 32) != end)
+        {
+            return null;
+        }
+
+        return toDateOrNull((int) yearMonthDay);
+    }
+
+    /**
+     * Parses a date-time in the {@code uuuu-M-d'T'H:m:s} format, optionally followed by a fraction of a second of up
+     * to nine digits
+     *
+     * @param chars the buffer containing the text to parse
+     * @param offset the offset of the text in the buffer
+     * @param length the length of the text
+     * @return the parsed date-time, or {@code null} if the text is not a valid date-time in the expected format
+     */
+    static LocalDateTime parseDateTime(char[] chars, int offset, int length)
+    {
+        int end = offset + length;
+
+        long yearMonthDay = parseYearMonthDay(chars, offset, end);
+        if (yearMonthDay < 0)
+        {
+            return null;
+        }
+
+        int position = (int) (yearMonthDay >>> 32);
+        if (position >= end || chars[position] != 'T')
+        {
+            return null;
+        }
+
+        int hourEnd = endOfOneOrTwoDigits(chars, position + 1, end);
+        if (hourEnd < 0 || hourEnd >= end || chars[hourEnd] != ':')
+        {
+            return null;
+        }
+
+        int minuteEnd = endOfOneOrTwoDigits(chars, hourEnd + 1, end);
+        if (minuteEnd < 0 || minuteEnd >= end || chars[minuteEnd] != ':')
+        {
+            return null;
+        }
+
+        int secondEnd = endOfOneOrTwoDigits(chars, minuteEnd + 1, end);
+        if (secondEnd < 0)
+        {
+            return null;
+        }
+
+        int hour = parseDigits(chars, position + 1, hourEnd);
+        int minute = parseDigits(chars, hourEnd + 1, minuteEnd);
+        int second = parseDigits(chars, minuteEnd + 1, secondEnd);
+
+        if (hour > 23 || minute > 59 || second > 59)
+        {
+            return null;
+        }
+
+        int nano = 0;
+        if (secondEnd < end)
+        {
+            int fractionLength = end - secondEnd - 1;
+            if (chars[secondEnd] != '.' || fractionLength < 1 || fractionLength > 9)
+            {
+                return null;
+            }
+
+            for (int fractionPosition = secondEnd + 1; fractionPosition < end; fractionPosition++)
+            {
+                if (!isDigit(chars[fractionPosition]))
+                {
+                    return null;
+                }
+            }
+
+            nano = parseDigits(chars, secondEnd + 1, end);
+            for (int i = fractionLength; i < 9; i++)
+            {
+                nano *= 10;
+            }
+        }
+
+        LocalDate date = toDateOrNull((int) yearMonthDay);
+
+        return date == null ? null : LocalDateTime.of(date, LocalTime.of(hour, minute, second, nano));
+    }
+
+    /**
+     * Formats a date into the end of the buffer
+     *
+     * @param date the date to format
+     * @param buffer the buffer to format the value into, at least {@link #BUFFER_SIZE} characters long
+     * @return the index of the first character of the formatted value in the buffer (the value occupies the rest of
+     * the buffer) or -1 if the date cannot be formatted by this formatter
+     */
+    static int formatDate(LocalDate date, char[] buffer)
+    {
+        return formatDate(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), buffer, buffer.length);
+    }
+
+    /**
+     * Formats a date-time into the end of the buffer
+     *
+     * @param dateTime the date-time to format
+     * @param buffer the buffer to format the value into, at least {@link #BUFFER_SIZE} characters long
+     * @return the index of the first character of the formatted value in the buffer (the value occupies the rest of
+     * the buffer) or -1 if the date-time cannot be formatted by this formatter
+     */
+    static int formatDateTime(LocalDateTime dateTime, char[] buffer)
+    {
+        int position = buffer.length;
+
+        int nano = dateTime.getNano();
+        if (nano != 0)
+        {
+            int digits = 9;
+            while (nano % 10 == 0)
+            {
+                nano /= 10;
+                digits--;
+            }
+
+            for (int i = 0; i < digits; i++)
+            {
+                buffer[--position] = (char) ('0' + nano % 10);
+                nano /= 10;
+            }
+
+            buffer[--position] = '.';
+        }
+
+        position = formatTwoDigits(dateTime.getSecond(), buffer, position);
+        buffer[--position] = ':';
+        position = formatTwoDigits(dateTime.getMinute(), buffer, position);
+        buffer[--position] = ':';
+        position = formatTwoDigits(dateTime.getHour(), buffer, position);
+        buffer[--position] = 'T';
+
+        return formatDate(dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(), buffer, position);
+    }
+
+    /**
+     * Converts a date-time to the number of units (for example milliseconds) since 1970-01-01T00:00:00. The fraction
+     * of a unit is truncated.
+     *
+     * @param dateTime the date-time to convert
+     * @param unitsPerSecond the number of units in a second, must be a divisor of 1,000,000,000
+     * @return the number of units since the epoch
+     */
+    static long toEpochUnits(LocalDateTime dateTime, long unitsPerSecond)
+    {
+        return Math.addExact(
+                Math.multiplyExact(dateTime.toEpochSecond(ZoneOffset.UTC), unitsPerSecond),
+                dateTime.getNano() / (NANOS_PER_SECOND / unitsPerSecond));
+    }
+
+    /**
+     * Converts the number of units (for example milliseconds) since 1970-01-01T00:00:00 to a date-time
+     *
+     * @param epochUnits the number of units since the epoch
+     * @param unitsPerSecond the number of units in a second, must be a divisor of 1,000,000,000
+     * @return the date-time
+     */
+    static LocalDateTime fromEpochUnits(long epochUnits, long unitsPerSecond)
+    {
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(epochUnits, unitsPerSecond),
+                (int) (Math.floorMod(epochUnits, unitsPerSecond) * (NANOS_PER_SECOND / unitsPerSecond)),
+                ZoneOffset.UTC);
+    }
+
+    static private int formatDate(int year, int month, int day, char[] buffer, int end)
+    {
+        if (year < 0 || year > MAX_FORMATTED_YEAR)
+        {
+            return -1;
+        }
+
+        int position = formatTwoDigits(day, buffer, end);
+        buffer[--position] = '-';
+        position = formatTwoDigits(month, buffer, position);
+        buffer[--position] = '-';
+        position = formatTwoDigits(year % 100, buffer, position);
+        return formatTwoDigits(year / 100, buffer, position);
+    }
+
+    static private int formatTwoDigits(int value, char[] buffer, int end)
+    {
+        buffer[end - 1] = (char) ('0' + value % 10);
+        buffer[end - 2] = (char) ('0' + value / 10);
+        return end - 2;
+    }
+
+    /**
+     * Parses the {@code uuuu-M-d} part of the text
+     *
+     * @return the position following the parsed text in the upper 32 bits and the year, month and day packed into
+     * the lower 32 bits, or -1 if the text cannot be parsed
+     */
+    static private long parseYearMonthDay(char[] chars, int offset, int end)
+    {
+        if (end - offset < 8)
+        {
+            return -1L;
+        }
+
+        for (int position = offset; position < offset + 4; position++)
+        {
+            if (!isDigit(chars[position]))
+            {
+                return -1L;
+            }
+        }
+
+        if (chars[offset + 4] != '-')
+        {
+            return -1L;
+        }
+
+        int monthEnd = endOfOneOrTwoDigits(chars, offset + 5, end);
+        if (monthEnd < 0 || monthEnd >= end || chars[monthEnd] != '-')
+        {
+            return -1L;
+        }
+
+        int dayEnd = endOfOneOrTwoDigits(chars, monthEnd + 1, end);
+        if (dayEnd < 0)
+        {
+            return -1L;
+        }
+
+        int year = parseDigits(chars, offset, offset + 4);
+        int month = parseDigits(chars, offset + 5, monthEnd);
+        int day = parseDigits(chars, monthEnd + 1, dayEnd);
+
+        if (month < 1 || month > 12 || day < 1)
+        {
+            return -1L;
+        }
+
+        return ((long) dayEnd << 32) | (year << 9) | (month << 5) | day;
+    }
+
+    static private LocalDate toDateOrNull(int yearMonthDay)
+    {
+        int year = yearMonthDay >>> 9;
+        int month = (yearMonthDay >>> 5) & 0xF;
+        int day = yearMonthDay & 0x1F;
+
+        if (day > lengthOfMonth(year, month))
+        {
+            return null;
+        }
+
+        return LocalDate.of(year, month, day);
+    }
+
+    static private int lengthOfMonth(int year, int month)
+    {
+        return switch (month)
+        {
+            case 2 -> year % 4 == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /**
+     * Finds the end of a field of one or two digits starting at the position
+     *
+     * @return the position following the digits or -1 if there is no digit at the position
+     */
+    static private int endOfOneOrTwoDigits(char[] chars, int position, int end)
+    {
+        if (position >= end || !isDigit(chars[position]))
+        {
+            return -1;
+        }
+
+        return position + 1 < end && isDigit(chars[position + 1]) ? position + 2 : position + 1;
+    }
+
+    static private int parseDigits(char[] chars, int from, int to)
+    {
+        int value = 0;
+        for (int position = from; position < to; position++)
+        {
+            value = value * 10 + chars[position] - '0';
+        }
+
+        return value;
+    }
+
+    static private boolean isDigit(char aChar)
+    {
+        return aChar >= '0' && aChar <= '9';
+    }
+}
@@ -0,0 +1,165 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.github.vmzakharov.ecdataframe.dataframe.DfBooleanColumn;
+import io.github.vmzakharov.ecdataframe.dataframe.DfColumn;
+import io.github.vmzakharov.ecdataframe.dataframe.DfDateColumn;
+import io.github.vmzakharov.ecdataframe.dataframe.DfDateTimeColumn;
+import io.github.vmzakharov.ecdataframe.dataframe.DfDecimalColumn;
+import io.github.vmzakharov.ecdataframe.dataframe.DfDoubleColumn;
+import io.github.vmzakharov.ecdataframe.dataframe.DfFloatColumn;
+import io.github.vmzakharov.ecdataframe.dataframe.DfIntColumn;
+import io.github.vmzakharov.ecdataframe.dataframe.DfLongColumn;
+import io.github.vmzakharov.ecdataframe.dsl.value.ValueType;
+import io.github.vmzakharov.ecdataframe.util.ExceptionFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Writes individual data frame cell values to a JSON generator. An instance of this class is bound to a single
+ * generator and owns the scratch buffers used for formatting values, so it must not be shared between threads.
+ */
+final class JsonValueWriter
+{
+    private final JsonGenerator generator;
+    private final boolean fastNumberWriting;
+    private final JsonColumnEncoding dateEncoding;
+    private final JsonColumnEncoding dateTimeEncoding;
+
+    private final char[] numberBuffer = new char[JsonNumberFormatter.BUFFER_SIZE];
+    private final char[] temporalBuffer = new char[JsonTemporalCodec.BUFFER_SIZE];
+
+    JsonValueWriter(JsonGenerator newGenerator, JsonDataSet dataSet)
+    {
+        this.generator = newGenerator;
+        this.fastNumberWriting = dataSet.fastNumberWriting() && newGenerator.canWriteFormattedNumbers();
+        this.dateEncoding = dataSet.temporalEncoding().columnEncoding(ValueType.DATE);
+        this.dateTimeEncoding = dataSet.temporalEncoding().columnEncoding(ValueType.DATE_TIME);
+    }
+
+    public void writeValue(DfColumn column, int rowIndex)
+    throws IOException
+    {
+        if (column.isNull(rowIndex))
+        {
+            this.generator.writeNull();
+        }
+        else
+        {
+            switch (column.getType())
+            {
+                case LONG -> this.generator.writeNumber(((DfLongColumn) column).getLong(rowIndex));
+                case INT -> this.generator.writeNumber(((DfIntColumn) column).getInt(rowIndex));
+                case FLOAT -> this.writeFloat(((DfFloatColumn) column).getFloat(rowIndex));
+                case DOUBLE -> this.writeDouble(((DfDoubleColumn) column).getDouble(rowIndex));
+                case DECIMAL -> this.writeDecimal(((DfDecimalColumn) column).getTypedObject(rowIndex));
+                case STRING -> this.generator.writeString(column.getValueAsString(rowIndex));
+                case BOOLEAN -> this.generator.writeBoolean(((DfBooleanColumn) column).getBoolean(rowIndex));
+                case DATE -> this.writeDate(column, rowIndex);
+                case DATE_TIME -> this.writeDateTime(column, rowIndex);
+                default -> throw this.unsupportedColumnException(column);
+            }
+        }
+    }
+
+    private void writeDouble(double value)
+    throws IOException
+    {
+        int start = this.fastNumberWriting ? JsonNumberFormatter.formatDouble(value, this.numberBuffer) : -1;
+
+        if (start < 0)
+        {
+            this.generator.writeNumber(value);
+        }
+        else
+        {
+            this.generator.writeNumber(this.numberBuffer, start, this.numberBuffer.length - start);
+        }
+    }
+
+    private void writeFloat(float value)
+    throws IOException
+    {
+        int start = this.fastNumberWriting ? JsonNumberFormatter.formatFloat(value, this.numberBuffer) : -1;
+
+        if (start < 0)
+        {
+            this.generator.writeNumber(value);
+        }
+        else
+        {
+            this.generator.writeNumber(this.numberBuffer, start, this.numberBuffer.length - start);
+        }
+    }
+
+    private void writeDecimal(BigDecimal value)
+    throws IOException
+    {
+        int start = this.fastNumberWriting ? JsonDecimalCodec.formatDecimal(value, this.numberBuffer) : -1;
+
+        if (start < 0)
+        {
+            this.generator.writeNumber(value);
+        }
+        else
+        {
+            this.generator.writeNumber(this.numberBuffer, start, this.numberBuffer.length - start);
+        }
+    }
+
+    private void writeDate(DfColumn column, int rowIndex)
+    throws IOException
+    {
+        LocalDate date = ((DfDateColumn) column).getTypedObject(rowIndex);
+
+        if (this.dateEncoding == JsonColumnEncoding.EPOCH_DAY)
+        {
+            this.generator.writeNumber(date.toEpochDay());
+            return;
+        }
+
+        int start = JsonTemporalCodec.formatDate(date, this.temporalBuffer);
+
+        if (start < 0)
+        {
+            this.generator.writeString(column.getValueAsStringLiteral(rowIndex));
+        }
+        else
+        {
+            this.generator.writeString(this.temporalBuffer, start, this.temporalBuffer.length - start);
+        }
+    }
+
+    private void writeDateTime(DfColumn column, int rowIndex)
+    throws IOException
+    {
+        LocalDateTime dateTime = ((DfDateTimeColumn) column).getTypedObject(rowIndex);
+
+        if (this.dateTimeEncoding != null)
+        {
+            this.generator.writeNumber(JsonTemporalCodec.toEpochUnits(dateTime, this.dateTimeEncoding.unitsPerSecond()));
+            return;
+        }
+
+        int start = JsonTemporalCodec.formatDateTime(dateTime, this.temporalBuffer);
+
+        if (start < 0)
+        {
+            this.generator.writeString(column.getValueAsStringLiteral(rowIndex));
+        }
+        else
+        {
+            this.generator.writeString(this.temporalBuffer, start, this.temporalBuffer.length - start);
+        }
+    }
+
+    private RuntimeException unsupportedColumnException(DfColumn column)
+    {
+        return ExceptionFactory
+                .exception("Cannot convert values in column " + column.getName() + " of type " + column.getType() + " to Json")
+                .getUnsupported();
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dsl.value.ValueType;
+
+/**
+ * Specifies how the values of {@code DATE} and {@code DATE_TIME} columns are represented in JSON
+ */
+public enum TemporalEncoding
+{
+    /**
+     * Dates and date-times are written as ISO-8601 strings, for example {@code "2024-11-12"} and
+     * {@code "2024-11-12T20:38:45"}
+     */
+    ISO_TEXT(null),
+
+    /**
+     * Dates are written as the number of days since 1970-01-01, date-times are written as the number of milliseconds
+     * since 1970-01-01T00:00:00. The fraction of a millisecond is truncated.
+     */
+    EPOCH_MILLIS(JsonColumnEncoding.EPOCH_MILLIS),
+
+    /**
+     * Dates are written as the number of days since 1970-01-01, date-times are written as the number of microseconds
+     * since 1970-01-01T00:00:00. The fraction of a microsecond is truncated.
+     */
+    EPOCH_MICROS(JsonColumnEncoding.EPOCH_MICROS);
+
+    private final JsonColumnEncoding dateTimeEncoding;
+
+    TemporalEncoding(JsonColumnEncoding newDateTimeEncoding)
+    {
+        this.dateTimeEncoding = newDateTimeEncoding;
+    }
+
+    /**
+     * The encoding of the values of a column of the specified type
+     *
+     * @param type the column type
+     * @return the encoding of the column values or {@code null} if the values are written as is
+     */
+    JsonColumnEncoding columnEncoding(ValueType type)
+    {
+        if (this == ISO_TEXT)
+        {
+            return null;
+        }
+
+        return switch (type)
+        {
+            case DATE -> JsonColumnEncoding.EPOCH_DAY;
+            case DATE_TIME -> this.dateTimeEncoding;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchema;
+import org.junit.jupiter.api.Test;
+
+import static io.github.vmzakharov.ecdataframe.dsl.value.ValueType.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DataFrameModuleTest
+{
+    private final DataFrame dataFrame = new DataFrame("people")
+            .addStringColumn("name").addLongColumn("age").addDoubleColumn("score")
+            .addRow("Alice", 23L, 12.5)
+            .addRow("Bob", null, 7.25)
+            .addRow(null, 41L, null)
+            .seal();
+
+    @Test
+    public void roundTripWithSchema()
+    throws JsonProcessingException
+    {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new DataFrameModule());
+
+        Report report = new Report();
+        report.title = "quarterly";
+        report.people = this.dataFrame;
+        report.total = 3;
+
+        String jsonString = mapper.writeValueAsString(report);
+
+        Report readBack = mapper.readValue(jsonString, Report.class);
+
+        assertEquals("quarterly", readBack.title);
+        assertEquals(3, readBack.total);
+        assertEquals("people", readBack.people.getName());
+        DataFrameTestUtil.assertEquals(this.dataFrame, readBack.people);
+    }
+
+    @Test
+    public void roundTripByColumnsDataOnly()
+    throws JsonProcessingException
+    {
+        CsvSchema schema = new CsvSchema()
+                .addColumn("name", STRING)
+                .addColumn("age", LONG)
+                .addColumn("score", DOUBLE)
+                ;
+
+        JsonDataSet dataSet = new JsonDataSet("people", schema).dataOnly(true).dataByRows(false);
+        ObjectMapper mapper = new ObjectMapper().registerModule(new DataFrameModule(dataSet));
+
+        Report report = new Report();
+        report.title = "columns";
+        report.people = this.dataFrame;
+        report.total = 3;
+
+        String jsonString = mapper.writeValueAsString(report);
+
+        assertEquals("""
+                {"title":"columns","people":[\
+                {"column":"name","values":["Alice","Bob",null]},\
+                {"column":"age","values":[23,null,41]},\
+                {"column":"score","values":[12.5,7.25,null]}],\
+                "total":3}""",
+                jsonString);
+
+        Report readBack = mapper.readValue(jsonString, Report.class);
+
+        assertEquals("columns", readBack.title);
+        assertEquals(3, readBack.total);
+        DataFrameTestUtil.assertEquals(this.dataFrame, readBack.people);
+    }
+
+    @Test
+    public void nullDataFrame()
+    throws JsonProcessingException
+    {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new DataFrameModule());
+
+        Report report = new Report();
+        report.title = "empty";
+
+        Report readBack = mapper.readValue(mapper.writeValueAsString(report), Report.class);
+
+        assertEquals("empty", readBack.title);
+        assertEquals(null, readBack.people);
+    }
+
+    static public class Report
+    {
+        public String title;
+        public DataFrame people;
+        public int total;
+    }
+}
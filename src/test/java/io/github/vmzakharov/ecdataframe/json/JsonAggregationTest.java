@@ -0,0 +1,124 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dataframe.AggregateFunction;
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import org.eclipse.collections.api.list.ListIterable;
+import org.eclipse.collections.impl.factory.Lists;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static io.github.vmzakharov.ecdataframe.dataframe.AggregateFunction.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class JsonAggregationTest
+{
+    private final DataFrame dataFrame = new DataFrame("trades")
+            .addStringColumn("desk").addStringColumn("book").addStringColumn("trader")
+            .addLongColumn("quantity").addIntColumn("lots").addDoubleColumn("price").addDecimalColumn("notional")
+            .addRow("rates", "A", "Alice", 10L, 1, 100.5, BigDecimal.valueOf(1005, 1))
+            .addRow("credit", "B", "Bob", 7L, 2, 99.25, BigDecimal.valueOf(69475, 2))
+            .addRow("rates", "A", "Alice", 3L, 3, 101.0, BigDecimal.valueOf(303))
+            .addRow("rates", "C", "Carl", 12L, 4, 98.75, BigDecimal.valueOf(1185))
+            .addRow("credit", "B", "Bob", 5L, 5, 100.0, BigDecimal.valueOf(500))
+            .addRow("fx", "D", "Diane", 1L, 6, 1.1, BigDecimal.valueOf(11, 1))
+            .addRow("rates", "A", "Alice", 8L, 7, 100.25, BigDecimal.valueOf(802))
+            .seal();
+
+    @Test
+    public void aggregateByRowsInBatches()
+    {
+        JsonDataSet writer = new JsonDataSet("json").schemaIncluded(true);
+        byte[] json = writer.toJsonString(this.dataFrame).getBytes(StandardCharsets.UTF_8);
+
+        ListIterable<AggregateFunction> aggregators = Lists.immutable.of(
+                sum("quantity", "totalQuantity"), min("price", "low"), max("price", "high"), count("quantity", "trades"),
+                avg("quantity", "avgQuantity"), avg("lots", "avgLots"), avg("price", "avgPrice"), avg("notional", "avgNotional"),
+                avg2d("quantity", "avg2dQuantity"), same("trader"), sum("notional", "totalNotional"));
+
+        ListIterable<String> groupBy = Lists.immutable.of("desk", "book");
+
+        DataFrame expected = this.dataFrame.aggregateBy(aggregators, groupBy);
+
+        for (int batchSize : new int[] {1, 2, 3, 1000})
+        {
+            DataFrame aggregated = new JsonDataSet("json")
+                    .batchSize(batchSize)
+                    .aggregateJson(new ByteArrayInputStream(json), aggregators, groupBy);
+
+            assertEquals(expected.getName(), aggregated.getName());
+            DataFrameTestUtil.assertEquals(expected, aggregated);
+        }
+    }
+
+    @Test
+    public void aggregateManyGroupsInBatches()
+    {
+        DataFrame positions = new DataFrame("positions")
+                .addStringColumn("account").addLongColumn("bucket").addLongColumn("quantity").addDoubleColumn("price");
+
+        for (int i = 0; i < 2_000; i++)
+        {
+            positions.addRow("acct" + (i * 7 % 311), (long) (i % 3), i % 13 == 0 ? null : (long) i, i * 0.5);
+        }
+        positions.seal();
+
+        byte[] json = new JsonDataSet("json").schemaIncluded(true).toJsonString(positions).getBytes(StandardCharsets.UTF_8);
+
+        ListIterable<AggregateFunction> aggregators = Lists.immutable.of(
+                sum("quantity", "total"), count("quantity", "count"), min("price", "low"), max("price", "high"),
+                avg("price", "avgPrice"));
+        ListIterable<String> groupBy = Lists.immutable.of("account", "bucket");
+
+        DataFrame expected = positions.aggregateBy(aggregators, groupBy);
+
+        for (int batchSize : new int[] {7, 64, 5_000})
+        {
+            DataFrame aggregated = new JsonDataSet("json")
+                    .batchSize(batchSize)
+                    .aggregateJson(new ByteArrayInputStream(json), aggregators, groupBy);
+
+            DataFrameTestUtil.assertEquals(expected, aggregated);
+        }
+    }
+
+    @Test
+    public void aggregateByColumns()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").dataByRows(false).schemaIncluded(true).omitNulls(true);
+
+        DataFrame withNulls = new DataFrame("sparse")
+                .addStringColumn("key").addLongColumn("value").addDoubleColumn("ignored")
+                .addRow("a", 1L, 1.0)
+                .addRow("b", null, null)
+                .addRow("a", 5L, null)
+                .addRow(null, 2L, 3.0)
+                .seal();
+
+        byte[] json = dataSet.toJsonString(withNulls).getBytes(StandardCharsets.UTF_8);
+
+        ListIterable<AggregateFunction> aggregators = Lists.immutable.of(sum("value"), count("value", "count"));
+        ListIterable<String> groupBy = Lists.immutable.of("key");
+
+        DataFrameTestUtil.assertEquals(
+                withNulls.aggregateBy(aggregators, groupBy),
+                dataSet.aggregateJson(new ByteArrayInputStream(json), aggregators, groupBy));
+    }
+
+    @Test
+    public void aggregateEmpty()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").schemaIncluded(true).batchSize(2);
+
+        DataFrame empty = new DataFrame("empty").addStringColumn("key").addLongColumn("value").seal();
+        byte[] json = dataSet.toJsonString(empty).getBytes(StandardCharsets.UTF_8);
+
+        DataFrame aggregated = dataSet.aggregateJson(
+                new ByteArrayInputStream(json), Lists.immutable.of(avg("value")), Lists.immutable.of("key"));
+
+        assertEquals(0, aggregated.rowCount());
+        assertEquals(2, aggregated.columnCount());
+    }
+}
@@ -0,0 +1,178 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchema;
+import io.github.vmzakharov.ecdataframe.dsl.value.ValueType;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.impl.factory.Lists;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonAppenderTest
+{
+    private final DataFrame firstBatch = new DataFrame("batch")
+            .addStringColumn("name").addLongColumn("quantity").addDoubleColumn("price")
+            .addRow("Alice", 10L, 100.5)
+            .addRow("Bob", 7L, 99.25)
+            .seal();
+
+    private final DataFrame secondBatch = new DataFrame("batch")
+            .addStringColumn("name").addLongColumn("quantity").addDoubleColumn("price")
+            .addRow("Carl", 12L, 98.75)
+            .seal();
+
+    private final DataFrame thirdBatch = new DataFrame("batch")
+            .addStringColumn("name").addLongColumn("quantity").addDoubleColumn("price")
+            .addRow("Diane", 1L, 1.1)
+            .addRow(null, 8L, 100.25)
+            .seal();
+
+    private final DataFrame expected = new DataFrame("trades")
+            .addStringColumn("name").addLongColumn("quantity").addDoubleColumn("price")
+            .addRow("Alice", 10L, 100.5)
+            .addRow("Bob", 7L, 99.25)
+            .addRow("Carl", 12L, 98.75)
+            .addRow("Diane", 1L, 1.1)
+            .addRow(null, 8L, 100.25)
+            .seal();
+
+    private DataFrame emptyTrades()
+    {
+        return new DataFrame("trades").addStringColumn("name").addLongColumn("quantity").addDoubleColumn("price");
+    }
+
+    @Test
+    public void appendBatchesWithIncludedSchema()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").schemaIncluded(true);
+
+        DataFrame trades = this.emptyTrades();
+        JsonAppender appender = dataSet.appendTo(trades)
+                .append(dataSet.toJsonString(this.firstBatch))
+                .append(dataSet.toJsonBytes(this.secondBatch))
+                .append(new ByteArrayInputStream(dataSet.toJsonString(this.thirdBatch).getBytes(StandardCharsets.UTF_8)));
+
+        DataFrame appended = appender.seal();
+
+        assertSame(trades, appended);
+        assertEquals("trades", appended.getName());
+        DataFrameTestUtil.assertEquals(this.expected, appended);
+    }
+
+    @Test
+    public void appendBatchesByColumnsWithDataSetSchema()
+    {
+        CsvSchema schema = new CsvSchema()
+                .addColumn("name", ValueType.STRING)
+                .addColumn("quantity", ValueType.LONG)
+                .addColumn("price", ValueType.DOUBLE);
+
+        JsonDataSet dataSet = new JsonDataSet("json", schema).dataByRows(false).compactNumbers(true);
+
+        JsonAppender appender = dataSet.appendTo(this.emptyTrades());
+        appender
+                .append(dataSet.toJsonString(this.firstBatch))
+                .append(dataSet.toJsonString(this.secondBatch))
+                .append(dataSet.toJsonString(this.thirdBatch));
+
+        DataFrameTestUtil.assertEquals(this.expected, appender.seal());
+    }
+
+    @Test
+    public void appendToSealedDataFrameWithComputedColumn()
+    {
+        DataFrame trades = new DataFrame("trades")
+                .addStringColumn("name").addLongColumn("quantity").addDoubleColumn("price")
+                .addRow("Alice", 10L, 100.5)
+                .addRow("Bob", 7L, 99.25)
+                .addColumn("value", ValueType.DOUBLE, "quantity * price")
+                .seal();
+
+        JsonDataSet dataSet = new JsonDataSet("json").dataOnly(true);
+
+        JsonAppender appender = dataSet.appendTo(trades)
+                .append(dataSet.toJsonString(this.secondBatch));
+
+        assertEquals(2, trades.rowCount());
+
+        appender.seal();
+
+        assertEquals(3, trades.rowCount());
+        assertEquals(12L * 98.75, trades.getDouble("value", 2), 0.0);
+
+        appender.append(dataSet.toJsonString(this.thirdBatch)).seal();
+
+        DataFrameTestUtil.assertEquals(
+                this.expected.copy("trades").addColumn("value", ValueType.DOUBLE, "quantity * price").seal(),
+                trades);
+    }
+
+    @Test
+    public void malformedBatchLeavesDataFrameUnchanged()
+    {
+        DataFrame trades = new DataFrame("trades")
+                .addStringColumn("name").addLongColumn("quantity").addDoubleColumn("price")
+                .addRow("Alice", 10L, 100.5)
+                .addColumn("value", ValueType.DOUBLE, "quantity * price")
+                .seal();
+
+        JsonDataSet dataSet = new JsonDataSet("json").dataOnly(true);
+
+        JsonAppender appender = dataSet.appendTo(trades).append(dataSet.toJsonString(this.secondBatch));
+
+        String malformed = "[{\"name\":\"Diane\",\"quantity\":1,\"price\":\"x\"}]";
+        assertThrows(RuntimeException.class, () -> appender.append(malformed));
+
+        assertThrows(RuntimeException.class, () -> appender.append("[{\"name\":\"Diane\",\"quantity\":1,"));
+
+        appender.append(dataSet.toJsonString(this.thirdBatch)).seal();
+
+        DataFrame expectedTrades = new DataFrame("trades")
+                .addStringColumn("name").addLongColumn("quantity").addDoubleColumn("price")
+                .addRow("Alice", 10L, 100.5)
+                .addRow("Carl", 12L, 98.75)
+                .addRow("Diane", 1L, 1.1)
+                .addRow(null, 8L, 100.25)
+                .addColumn("value", ValueType.DOUBLE, "quantity * price")
+                .seal();
+
+        DataFrameTestUtil.assertEquals(expectedTrades, trades);
+        assertEquals(1.1, trades.getDouble("value", 2), 0.0);
+    }
+
+    @Test
+    public void appendMetricsCoverBatchRowsOnly()
+    {
+        JsonDataSet writingDataSet = new JsonDataSet("json").schemaIncluded(true);
+
+        MutableList<JsonOperationMetrics> batches = Lists.mutable.empty();
+        JsonDataSet dataSet = new JsonDataSet("json").schemaIncluded(true).metricsNullCount(true).metricsListener(batches::add);
+
+        dataSet.appendTo(this.emptyTrades())
+                .append(writingDataSet.toJsonString(this.firstBatch))
+                .append(writingDataSet.toJsonString(this.thirdBatch));
+
+        assertEquals(2, batches.size());
+        assertEquals(2, batches.get(1).getRowCount());
+        assertEquals(1L, batches.get(1).getNullCount());
+    }
+
+    @Test
+    public void schemaMismatchIsRejected()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").schemaIncluded(true);
+
+        DataFrame names = new DataFrame("names").addStringColumn("name").addLongColumn("quantity").addLongColumn("price");
+
+        JsonAppender appender = dataSet.appendTo(names);
+        String batch = dataSet.toJsonString(this.firstBatch);
+
+        assertThrows(RuntimeException.class, () -> appender.append(batch));
+    }
+}
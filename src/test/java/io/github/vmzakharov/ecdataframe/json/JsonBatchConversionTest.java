@@ -0,0 +1,140 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.impl.factory.Lists;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonBatchConversionTest
+{
+    private MutableList<DataFrame> documents(int count)
+    {
+        MutableList<DataFrame> documents = Lists.mutable.withInitialCapacity(count);
+
+        for (int i = 0; i < count; i++)
+        {
+            DataFrame document = i % 3 == 0
+                    ? new DataFrame("order" + i).addStringColumn("id").addLongColumn("quantity").addDateColumn("date")
+                    : new DataFrame("quote" + i).addStringColumn("symbol").addDoubleColumn("price");
+
+            for (int row = 0; row < i % 4; row++)
+            {
+                if (i % 3 == 0)
+                {
+                    document.addRow("o" + i + "-" + row, (long) i * row, row == 1 ? null : LocalDate.of(2024, 1 + row, 1 + i % 28));
+                }
+                else
+                {
+                    document.addRow(row == 2 ? null : "S" + row, i + row / 4.0);
+                }
+            }
+
+            documents.add(document.seal());
+        }
+
+        return documents;
+    }
+
+    @Test
+    public void documentsRoundTripConcurrently()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").schemaIncluded(true).temporalEncoding(TemporalEncoding.EPOCH_MILLIS);
+
+        MutableList<DataFrame> documents = this.documents(500);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            MutableList<String> jsonStrings = dataSet.toJsonStrings(documents, executor);
+
+            assertEquals(documents.size(), jsonStrings.size());
+            assertEquals(dataSet.toJsonString(documents.get(7)), jsonStrings.get(7));
+
+            MutableList<DataFrame> read = dataSet.fromJsonStrings(jsonStrings, executor);
+
+            assertEquals(documents.size(), read.size());
+            for (int i = 0; i < documents.size(); i++)
+            {
+                assertEquals(documents.get(i).getName(), read.get(i).getName());
+                DataFrameTestUtil.assertEquals(documents.get(i), read.get(i));
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        assertNull(dataSet.getSchema());
+    }
+
+    @Test
+    public void metricsSummaryReportsLatencyAndAllocation()
+    {
+        JsonMetricsSummary summary = new JsonMetricsSummary();
+        JsonDataSet dataSet = new JsonDataSet("json").schemaIncluded(true).metricsListener(summary);
+
+        MutableList<DataFrame> documents = this.documents(1_000);
+
+        dataSet.fromJsonStrings(dataSet.toJsonStrings(documents));
+
+        assertEquals(1_000, summary.getOperationCount(JsonOperationMetrics.Operation.WRITE));
+        assertEquals(1_000, summary.getOperationCount(JsonOperationMetrics.Operation.READ));
+
+        long median = summary.getLatencyNanos(JsonOperationMetrics.Operation.READ, 50.0);
+        long tail = summary.getLatencyNanos(JsonOperationMetrics.Operation.READ, 99.0);
+
+        assertTrue(median > 0L);
+        assertTrue(median <= tail);
+        assertTrue(tail <= summary.getLatencyNanos(JsonOperationMetrics.Operation.READ, 100.0));
+        assertTrue(summary.getAllocatedBytesPerOperation(JsonOperationMetrics.Operation.READ) != 0L);
+
+        summary.reset();
+        assertEquals(0, summary.getOperationCount(JsonOperationMetrics.Operation.READ));
+        assertEquals(0L, summary.getLatencyNanos(JsonOperationMetrics.Operation.READ, 99.0));
+    }
+
+    @Test
+    public void metricsSummaryLatencyIsWithinHistogramPrecision()
+    {
+        JsonMetricsSummary summary = new JsonMetricsSummary();
+
+        for (long nanos = 1L; nanos <= 10_000L; nanos++)
+        {
+            summary.operationCompleted(new JsonOperationMetrics(
+                    JsonOperationMetrics.Operation.WRITE, "json", "df", 0L, 0, 0, 0L, 0L, nanos, 0L, nanos, -1L));
+        }
+
+        assertEquals(10_000, summary.getOperationCount(JsonOperationMetrics.Operation.WRITE));
+        this.assertLatency(5_000L, summary.getLatencyNanos(JsonOperationMetrics.Operation.WRITE, 50.0));
+        this.assertLatency(9_900L, summary.getLatencyNanos(JsonOperationMetrics.Operation.WRITE, 99.0));
+        this.assertLatency(10_000L, summary.getLatencyNanos(JsonOperationMetrics.Operation.WRITE, 100.0));
+        assertEquals(1L, summary.getLatencyNanos(JsonOperationMetrics.Operation.WRITE, 0.01));
+        assertEquals(-1L, summary.getAllocatedBytesPerOperation(JsonOperationMetrics.Operation.WRITE));
+    }
+
+    private void assertLatency(long exact, long reported)
+    {
+        assertTrue(reported >= exact && reported <= exact + exact / 16, "Expected about " + exact + ", got " + reported);
+    }
+
+    @Test
+    public void failureOfOneDocumentFailsBatch()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").schemaIncluded(true);
+
+        MutableList<String> jsonStrings = dataSet.toJsonStrings(this.documents(10));
+        jsonStrings.set(5, "{\"name\":\"broken\",\"data\":[");
+
+        assertThrows(RuntimeException.class, () -> dataSet.fromJsonStrings(jsonStrings));
+        assertTrue(dataSet.fromJsonStrings(Lists.mutable.empty()).isEmpty());
+    }
+}
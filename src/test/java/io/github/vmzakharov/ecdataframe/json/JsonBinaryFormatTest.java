@@ -0,0 +1,134 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonBinaryFormatTest
+{
+    private final DataFrame dataFrame = this.createDataFrame();
+
+    private DataFrame createDataFrame()
+    {
+        DataFrame newDataFrame = new DataFrame("binary")
+                .addStringColumn("aString").addLongColumn("aLong").addDoubleColumn("aDouble").addIntColumn("anInt")
+                .addFloatColumn("aFloat").addDateColumn("aDate").addDateTimeColumn("aDateTime").addDecimalColumn("aDecimal")
+                .addBooleanColumn("aBoolean");
+
+        for (int i = 0; i < 200; i++)
+        {
+            newDataFrame.addRow(
+                    i % 9 == 0 ? null : "value " + i % 13,
+                    i % 7 == 0 ? null : 1_000_000L * i,
+                    i * 1.25,
+                    i,
+                    i % 5 == 0 ? null : i * 0.5f,
+                    LocalDate.of(2024, 1, 1).plusDays(i),
+                    i % 11 == 0 ? null : LocalDateTime.of(2024, 1, 1, 10, 30).plusMinutes(i),
+                    BigDecimal.valueOf(i * 101L, 2),
+                    i % 2 == 0);
+        }
+
+        return newDataFrame.seal();
+    }
+
+    @Test
+    public void smileRoundTrip()
+    {
+        this.assertRoundTrips(new SmileFactory());
+    }
+
+    @Test
+    public void cborRoundTrip()
+    {
+        this.assertRoundTrips(new CBORFactory());
+    }
+
+    @Test
+    public void binaryIsSmallerThanText()
+    {
+        JsonDataSet text = new JsonDataSet("json").schemaIncluded(true);
+        JsonDataSet smile = new JsonDataSet("json").schemaIncluded(true).jsonFactory(new SmileFactory());
+
+        assertTrue(smile.toJsonBytes(this.dataFrame).length < text.toJsonBytes(this.dataFrame).length);
+    }
+
+    @Test
+    public void textOnlyFeaturesAreUnavailable()
+    throws IOException
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").schemaIncluded(true).jsonFactory(new SmileFactory());
+
+        assertFalse(dataSet.textFormat());
+        assertEquals("Smile", dataSet.jsonFactory().getFormatName());
+
+        assertThrows(UnsupportedOperationException.class, () -> dataSet.toJsonString(this.dataFrame));
+        assertThrows(UnsupportedOperationException.class, () -> dataSet.fromJsonString("{}"));
+        assertThrows(
+                UnsupportedOperationException.class,
+                () -> dataSet.dataByRows(false).readLazy(dataSet.toJsonBytes(this.dataFrame)));
+
+        Path directory = Files.createTempDirectory("json-binary");
+        Path file = directory.resolve("data.sml");
+        try
+        {
+            dataSet.dataByRows(true).indexInterval(10).parallelism(3).writeJson(this.dataFrame, file);
+
+            assertFalse(Files.exists(JsonIndex.sidecarPath(file)));
+            DataFrameTestUtil.assertEquals(this.dataFrame, dataSet.readJson(file));
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    public void factoryDoesNotCloseStreams()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").schemaIncluded(true).jsonFactory(new JsonFactory());
+
+        assertTrue(dataSet.textFormat());
+
+        byte[] json = dataSet.toJsonBytes(this.dataFrame);
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(json);
+
+        DataFrameTestUtil.assertEquals(this.dataFrame, dataSet.readJson(inputStream));
+    }
+
+    private void assertRoundTrips(JsonFactory factory)
+    {
+        for (TemporalEncoding encoding : TemporalEncoding.values())
+        {
+            this.assertRoundTrips(new JsonDataSet("json").jsonFactory(factory).schemaIncluded(true).temporalEncoding(encoding));
+            this.assertRoundTrips(new JsonDataSet("json").jsonFactory(factory).schemaIncluded(true).temporalEncoding(encoding)
+                    .dataByRows(false).omitNulls(true));
+        }
+
+        this.assertRoundTrips(new JsonDataSet("json").jsonFactory(factory).schemaIncluded(true).fastNumberWriting(true).parallelism(4));
+    }
+
+    private void assertRoundTrips(JsonDataSet dataSet)
+    {
+        byte[] encoded = dataSet.toJsonBytes(this.dataFrame);
+
+        DataFrameTestUtil.assertEquals(this.dataFrame, dataSet.fromJsonBytes(encoded));
+        DataFrameTestUtil.assertEquals(this.dataFrame, dataSet.readJson(new ByteArrayInputStream(encoded)));
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.dsl.value.ValueType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonComputedColumnTest
+{
+    private final DataFrame dataFrame = new DataFrame("trades")
+            .addStringColumn("name").addLongColumn("quantity")
+            .addDoubleColumn("price")
+            .addRow("Alice", 10L, 100.5)
+            .addRow("Bob", 7L, 99.25)
+            .addRow("Carl", 12L, 98.75)
+            .addColumn("value", ValueType.DOUBLE, "quantity * price")
+            .addColumn("doubled", ValueType.LONG, "quantity * 2")
+            .seal();
+
+    @Test
+    public void computedColumnsAreWrittenAsExpressions()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").schemaIncluded(true).computedColumnsAsExpressions(true);
+
+        String json = dataSet.toJsonString(this.dataFrame);
+
+        assertTrue(json.contains("\"Expression\":\"quantity * price\""));
+        assertFalse(json.contains("\"value\":"));
+        assertFalse(json.contains("\"doubled\":"));
+
+        DataFrame read = dataSet.fromJsonString(json);
+
+        assertFalse(read.getColumnNamed("value").isStored());
+        assertFalse(read.getColumnNamed("doubled").isStored());
+        DataFrameTestUtil.assertEquals(this.dataFrame, read);
+    }
+
+    @Test
+    public void computedColumnsAreRecreatedFromColumnsInParallel()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json")
+                .schemaIncluded(true)
+                .dataByRows(false)
+                .parallelism(3)
+                .computedColumnsAsExpressions(true);
+
+        String json = dataSet.toJsonString(this.dataFrame);
+
+        assertFalse(json.contains("\"column\":\"value\""));
+
+        DataFrame read = dataSet.fromJsonString(json);
+
+        assertEquals(12L * 98.75, read.getDouble("value", 2), 0.0);
+        DataFrameTestUtil.assertEquals(this.dataFrame, read);
+    }
+
+    @Test
+    public void computedColumnsAreRecreatedFromFileWithParallelism()
+    throws IOException
+    {
+        Path directory = Files.createTempDirectory("computed");
+        Path file = directory.resolve("trades.json");
+        try
+        {
+            this.assertReadFromFile(file, new JsonDataSet("json").schemaIncluded(true).computedColumnsAsExpressions(true));
+
+            this.assertReadFromFile(
+                    file, new JsonDataSet("json").schemaIncluded(true).computedColumnsAsExpressions(true).indexInterval(1));
+        }
+        finally
+        {
+            Files.deleteIfExists(JsonIndex.sidecarPath(file));
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private void assertReadFromFile(Path file, JsonDataSet dataSet)
+    {
+        dataSet.writeJson(this.dataFrame, file);
+
+        DataFrame read = dataSet.parallelism(4).readJson(file);
+
+        assertFalse(read.getColumnNamed("value").isStored());
+        DataFrameTestUtil.assertEquals(this.dataFrame, read);
+    }
+
+    @Test
+    public void computedColumnsAreDroppedUnlessRecreated()
+    {
+        String json = new JsonDataSet("json").schemaIncluded(true).computedColumnsAsExpressions(true).toJsonString(this.dataFrame);
+
+        DataFrame read = new JsonDataSet("json").schemaIncluded(true).fromJsonString(json);
+
+        assertEquals(3, read.columnCount());
+        assertFalse(read.hasColumn("value"));
+    }
+}
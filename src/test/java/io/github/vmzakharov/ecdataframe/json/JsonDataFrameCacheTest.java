@@ -0,0 +1,257 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchema;
+import io.github.vmzakharov.ecdataframe.dsl.value.ValueType;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.impl.factory.Lists;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class JsonDataFrameCacheTest
+{
+    private final JsonDataSet dataSet = new JsonDataSet("json").schemaIncluded(true);
+
+    private Path directory;
+    private Path firstFile;
+    private Path secondFile;
+
+    private final DataFrame first = new DataFrame("first")
+            .addStringColumn("name").addLongColumn("quantity")
+            .addRow("Alice", 10L)
+            .addRow("Bob", 7L)
+            .seal();
+
+    private final DataFrame second = new DataFrame("second")
+            .addStringColumn("name").addDoubleColumn("price")
+            .addRow("Carl", 98.75)
+            .seal();
+
+    @BeforeEach
+    public void setUp()
+    throws IOException
+    {
+        this.directory = Files.createTempDirectory("json-cache");
+        this.firstFile = this.directory.resolve("first.json");
+        this.secondFile = this.directory.resolve("second.json");
+
+        this.dataSet.writeJson(this.first, this.firstFile);
+        this.dataSet.writeJson(this.second, this.secondFile);
+    }
+
+    @AfterEach
+    public void tearDown()
+    throws IOException
+    {
+        Files.deleteIfExists(this.firstFile);
+        Files.deleteIfExists(this.secondFile);
+        Files.deleteIfExists(this.directory);
+    }
+
+    @Test
+    public void repeatedLoadIsServedFromCache()
+    {
+        JsonDataFrameCache cache = new JsonDataFrameCache(1_000_000L);
+
+        DataFrame loaded = cache.load(this.dataSet, this.firstFile);
+        DataFrameTestUtil.assertEquals(this.first, loaded);
+
+        assertSame(loaded, cache.load(this.dataSet, this.firstFile));
+        assertSame(loaded, cache.load(new JsonDataSet("json").schemaIncluded(true), this.firstFile));
+
+        JsonDataFrameCache.Statistics statistics = cache.statistics();
+        assertEquals(2L, statistics.getHitCount());
+        assertEquals(1L, statistics.getMissCount());
+        assertEquals(1L, statistics.getLoadCount());
+        assertEquals(1, statistics.getEntryCount());
+        assertEquals(JsonLoadEstimate.ofDataFrame(loaded).getHeapSize(), statistics.getHeapSize());
+    }
+
+    @Test
+    public void modifiedFileIsReadAgain()
+    throws IOException
+    {
+        JsonDataFrameCache cache = new JsonDataFrameCache(1_000_000L);
+
+        DataFrame loaded = cache.load(this.dataSet, this.firstFile);
+
+        FileTime modified = Files.getLastModifiedTime(this.firstFile);
+        this.dataSet.writeJson(this.second, this.firstFile);
+        Files.setLastModifiedTime(this.firstFile, FileTime.fromMillis(modified.toMillis() + 1_000L));
+
+        DataFrame reloaded = cache.load(this.dataSet, this.firstFile);
+
+        assertNotSame(loaded, reloaded);
+        DataFrameTestUtil.assertEquals(this.second, reloaded);
+        assertEquals(2L, cache.statistics().getLoadCount());
+        assertEquals(1, cache.statistics().getEntryCount());
+    }
+
+    @Test
+    public void dataSetConfigurationIsPartOfKey()
+    {
+        JsonDataFrameCache cache = new JsonDataFrameCache(1_000_000L);
+
+        DataFrame loaded = cache.load(this.dataSet, this.firstFile);
+        DataFrame withEpochDates = cache.load(
+                new JsonDataSet("json").schemaIncluded(true).temporalEncoding(TemporalEncoding.EPOCH_MILLIS), this.firstFile);
+
+        assertNotSame(loaded, withEpochDates);
+        DataFrameTestUtil.assertEquals(loaded, withEpochDates);
+        assertEquals(2L, cache.statistics().getLoadCount());
+        assertEquals(2, cache.statistics().getEntryCount());
+    }
+
+    @Test
+    public void schemaPatternIsPartOfKey()
+    throws IOException
+    {
+        Path datesFile = this.directory.resolve("dates.json");
+        Files.writeString(datesFile, "[{\"date\":\"02/01/2024\"}]");
+
+        try
+        {
+            JsonDataFrameCache cache = new JsonDataFrameCache(1_000_000L);
+
+            DataFrame dayFirst = cache.load(
+                    new JsonDataSet("json", new CsvSchema().addColumn("date", ValueType.DATE, "dd/MM/uuuu")).dataOnly(true),
+                    datesFile);
+            DataFrame monthFirst = cache.load(
+                    new JsonDataSet("json", new CsvSchema().addColumn("date", ValueType.DATE, "MM/dd/uuuu")).dataOnly(true),
+                    datesFile);
+
+            assertEquals(LocalDate.of(2024, 1, 2), dayFirst.getDate("date", 0));
+            assertEquals(LocalDate.of(2024, 2, 1), monthFirst.getDate("date", 0));
+            assertEquals(2L, cache.statistics().getLoadCount());
+        }
+        finally
+        {
+            Files.deleteIfExists(datesFile);
+        }
+    }
+
+    @Test
+    public void dataSetSchemaIsPartOfKeyWhenSchemaIsIncluded()
+    throws IOException
+    {
+        Path valuesFile = this.directory.resolve("values.json");
+        Files.writeString(valuesFile, "[{\"a\":1,\"b\":2}]");
+
+        try
+        {
+            JsonDataFrameCache cache = new JsonDataFrameCache(1_000_000L);
+
+            JsonDataSet readingA = new JsonDataSet("json", new CsvSchema().addColumn("a", ValueType.LONG))
+                    .dataOnly(true).schemaIncluded(true);
+            JsonDataSet readingB = new JsonDataSet("json", new CsvSchema().addColumn("b", ValueType.LONG))
+                    .dataOnly(true).schemaIncluded(true);
+
+            DataFrame loadedA = cache.load(readingA, valuesFile);
+            DataFrame loadedB = cache.load(readingB, valuesFile);
+
+            assertEquals(1L, loadedA.getLong("a", 0));
+            assertEquals(2L, loadedB.getLong("b", 0));
+            DataFrameTestUtil.assertEquals(readingB.readJson(valuesFile), loadedB);
+            assertEquals(2L, cache.statistics().getLoadCount());
+        }
+        finally
+        {
+            Files.deleteIfExists(valuesFile);
+        }
+    }
+
+    @Test
+    public void loadDoesNotChangeDataSetSchema()
+    {
+        JsonDataFrameCache cache = new JsonDataFrameCache(1_000_000L);
+
+        CsvSchema schema = new CsvSchema().addColumn("q", ValueType.LONG);
+        JsonDataSet withSchema = new JsonDataSet("json", schema);
+
+        DataFrame loaded = cache.load(withSchema, this.firstFile);
+
+        assertSame(schema, withSchema.getSchema());
+        DataFrameTestUtil.assertEquals(this.first, loaded);
+
+        assertSame(loaded, cache.load(withSchema, this.firstFile));
+        assertSame(loaded, cache.load(withSchema, this.firstFile));
+
+        JsonDataFrameCache.Statistics statistics = cache.statistics();
+        assertEquals(1L, statistics.getLoadCount());
+        assertEquals(1L, statistics.getMissCount());
+        assertEquals(2L, statistics.getHitCount());
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvicted()
+    {
+        long firstSize = JsonLoadEstimate.ofDataFrame(this.first).getHeapSize();
+        long secondSize = JsonLoadEstimate.ofDataFrame(this.second).getHeapSize();
+
+        JsonDataFrameCache cache = new JsonDataFrameCache(Math.max(firstSize, secondSize) + 1L);
+
+        cache.load(this.dataSet, this.firstFile);
+        cache.load(this.dataSet, this.secondFile);
+
+        assertEquals(Lists.immutable.of(this.secondFile.toAbsolutePath().normalize()), cache.cachedPaths());
+        assertEquals(1L, cache.statistics().getEvictionCount());
+
+        JsonDataFrameCache tooSmall = new JsonDataFrameCache(1L);
+        DataFrameTestUtil.assertEquals(this.first, tooSmall.load(this.dataSet, this.firstFile));
+        assertEquals(0, tooSmall.statistics().getEntryCount());
+    }
+
+    @Test
+    public void concurrentLoadsReadFileOnce()
+    throws Exception
+    {
+        JsonDataFrameCache cache = new JsonDataFrameCache(1_000_000L);
+
+        int threadCount = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try
+        {
+            MutableList<Future<DataFrame>> loads = Lists.mutable.withInitialCapacity(threadCount);
+            for (int i = 0; i < threadCount; i++)
+            {
+                loads.add(executor.submit(() -> {
+                    start.await();
+                    return cache.load(this.dataSet, this.firstFile);
+                }));
+            }
+
+            start.countDown();
+
+            DataFrame loaded = loads.get(0).get();
+            for (Future<DataFrame> load : loads)
+            {
+                assertSame(loaded, load.get());
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        JsonDataFrameCache.Statistics statistics = cache.statistics();
+        assertEquals(1L, statistics.getLoadCount());
+        assertEquals(threadCount, statistics.getHitCount() + statistics.getMissCount());
+    }
+}
@@ -107,4 +107,93 @@ public class JsonDataSetNullHandlingTest
 
         DataFrameTestUtil.assertEquals(this.dataFrame, dataFrameRead);
     }
+
+    @Test
+    public void readWriteByRowsOmittingNulls()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json", this.schema())
+                .dataByRows(true)
+                .dataOnly(true)
+                .omitNulls(true);
+
+        String jsonString = dataSet.toJsonString(this.dataFrame);
+
+        Assertions.assertEquals("""
+                        [\
+                        {"aString":"Alice","aLong":10,"aDouble":123.45,"aFloat":12.34,"aDate":"2024-11-12","aDateTime":"2024-11-12T20:38:45","aBoolean":true},\
+                        {"aString":"Bob","aDouble":222.33,"anInt":15,"aDate":"2024-09-22","aDecimal":1.23,"aBoolean":false},\
+                        {"aLong":12,"anInt":16,"aFloat":55.34,"aDateTime":"2024-10-25T20:38:45","aDecimal":45.6}\
+                        ]"""
+                , jsonString);
+
+        DataFrameTestUtil.assertEquals(this.dataFrame, dataSet.fromJsonString(jsonString));
+    }
+
+    @Test
+    public void missingFieldsAreReadAsNulls()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json", this.schema())
+                .dataByRows(true)
+                .dataOnly(true);
+
+        DataFrame dataFrameRead = dataSet.fromJsonString("[{\"aString\":\"Alice\"},{},{\"aLong\":12}]");
+
+        Assertions.assertEquals(3, dataFrameRead.rowCount());
+        Assertions.assertEquals("Alice", dataFrameRead.getString("aString", 0));
+        Assertions.assertTrue(dataFrameRead.getColumnNamed("aString").isNull(1));
+        Assertions.assertTrue(dataFrameRead.getColumnNamed("aLong").isNull(0));
+        Assertions.assertEquals(12L, dataFrameRead.getLong("aLong", 2));
+        Assertions.assertTrue(dataFrameRead.getColumnNamed("aBoolean").isNull(2));
+    }
+
+    @Test
+    public void readWriteByColsWithNullRuns()
+    {
+        DataFrame sparseDataFrame = new DataFrame("sparse")
+                .addLongColumn("aLong").addStringColumn("aString")
+                .addRow(null, "a")
+                .addRow(null, "b")
+                .addRow(1L, null)
+                .addRow(null, null)
+                .addRow(2L, null)
+                .addRow(null, "c")
+                .addRow(null, null);
+
+        JsonDataSet dataSet = new JsonDataSet("json", new CsvSchema().addColumn("aLong", ValueType.LONG).addColumn("aString", ValueType.STRING))
+                .dataByRows(false)
+                .dataOnly(true)
+                .omitNulls(true);
+
+        String jsonString = dataSet.toJsonString(sparseDataFrame);
+
+        Assertions.assertEquals("""
+                [\
+                {"column":"aLong","nullRuns":[0,2,3,1,5,2],"values":[1,2]},\
+                {"column":"aString","nullRuns":[2,3,6,1],"values":["a","b","c"]}\
+                ]"""
+                , jsonString);
+
+        DataFrameTestUtil.assertEquals(sparseDataFrame, dataSet.fromJsonString(jsonString));
+
+        JsonDataSet allTypesDataSet = new JsonDataSet("json", this.schema())
+                .dataByRows(false)
+                .dataOnly(true)
+                .omitNulls(true);
+
+        DataFrameTestUtil.assertEquals(this.dataFrame, allTypesDataSet.fromJsonString(allTypesDataSet.toJsonString(this.dataFrame)));
+    }
+
+    private CsvSchema schema()
+    {
+        return new CsvSchema()
+                .addColumn("aString", ValueType.STRING)
+                .addColumn("aLong", ValueType.LONG)
+                .addColumn("aDouble", ValueType.DOUBLE)
+                .addColumn("anInt", ValueType.INT)
+                .addColumn("aFloat", ValueType.FLOAT)
+                .addColumn("aDate", ValueType.DATE)
+                .addColumn("aDateTime", ValueType.DATE_TIME)
+                .addColumn("aDecimal", ValueType.DECIMAL)
+                .addColumn("aBoolean", ValueType.BOOLEAN);
+    }
 }
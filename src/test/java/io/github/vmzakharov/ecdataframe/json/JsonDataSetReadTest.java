@@ -4,6 +4,9 @@ import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
 import io.github.vmzakharov.ecdataframe.dataset.CsvSchema;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
 import static io.github.vmzakharov.ecdataframe.dsl.value.ValueType.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -40,6 +43,33 @@ public class JsonDataSetReadTest
                 dataFrame);
     }
 
+    @Test
+    public void readFromInputStream()
+    {
+        CsvSchema schema = new CsvSchema()
+                .addColumn("foo", STRING)
+                .addColumn("bar", INT)
+                ;
+
+        String jsonString = """
+                {"name":"from stream","ignored":{"a":[1,2]},"data":\
+                [{"bar":10,"foo":"Alice","extra":[1]},\
+                {"foo":"Bob","bar":null}]}""";
+
+        JsonDataSet dataSet = new JsonDataSet("data set", schema);
+
+        DataFrame dataFrame = dataSet.readJson(new ByteArrayInputStream(jsonString.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("from stream", dataFrame.getName());
+
+        DataFrameTestUtil.assertEquals(new DataFrame("expected")
+                .addStringColumn("foo").addIntColumn("bar")
+                .addRow("Alice", 10)
+                .addRow("Bob", null)
+                ,
+                dataFrame);
+    }
+
     @Test
     public void byColumnsDataOnly()
     {
@@ -104,4 +104,75 @@ public class JsonDataSetTypeSupportTest
 
         DataFrameTestUtil.assertEquals(this.dataFrame, dataFrameRead);
     }
+
+    @Test
+    public void epochEncodingWithSchema()
+    {
+        DataFrame temporalDataFrame = new DataFrame("temporal")
+                .addDateColumn("aDate").addDateTimeColumn("aDateTime")
+                .addRow(LocalDate.of(2024, 11, 12), LocalDateTime.of(2024, 11, 12, 20, 38, 45, 123_000_000))
+                .addRow(LocalDate.of(1969, 12, 31), LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_000_000))
+                .addRow(null, null);
+
+        JsonDataSet dataSetWrite = new JsonDataSet("json")
+                .schemaIncluded(true)
+                .temporalEncoding(TemporalEncoding.EPOCH_MILLIS);
+
+        String jsonString = dataSetWrite.toJsonString(temporalDataFrame);
+
+        Assertions.assertEquals("""
+                {"name":"temporal","schema":[\
+                {"Name":"aDate","Type":"DATE","Stored":"Y","Expression":"","Encoding":"EPOCH_DAY"},\
+                {"Name":"aDateTime","Type":"DATE_TIME","Stored":"Y","Expression":"","Encoding":"EPOCH_MILLIS"}],\
+                "data":[\
+                {"aDate":20039,"aDateTime":1731443925123},\
+                {"aDate":-1,"aDateTime":-1},\
+                {"aDate":null,"aDateTime":null}]}"""
+                , jsonString);
+
+        // the encoding recorded in the schema takes precedence over the data set setting
+        DataFrame dataFrameRead = new JsonDataSet("json").fromJsonString(jsonString);
+
+        DataFrameTestUtil.assertEquals(temporalDataFrame, dataFrameRead);
+    }
+
+    @Test
+    public void epochMicrosDataOnly()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json")
+                .dataOnly(true)
+                .dataByRows(false)
+                .temporalEncoding(TemporalEncoding.EPOCH_MICROS);
+
+        String jsonString = dataSet.toJsonString(this.dataFrame);
+
+        Assertions.assertTrue(jsonString.contains("""
+                {"column":"aDate","values":[20039,19988]},\
+                {"column":"aDateTime","values":[1731443925000000,1729888725000000]}"""));
+
+        dataSet.setSchema(new CsvSchema()
+                .addColumn("aString", ValueType.STRING)
+                .addColumn("aLong", ValueType.LONG)
+                .addColumn("aDouble", ValueType.DOUBLE)
+                .addColumn("anInt", ValueType.INT)
+                .addColumn("aFloat", ValueType.FLOAT)
+                .addColumn("aDate", ValueType.DATE)
+                .addColumn("aDateTime", ValueType.DATE_TIME)
+                .addColumn("aDecimal", ValueType.DECIMAL)
+                .addColumn("aBoolean", ValueType.BOOLEAN));
+
+        DataFrameTestUtil.assertEquals(this.dataFrame, dataSet.fromJsonString(jsonString));
+    }
+
+    @Test
+    public void numbersAreNotDatesUnlessEncoded()
+    {
+        CsvSchema schema = new CsvSchema().addColumn("aDate", ValueType.DATE);
+
+        JsonDataSet isoDataSet = new JsonDataSet("json", schema).dataOnly(true);
+        Assertions.assertThrows(RuntimeException.class, () -> isoDataSet.fromJsonString("[{\"aDate\":20039}]"));
+
+        JsonDataSet epochDataSet = new JsonDataSet("json", schema).dataOnly(true).temporalEncoding(TemporalEncoding.EPOCH_MILLIS);
+        Assertions.assertEquals(LocalDate.of(2024, 11, 12), epochDataSet.fromJsonString("[{\"aDate\":20039}]").getDate("aDate", 0));
+    }
 }
@@ -4,6 +4,9 @@ import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class JsonDataSetWriteTest
@@ -181,4 +184,107 @@ public class JsonDataSetWriteTest
             jsonString
         );
     }
+
+    @Test
+    public void byRowsInParallel()
+    {
+        JsonDataSet dfToJson = new JsonDataSet("json")
+                .dataByRows(true)
+                .schemaIncluded(true)
+                .parallelism(3);
+
+        String jsonString = dfToJson.toJsonString(this.dataFrame);
+
+        assertEquals(
+            """
+            {\
+            "name":"df",\
+            "schema":[\
+            {"Name":"foo","Type":"STRING","Stored":"Y","Expression":""},\
+            {"Name":"bar","Type":"LONG","Stored":"Y","Expression":""},\
+            {"Name":"baz","Type":"DOUBLE","Stored":"Y","Expression":""}\
+            ],\
+            "data":[\
+            {"foo":"Alice","bar":10,"baz":123.45},\
+            {"foo":"Bob","bar":12,"baz":222.33},\
+            {"foo":"Carl","bar":11,"baz":323.45},\
+            {"foo":"Diane","bar":14,"baz":456.78}\
+            ]}""",
+            jsonString
+        );
+    }
+
+    @Test
+    public void byRowsInParallelMatchesSequential()
+    {
+        DataFrame largeDataFrame = new DataFrame("large")
+                .addStringColumn("name").addLongColumn("id").addDoubleColumn("value");
+
+        for (int i = 0; i < 10_007; i++)
+        {
+            largeDataFrame.addRow("Name " + i, (long) i, i / 100.0);
+        }
+
+        largeDataFrame.seal();
+
+        JsonDataSet sequential = new JsonDataSet("json").dataByRows(true).dataOnly(true);
+        JsonDataSet parallel = new JsonDataSet("json").dataByRows(true).dataOnly(true).parallelism(8);
+
+        assertEquals(sequential.toJsonString(largeDataFrame), parallel.toJsonString(largeDataFrame));
+    }
+
+    @Test
+    public void byColumnsInParallel()
+    {
+        JsonDataSet dfToJson = new JsonDataSet("json")
+                .dataByRows(false)
+                .schemaIncluded(false)
+                .parallelism(4);
+
+        String jsonString = dfToJson.toJsonString(this.dataFrame);
+
+        assertEquals(
+            """
+            {"name":"df",\
+            "data":[\
+            {"column":"foo","values":["Alice","Bob","Carl","Diane"]},\
+            {"column":"bar","values":[10,12,11,14]},\
+            {"column":"baz","values":[123.45,222.33,323.45,456.78]}\
+            ]}""",
+            jsonString
+        );
+    }
+
+    @Test
+    public void computedColumnsWrittenSequentially()
+    {
+        this.dataFrame.addColumn("twoBaz", "baz * 2.0");
+
+        JsonDataSet sequential = new JsonDataSet("json").dataByRows(false).dataOnly(true);
+        JsonDataSet parallel = new JsonDataSet("json").dataByRows(false).dataOnly(true).parallelism(4);
+
+        assertEquals(sequential.toJsonString(this.dataFrame), parallel.toJsonString(this.dataFrame));
+    }
+
+    @Test
+    public void writeToOutputStream()
+    {
+        JsonDataSet dfToJson = new JsonDataSet("json")
+                .dataByRows(true)
+                .dataOnly(true)
+                .parallelism(2);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        dfToJson.writeJson(this.dataFrame, outputStream);
+
+        assertEquals(
+                """
+                [{"foo":"Alice","bar":10,"baz":123.45},\
+                {"foo":"Bob","bar":12,"baz":222.33},\
+                {"foo":"Carl","bar":11,"baz":323.45},\
+                {"foo":"Diane","bar":14,"baz":456.78}]""",
+                outputStream.toString(StandardCharsets.UTF_8)
+        );
+    }
 }
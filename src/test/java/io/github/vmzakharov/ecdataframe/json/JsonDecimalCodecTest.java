@@ -0,0 +1,141 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchema;
+import io.github.vmzakharov.ecdataframe.dsl.value.ValueType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class JsonDecimalCodecTest
+{
+    @Test
+    public void parsingMatchesBigDecimalParsing()
+    {
+        Random random = new Random(31L);
+
+        for (int i = 0; i < 20_000; i++)
+        {
+            BigDecimal value = BigDecimal.valueOf(random.nextLong() >> random.nextInt(63), random.nextInt(24) - 4);
+            this.assertParsedAsBigDecimal(value.toString());
+            this.assertParsedAsBigDecimal(value.toPlainString());
+        }
+
+        this.assertParsedAsBigDecimal("0");
+        this.assertParsedAsBigDecimal("-0");
+        this.assertParsedAsBigDecimal("-0.00");
+        this.assertParsedAsBigDecimal("45.60");
+        this.assertParsedAsBigDecimal("1E+3");
+        this.assertParsedAsBigDecimal("1.5e-7");
+        this.assertParsedAsBigDecimal("0.000000000000000000123456789012345678");
+        this.assertParsedAsBigDecimal("999999999999999999");
+        this.assertParsedAsBigDecimal("-999999999999999999.0000");
+    }
+
+    @Test
+    public void tooManyDigitsOrNotANumber()
+    {
+        assertNull(this.parse("1234567890123456789"));
+        assertNull(this.parse("12345678901234567.89"));
+        assertNull(this.parse("1E+12345678901"));
+        assertNull(this.parse("1.5x"));
+        assertNull(this.parse("-"));
+        assertNull(this.parse(".5"));
+        assertNull(this.parse("1."));
+        assertNull(this.parse("1e"));
+    }
+
+    @Test
+    public void formattingMatchesBigDecimalFormatting()
+    {
+        Random random = new Random(13L);
+        char[] buffer = new char[JsonDecimalCodec.BUFFER_SIZE];
+
+        for (int i = 0; i < 20_000; i++)
+        {
+            BigDecimal value = BigDecimal.valueOf(random.nextLong() >> random.nextInt(63), random.nextInt(24) - 4);
+            int start = JsonDecimalCodec.formatDecimal(value, buffer);
+            if (start >= 0)
+            {
+                assertEquals(value.toString(), new String(buffer, start, buffer.length - start));
+            }
+        }
+
+        this.assertFormat("45.60", new BigDecimal("45.60"));
+        this.assertFormat("-0.000001", new BigDecimal("-0.000001"));
+        this.assertFormat("0.00", new BigDecimal("0.00"));
+        this.assertFormat("123", BigDecimal.valueOf(123));
+        this.assertFormat("-999999999999999999", new BigDecimal("-999999999999999999"));
+
+        this.assertFormat(null, new BigDecimal("1E+3"));
+        this.assertFormat(null, new BigDecimal("1E-7"));
+        this.assertFormat(null, new BigDecimal("1234567890123456789"));
+    }
+
+    @Test
+    public void decimalValuesKeepPrecisionAndScale()
+    {
+        DataFrame dataFrame = new DataFrame("decimals")
+                .addDecimalColumn("aDecimal")
+                .addRow(new BigDecimal("12345678901234.5678"))
+                .addRow(new BigDecimal("45.60"))
+                .addRow(new BigDecimal("123456789012345678901234567890.123"))
+                .addRow(new BigDecimal("1E+3"))
+                .addRow((BigDecimal) null)
+                .seal();
+
+        JsonDataSet dataSet = new JsonDataSet("decimals", new CsvSchema().addColumn("aDecimal", ValueType.DECIMAL))
+                .dataOnly(true)
+                .fastNumberWriting(true);
+
+        String jsonString = dataSet.toJsonString(dataFrame);
+
+        assertEquals("""
+                [{"aDecimal":12345678901234.5678},{"aDecimal":45.60},\
+                {"aDecimal":123456789012345678901234567890.123},{"aDecimal":1E+3},{"aDecimal":null}]""",
+                jsonString);
+
+        DataFrame dataFrameRead = dataSet.fromJsonString(jsonString);
+
+        for (int rowIndex = 0; rowIndex < dataFrame.rowCount() - 1; rowIndex++)
+        {
+            BigDecimal expected = dataFrame.getDecimalColumn("aDecimal").getTypedObject(rowIndex);
+            BigDecimal actual = dataFrameRead.getDecimalColumn("aDecimal").getTypedObject(rowIndex);
+            assertEquals(expected, actual);
+            assertEquals(expected.scale(), actual.scale());
+        }
+    }
+
+    private void assertParsedAsBigDecimal(String text)
+    {
+        BigDecimal expected = new BigDecimal(text);
+        BigDecimal parsed = this.parse(text);
+
+        if (expected.precision() > 18)
+        {
+            assertNull(parsed, text);
+            return;
+        }
+
+        assertEquals(expected, parsed, text);
+        assertEquals(expected.scale(), parsed.scale(), text);
+    }
+
+    private BigDecimal parse(String text)
+    {
+        String padded = " " + text + " ";
+        return JsonDecimalCodec.parseDecimal(padded.toCharArray(), 1, text.length());
+    }
+
+    private void assertFormat(String expected, BigDecimal value)
+    {
+        char[] buffer = new char[JsonDecimalCodec.BUFFER_SIZE];
+        int start = JsonDecimalCodec.formatDecimal(value, buffer);
+
+        assertEquals(expected, start < 0 ? null : new String(buffer, start, buffer.length - start));
+    }
+}
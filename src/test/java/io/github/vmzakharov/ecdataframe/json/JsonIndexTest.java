@@ -0,0 +1,214 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static io.github.vmzakharov.ecdataframe.dsl.value.ValueType.*;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonIndexTest
+{
+    private DataFrame dataFrame;
+    private Path directory;
+    private Path jsonFile;
+
+    @BeforeEach
+    public void setUp()
+    throws IOException
+    {
+        this.dataFrame = new DataFrame("indexed")
+                .addStringColumn("name").addLongColumn("count").addDateTimeColumn("updated");
+
+        for (int i = 0; i < 23; i++)
+        {
+            this.dataFrame.addRow(i % 5 == 0 ? null : "row, \"" + i + "\"", i % 3 == 0 ? null : (long) i * 7, LocalDateTime.of(2024, 3, 1 + i, 10, i));
+        }
+
+        this.dataFrame.seal();
+
+        this.directory = Files.createTempDirectory("json-index");
+        this.jsonFile = this.directory.resolve("data.json");
+    }
+
+    @AfterEach
+    public void tearDown()
+    throws IOException
+    {
+        Files.deleteIfExists(JsonIndex.sidecarPath(this.jsonFile));
+        Files.deleteIfExists(this.jsonFile);
+        Files.deleteIfExists(this.directory);
+    }
+
+    @Test
+    public void rowOffsetsPointAtRows()
+    throws IOException
+    {
+        this.assertRowOffsets(new JsonDataSet("json").indexInterval(4));
+        this.assertRowOffsets(new JsonDataSet("json").indexInterval(4).parallelism(3).schemaIncluded(true));
+        this.assertRowOffsets(new JsonDataSet("json").indexInterval(1).parallelism(5).dataOnly(true).omitNulls(true));
+    }
+
+    private void assertRowOffsets(JsonDataSet dataSet)
+    throws IOException
+    {
+        dataSet.writeJson(this.dataFrame, this.jsonFile);
+
+        JsonIndex index = dataSet.readIndex(this.jsonFile);
+        String json = Files.readString(this.jsonFile, StandardCharsets.UTF_8);
+
+        assertEquals("indexed", index.getDataFrameName());
+        assertEquals(23, index.getRowCount());
+        assertEquals(3, index.getSchema().columnCount());
+        assertEquals((23 + dataSet.indexInterval() - 1) / dataSet.indexInterval(), index.rowOffsetCount());
+
+        for (int entry = 0; entry < index.rowOffsetCount(); entry++)
+        {
+            int offset = (int) index.rowOffset(entry);
+            assertEquals('{', json.charAt(offset));
+            assertEquals(entry == 0 ? '[' : ',', json.charAt(offset - 1));
+        }
+
+        assertEquals(']', json.charAt((int) index.dataEnd()));
+    }
+
+    @Test
+    public void readRowRanges()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").indexInterval(4).temporalEncoding(TemporalEncoding.EPOCH_MILLIS);
+        dataSet.writeJson(this.dataFrame, this.jsonFile);
+
+        JsonDataSet reader = new JsonDataSet("reader");
+
+        this.assertRange(reader, 0, 23);
+        this.assertRange(reader, 0, 4);
+        this.assertRange(reader, 4, 8);
+        this.assertRange(reader, 5, 6);
+        this.assertRange(reader, 7, 21);
+        this.assertRange(reader, 22, 23);
+        this.assertRange(reader, 10, 10);
+
+        assertThrows(RuntimeException.class, () -> reader.readJson(this.jsonFile, 20, 24));
+    }
+
+    private void assertRange(JsonDataSet dataSet, int fromRow, int toRow)
+    {
+        DataFrame range = dataSet.readJson(this.jsonFile, fromRow, toRow);
+
+        assertEquals("indexed", range.getName());
+        assertEquals(toRow - fromRow, range.rowCount());
+
+        for (int rowIndex = fromRow; rowIndex < toRow; rowIndex++)
+        {
+            assertEquals(this.dataFrame.getObject("name", rowIndex), range.getObject("name", rowIndex - fromRow));
+            assertEquals(this.dataFrame.getObject("count", rowIndex), range.getObject("count", rowIndex - fromRow));
+            assertEquals(this.dataFrame.getObject("updated", rowIndex), range.getObject("updated", rowIndex - fromRow));
+        }
+    }
+
+    @Test
+    public void readRowRangesAfterSchemaIsPublished()
+    {
+        new JsonDataSet("json").indexInterval(4).schemaIncluded(true).temporalEncoding(TemporalEncoding.EPOCH_MILLIS)
+                .writeJson(this.dataFrame, this.jsonFile);
+
+        JsonDataSet reader = new JsonDataSet("reader");
+
+        DataFrameTestUtil.assertEquals(this.dataFrame, reader.readJson(this.jsonFile));
+
+        this.assertRange(reader, 1, 3);
+        this.assertRange(reader, 7, 21);
+
+        DataFrameTestUtil.assertEquals(this.dataFrame, reader.parallelism(3).readJson(this.jsonFile));
+    }
+
+    @Test
+    public void readInParallel()
+    {
+        new JsonDataSet("json").indexInterval(3).schemaIncluded(true).writeJson(this.dataFrame, this.jsonFile);
+
+        DataFrame dataFrameRead = new JsonDataSet("reader").parallelism(4).readJson(this.jsonFile);
+
+        assertEquals("indexed", dataFrameRead.getName());
+        DataFrameTestUtil.assertEquals(this.dataFrame, dataFrameRead);
+
+        DataFrameTestUtil.assertEquals(this.dataFrame, new JsonDataSet("reader").readJson(this.jsonFile));
+    }
+
+    @Test
+    public void lazyColumnsFromIndex()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").dataByRows(false).indexInterval(1).parallelism(2).omitNulls(true);
+        dataSet.writeJson(this.dataFrame, this.jsonFile);
+
+        JsonIndex index = dataSet.readIndex(this.jsonFile);
+        assertFalse(index.isByRows());
+
+        JsonLazyDataFrame lazy = new JsonDataSet("reader").dataByRows(false).readLazy(this.jsonFile);
+
+        assertEquals("indexed", lazy.getName());
+        DataFrameTestUtil.assertEquals(this.dataFrame, lazy.toDataFrame());
+    }
+
+    @Test
+    public void columnsWrittenInGroupsMatchSequentialOutput()
+    throws IOException
+    {
+        DataFrame wide = new DataFrame("wide");
+        for (int columnIndex = 0; columnIndex < 10; columnIndex++)
+        {
+            wide.addLongColumn("c" + columnIndex);
+        }
+
+        for (int rowIndex = 0; rowIndex < 7; rowIndex++)
+        {
+            Object[] row = new Object[10];
+            for (int columnIndex = 0; columnIndex < 10; columnIndex++)
+            {
+                row[columnIndex] = (rowIndex + columnIndex) % 4 == 0 ? null : (long) rowIndex * columnIndex;
+            }
+
+            wide.addRow(row);
+        }
+
+        wide.seal();
+
+        new JsonDataSet("json").dataByRows(false).indexInterval(1).omitNulls(true).writeJson(wide, this.jsonFile);
+        String sequentialJson = Files.readString(this.jsonFile, StandardCharsets.UTF_8);
+        JsonIndex sequentialIndex = new JsonDataSet("json").readIndex(this.jsonFile);
+
+        new JsonDataSet("json").dataByRows(false).indexInterval(1).omitNulls(true).parallelism(3).writeJson(wide, this.jsonFile);
+
+        assertEquals(sequentialJson, Files.readString(this.jsonFile, StandardCharsets.UTF_8));
+
+        JsonIndex index = new JsonDataSet("json").readIndex(this.jsonFile);
+        for (int columnIndex = 0; columnIndex < 10; columnIndex++)
+        {
+            assertArrayEquals(sequentialIndex.columnRanges().get("c" + columnIndex), index.columnRanges().get("c" + columnIndex));
+        }
+
+        DataFrameTestUtil.assertEquals(wide, new JsonDataSet("reader").dataByRows(false).readLazy(this.jsonFile).toDataFrame());
+    }
+
+    @Test
+    public void noIndexByDefault()
+    {
+        new JsonDataSet("json").indexInterval(2).writeJson(this.dataFrame, this.jsonFile);
+        new JsonDataSet("json", new CsvSchema()
+                .addColumn("name", STRING).addColumn("count", LONG).addColumn("updated", DATE_TIME))
+                .writeJson(this.dataFrame, this.jsonFile);
+
+        assertFalse(Files.exists(JsonIndex.sidecarPath(this.jsonFile)));
+    }
+}
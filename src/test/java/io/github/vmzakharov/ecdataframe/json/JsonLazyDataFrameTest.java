@@ -0,0 +1,172 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchema;
+import org.eclipse.collections.impl.factory.Lists;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static io.github.vmzakharov.ecdataframe.dsl.value.ValueType.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonLazyDataFrameTest
+{
+    private final DataFrame dataFrame = new DataFrame("wide")
+            .addStringColumn("name").addLongColumn("count").addDoubleColumn("ratio")
+            .addDateColumn("since").addDecimalColumn("amount")
+            .addRow("Alice", 10L, 0.5, LocalDate.of(2024, 1, 15), BigDecimal.valueOf(1234, 2))
+            .addRow("Bob", null, 1.25, null, BigDecimal.valueOf(5, 1))
+            .addRow(null, 12L, null, LocalDate.of(2023, 12, 31), null)
+            .seal();
+
+    @Test
+    public void parsesOnlySelectedColumns()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").dataByRows(false).schemaIncluded(true);
+        byte[] json = dataSet.toJsonString(this.dataFrame).getBytes(StandardCharsets.UTF_8);
+
+        JsonLazyDataFrame lazy = new JsonDataSet("json").dataByRows(false).readLazy(json);
+
+        assertEquals("wide", lazy.getName());
+        assertEquals(Lists.immutable.of("name", "count", "ratio", "since", "amount"), lazy.getColumnNames());
+        assertFalse(lazy.isColumnParsed("name"));
+
+        DataFrame selected = lazy.select("since", "name");
+
+        DataFrameTestUtil.assertEquals(
+                new DataFrame("expected")
+                        .addDateColumn("since").addStringColumn("name")
+                        .addRow(LocalDate.of(2024, 1, 15), "Alice")
+                        .addRow(null, "Bob")
+                        .addRow(LocalDate.of(2023, 12, 31), null)
+                        .seal(),
+                selected);
+
+        assertTrue(lazy.isColumnParsed("name"));
+        assertTrue(lazy.isColumnParsed("since"));
+        assertFalse(lazy.isColumnParsed("count"));
+        assertFalse(lazy.isColumnParsed("amount"));
+
+        DataFrameTestUtil.assertEquals(this.dataFrame, lazy.toDataFrame());
+    }
+
+    @Test
+    public void dataOnlyWithNullRunsAndEpochDates()
+    {
+        CsvSchema schema = new CsvSchema()
+                .addColumn("name", STRING)
+                .addColumn("count", LONG)
+                .addColumn("ratio", DOUBLE)
+                .addColumn("since", DATE)
+                .addColumn("amount", DECIMAL)
+                ;
+
+        JsonDataSet dataSet = new JsonDataSet("json", schema)
+                .dataByRows(false)
+                .dataOnly(true)
+                .omitNulls(true)
+                .temporalEncoding(TemporalEncoding.EPOCH_MILLIS);
+
+        byte[] json = dataSet.toJsonString(this.dataFrame).getBytes(StandardCharsets.UTF_8);
+
+        JsonLazyDataFrame lazy = dataSet.readLazy(json);
+
+        DataFrameTestUtil.assertEquals(
+                new DataFrame("expected")
+                        .addLongColumn("count").addDateColumn("since")
+                        .addRow(10L, LocalDate.of(2024, 1, 15))
+                        .addRow(null, null)
+                        .addRow(12L, LocalDate.of(2023, 12, 31))
+                        .seal(),
+                lazy.select("count", "since"));
+    }
+
+    @Test
+    public void readFromFile()
+    throws IOException
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").dataByRows(false).schemaIncluded(true);
+
+        Path file = Files.createTempFile("lazy", ".json");
+        try
+        {
+            Files.writeString(file, dataSet.toJsonString(this.dataFrame));
+
+            JsonLazyDataFrame lazy = dataSet.readLazy(file);
+
+            DataFrameTestUtil.assertEquals(
+                    new DataFrame("expected")
+                            .addDecimalColumn("amount")
+                            .addRow(BigDecimal.valueOf(1234, 2))
+                            .addRow(BigDecimal.valueOf(5, 1))
+                            .addRow((Object) null)
+                            .seal(),
+                    lazy.select("amount"));
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void readIndexedFileAfterSchemaIsPublished()
+    throws IOException
+    {
+        DataFrame events = new DataFrame("events")
+                .addStringColumn("name").addDateTimeColumn("ts")
+                .addRow("start", LocalDateTime.of(2024, 1, 15, 9, 30))
+                .addRow("stop", null)
+                .addRow(null, LocalDateTime.of(2023, 12, 31, 23, 59, 59))
+                .seal();
+
+        Path directory = Files.createTempDirectory("lazy");
+        Path file = directory.resolve("events.json");
+        try
+        {
+            new JsonDataSet("json").dataByRows(false).schemaIncluded(true).indexInterval(1)
+                    .temporalEncoding(TemporalEncoding.EPOCH_MILLIS)
+                    .writeJson(events, file);
+
+            JsonDataSet reader = new JsonDataSet("reader").dataByRows(false);
+
+            DataFrameTestUtil.assertEquals(events, reader.readJson(file));
+
+            DataFrameTestUtil.assertEquals(events.copy("ts", Lists.immutable.of("ts")), reader.readLazy(file).select("ts"));
+        }
+        finally
+        {
+            Files.deleteIfExists(JsonIndex.sidecarPath(file));
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    public void unknownColumn()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").dataByRows(false).schemaIncluded(true);
+        JsonLazyDataFrame lazy = dataSet.readLazy(dataSet.toJsonString(this.dataFrame).getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(RuntimeException.class, () -> lazy.select("nope"));
+    }
+
+    @Test
+    public void byRowsIsNotSupported()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").schemaIncluded(true);
+        byte[] json = dataSet.toJsonString(this.dataFrame).getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(UnsupportedOperationException.class, () -> dataSet.readLazy(json));
+    }
+}
@@ -0,0 +1,147 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchema;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.impl.factory.Lists;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static io.github.vmzakharov.ecdataframe.dsl.value.ValueType.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonLoadEstimateTest
+{
+    private DataFrame dataFrame;
+    private Path directory;
+    private Path jsonFile;
+
+    @BeforeEach
+    public void setUp()
+    throws IOException
+    {
+        this.dataFrame = new DataFrame("estimated")
+                .addStringColumn("name").addLongColumn("count").addIntColumn("size").addDateColumn("date");
+
+        for (int i = 0; i < 100; i++)
+        {
+            this.dataFrame.addRow(i % 4 == 0 ? null : "name" + i, (long) i, i % 10 == 0 ? null : i, LocalDate.of(2024, 1, 1).plusDays(i));
+        }
+
+        this.dataFrame.seal();
+
+        this.directory = Files.createTempDirectory("json-estimate");
+        this.jsonFile = this.directory.resolve("data.json");
+    }
+
+    @AfterEach
+    public void tearDown()
+    throws IOException
+    {
+        Files.deleteIfExists(JsonIndex.sidecarPath(this.jsonFile));
+        Files.deleteIfExists(this.jsonFile);
+        Files.deleteIfExists(this.directory);
+    }
+
+    @Test
+    public void estimateByRowsAndByColumns()
+    {
+        JsonLoadEstimate byRows = this.writeAndEstimate(new JsonDataSet("json").schemaIncluded(true));
+        JsonLoadEstimate byColumns = this.writeAndEstimate(new JsonDataSet("json").dataByRows(false).schemaIncluded(true).omitNulls(true));
+        JsonLoadEstimate fromIndex = this.writeAndEstimate(new JsonDataSet("json").indexInterval(10).omitNulls(true));
+
+        for (JsonLoadEstimate estimate : Lists.immutable.of(byRows, byColumns, fromIndex))
+        {
+            assertEquals("estimated", estimate.getDataFrameName());
+            assertEquals(100, estimate.getRowCount());
+            assertEquals(100 * 8 + 13, estimate.getColumnHeapSize("count"));
+            assertEquals(100 * 4 + 13, estimate.getColumnHeapSize("size"));
+            assertTrue(estimate.getColumnHeapSize("name") > estimate.getColumnHeapSize("date"));
+            assertEquals(
+                    estimate.getColumnHeapSize("name") + estimate.getColumnHeapSize("count")
+                            + estimate.getColumnHeapSize("size") + estimate.getColumnHeapSize("date"),
+                    estimate.getHeapSize());
+        }
+
+        assertEquals(byRows.getHeapSize(), byColumns.getHeapSize());
+        assertEquals(byRows.getHeapSize(), fromIndex.getHeapSize());
+    }
+
+    @Test
+    public void readFailsWhenOverBudget()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").schemaIncluded(true);
+        dataSet.writeJson(this.dataFrame, this.jsonFile);
+
+        long heapSize = dataSet.estimateLoad(this.jsonFile).getHeapSize();
+
+        assertThrows(RuntimeException.class, () -> dataSet.memoryBudget(heapSize - 1).readJson(this.jsonFile));
+
+        DataFrameTestUtil.assertEquals(this.dataFrame, dataSet.memoryBudget(heapSize).readJson(this.jsonFile));
+    }
+
+    @Test
+    public void batchesFitInBudget()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").indexInterval(16);
+        dataSet.writeJson(this.dataFrame, this.jsonFile);
+
+        JsonLoadEstimate estimate = dataSet.estimateLoad(this.jsonFile);
+        int batchSize = estimate.batchSizeFor(estimate.getHeapSize() / 7);
+
+        MutableList<DataFrame> batches = Lists.mutable.of();
+        dataSet.memoryBudget(estimate.getHeapSize() / 7).readJsonInBatches(this.jsonFile, batches::add);
+
+        assertTrue(batches.size() >= 7);
+        assertFalse(batches.anySatisfy(batch -> batch.rowCount() > batchSize));
+
+        DataFrame union = batches.getFirst();
+        for (int i = 1; i < batches.size(); i++)
+        {
+            union = union.union(batches.get(i));
+        }
+
+        union.setName(this.dataFrame.getName());
+        DataFrameTestUtil.assertEquals(this.dataFrame, union);
+    }
+
+    @Test
+    public void largeBudgetDoesNotOverflow()
+    {
+        JsonLoadEstimate estimate = JsonLoadEstimate.ofDataFrame(this.dataFrame);
+
+        assertEquals(Integer.MAX_VALUE, estimate.batchSizeFor(Long.MAX_VALUE));
+        assertEquals(Integer.MAX_VALUE, estimate.batchSizeFor(Long.MAX_VALUE / 1_000L));
+        assertEquals(1, estimate.batchSizeFor(1L));
+    }
+
+    @Test
+    public void batchesWithoutBudget()
+    {
+        CsvSchema schema = new CsvSchema()
+                .addColumn("name", STRING).addColumn("count", LONG).addColumn("size", INT).addColumn("date", DATE);
+
+        JsonDataSet dataSet = new JsonDataSet("json", schema).dataOnly(true).batchSize(30);
+        dataSet.writeJson(this.dataFrame, this.jsonFile);
+
+        MutableList<DataFrame> batches = Lists.mutable.of();
+        dataSet.readJsonInBatches(this.jsonFile, batches::add);
+
+        assertEquals(Lists.mutable.of(30, 30, 30, 10), batches.collect(DataFrame::rowCount));
+    }
+
+    private JsonLoadEstimate writeAndEstimate(JsonDataSet dataSet)
+    {
+        dataSet.writeJson(this.dataFrame, this.jsonFile);
+        return dataSet.estimateLoad(this.jsonFile);
+    }
+}
@@ -0,0 +1,148 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.eclipse.collections.api.list.MutableList;
+import org.eclipse.collections.impl.factory.Lists;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonMetricsTest
+{
+    private final DataFrame dataFrame = new DataFrame("metrics")
+            .addStringColumn("aString").addLongColumn("aLong")
+            .addRow("Alice", 10L)
+            .addRow(null, 12L)
+            .addRow("Carl", null)
+            .seal();
+
+    @Test
+    public void listenerReceivesWriteAndReadMetrics()
+    {
+        MutableList<JsonOperationMetrics> reported = Lists.mutable.of();
+
+        JsonDataSet dataSet = new JsonDataSet("json")
+                .schemaIncluded(true)
+                .metricsNullCount(true)
+                .metricsListener(reported::add);
+
+        String jsonString = dataSet.toJsonString(this.dataFrame);
+        dataSet.readJson(new ByteArrayInputStream(jsonString.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, reported.size());
+
+        JsonOperationMetrics written = reported.get(0);
+        assertEquals(JsonOperationMetrics.Operation.WRITE, written.getOperation());
+        assertEquals("json", written.getDataSetName());
+        assertEquals("metrics", written.getDataFrameName());
+        assertEquals(jsonString.length(), written.getByteCount());
+        assertEquals(3, written.getRowCount());
+        assertEquals(2, written.getColumnCount());
+        assertEquals(2, written.getNullCount());
+        assertEquals(0L, written.getSealNanos());
+        assertTrue(written.getTotalNanos() >= written.getSchemaNanos() + written.getDataNanos());
+
+        JsonOperationMetrics read = reported.get(1);
+        assertEquals(JsonOperationMetrics.Operation.READ, read.getOperation());
+        assertEquals(jsonString.length(), read.getByteCount());
+        assertEquals(3, read.getRowCount());
+        assertEquals(2, read.getColumnCount());
+        assertEquals(2, read.getNullCount());
+        assertTrue(read.getSchemaNanos() > 0L);
+        assertTrue(read.getDataNanos() > 0L);
+        assertTrue(read.getTotalNanos() >= read.getSchemaNanos() + read.getDataNanos() + read.getSealNanos());
+    }
+
+    @Test
+    public void nullsAreNotCountedByDefault()
+    {
+        MutableList<JsonOperationMetrics> reported = Lists.mutable.of();
+
+        JsonDataSet dataSet = new JsonDataSet("json").schemaIncluded(true).metricsListener(reported::add);
+        dataSet.fromJsonString(dataSet.toJsonString(this.dataFrame));
+
+        assertEquals(2, reported.size());
+        assertEquals(-1L, reported.get(0).getNullCount());
+        assertEquals(-1L, reported.get(1).getNullCount());
+        assertEquals(3, reported.get(1).getRowCount());
+    }
+
+    @Test
+    public void parallelReadIsReportedOnce()
+    throws IOException
+    {
+        DataFrame rows = new DataFrame("rows").addLongColumn("id").addStringColumn("name");
+        for (int i = 0; i < 2_000; i++)
+        {
+            rows.addRow((long) i, i % 10 == 0 ? null : "n" + i);
+        }
+        rows.seal();
+
+        Path directory = Files.createTempDirectory("metrics");
+        Path file = directory.resolve("rows.json");
+        try
+        {
+            new JsonDataSet("json").schemaIncluded(true).indexInterval(100).writeJson(rows, file);
+
+            MutableList<JsonOperationMetrics> reported = Lists.mutable.of();
+            new JsonDataSet("json").parallelism(4).metricsNullCount(true).metricsListener(reported::add).readJson(file);
+
+            assertEquals(1, reported.size());
+            assertEquals(2_000, reported.get(0).getRowCount());
+            assertEquals(200L, reported.get(0).getNullCount());
+            assertEquals(Files.size(file), reported.get(0).getByteCount());
+        }
+        finally
+        {
+            Files.deleteIfExists(JsonIndex.sidecarPath(file));
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    public void flightRecorderEvents()
+    throws IOException
+    {
+        Path recordingFile = Files.createTempFile("json-metrics", ".jfr");
+
+        try (Recording recording = new Recording())
+        {
+            recording.enable(JsonOperationEvent.class).withoutThreshold();
+            recording.start();
+
+            JsonDataSet dataSet = new JsonDataSet("json").dataOnly(true).metricsNullCount(true);
+            String jsonString = dataSet.toJsonString(this.dataFrame);
+
+            recording.stop();
+            recording.dump(recordingFile);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+            RecordedEvent event = events.stream()
+                    .filter(each -> each.getEventType().getName().equals("io.github.vmzakharov.ecdataframe.json.JsonOperation"))
+                    .findFirst()
+                    .orElseThrow();
+
+            assertEquals("WRITE", event.getString("operation"));
+            assertEquals("metrics", event.getString("dataFrameName"));
+            assertEquals(jsonString.length(), event.getLong("byteCount"));
+            assertEquals(3, event.getInt("rowCount"));
+            assertEquals(2L, event.getLong("nullCount"));
+        }
+        finally
+        {
+            Files.deleteIfExists(recordingFile);
+        }
+    }
+}
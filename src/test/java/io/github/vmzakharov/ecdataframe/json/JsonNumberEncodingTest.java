@@ -0,0 +1,153 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchema;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static io.github.vmzakharov.ecdataframe.dsl.value.ValueType.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonNumberEncodingTest
+{
+    private final DataFrame dataFrame = new DataFrame("encoded")
+            .addLongColumn("id").addIntColumn("year").addLongColumn("random").addIntColumn("countdown").addStringColumn("name")
+            .addRow(1000001L, 2024, 17L, 5, "a")
+            .addRow(1000002L, 2013, -4L, 4, "b")
+            .addRow(null, null, 9L, null, null)
+            .addRow(1000005L, 2010, 0L, 1, "c")
+            .addRow(1000006L, 2019, 25L, -1, "d")
+            .seal();
+
+    @Test
+    public void writeEncodedColumns()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").dataByRows(false).dataOnly(true).compactNumbers(true);
+
+        assertEquals("""
+                [\
+                {"column":"id","encoding":"DELTA","values":[1000001,1,null,3,1]},\
+                {"column":"year","encoding":"FRAME_OF_REFERENCE","base":2010,"values":[14,3,null,0,9]},\
+                {"column":"random","values":[17,-4,9,0,25]},\
+                {"column":"countdown","values":[5,4,null,1,-1]},\
+                {"column":"name","values":["a","b",null,"c","d"]}\
+                ]""",
+                dataSet.toJsonString(this.dataFrame));
+
+        assertEquals("""
+                [\
+                {"column":"id","nullRuns":[2,1],"encoding":"DELTA","values":[1000001,1,3,1]},\
+                {"column":"year","nullRuns":[2,1],"encoding":"FRAME_OF_REFERENCE","base":2010,"values":[14,3,0,9]},\
+                {"column":"random","values":[17,-4,9,0,25]},\
+                {"column":"countdown","nullRuns":[2,1],"values":[5,4,1,-1]},\
+                {"column":"name","nullRuns":[2,1],"values":["a","b","c","d"]}\
+                ]""",
+                dataSet.omitNulls(true).toJsonString(this.dataFrame));
+    }
+
+    @Test
+    public void roundTrip()
+    {
+        JsonDataSet byColumns = new JsonDataSet("json").dataByRows(false).schemaIncluded(true).compactNumbers(true);
+
+        DataFrameTestUtil.assertEquals(this.dataFrame, byColumns.fromJsonString(byColumns.toJsonString(this.dataFrame)));
+
+        byColumns.omitNulls(true).parallelism(3);
+        DataFrameTestUtil.assertEquals(this.dataFrame, byColumns.fromJsonString(byColumns.toJsonString(this.dataFrame)));
+
+        JsonDataSet byRows = new JsonDataSet("json").schemaIncluded(true).compactNumbers(true);
+        assertEquals(new JsonDataSet("json").schemaIncluded(true).toJsonString(this.dataFrame), byRows.toJsonString(this.dataFrame));
+    }
+
+    @Test
+    public void encodingIsUsedOnlyIfShorter()
+    {
+        DataFrame sorted = new DataFrame("sorted")
+                .addLongColumn("gaps").addLongColumn("steps")
+                .addRow(3L, 9_000_000_000L)
+                .addRow(5_000_000L, 9_000_000_007L)
+                .addRow(9_000_000_000L, 9_000_000_012L)
+                .seal();
+
+        JsonDataSet dataSet = new JsonDataSet("json").dataByRows(false).dataOnly(true).compactNumbers(true);
+
+        assertEquals("""
+                [\
+                {"column":"gaps","values":[3,5000000,9000000000]},\
+                {"column":"steps","encoding":"DELTA","values":[9000000000,7,5]}\
+                ]""",
+                dataSet.toJsonString(sorted));
+    }
+
+    @Test
+    public void extremeValues()
+    {
+        DataFrame extremes = new DataFrame("extremes")
+                .addLongColumn("ascending").addIntColumn("descending")
+                .addRow(Long.MIN_VALUE, Integer.MAX_VALUE)
+                .addRow(-1L, 0)
+                .addRow(Long.MAX_VALUE, Integer.MIN_VALUE)
+                .seal();
+
+        JsonDataSet dataSet = new JsonDataSet("json").dataByRows(false).schemaIncluded(true).compactNumbers(true);
+
+        DataFrameTestUtil.assertEquals(extremes, dataSet.fromJsonString(dataSet.toJsonString(extremes)));
+    }
+
+    @Test
+    public void lazyReadOfEncodedColumns()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").dataByRows(false).schemaIncluded(true).compactNumbers(true).omitNulls(true);
+
+        JsonLazyDataFrame lazy = dataSet.readLazy(dataSet.toJsonString(this.dataFrame).getBytes(StandardCharsets.UTF_8));
+
+        DataFrameTestUtil.assertEquals(
+                new DataFrame("encoded")
+                        .addIntColumn("year").addLongColumn("id")
+                        .addRow(2024, 1000001L)
+                        .addRow(2013, 1000002L)
+                        .addRow(null, null)
+                        .addRow(2010, 1000005L)
+                        .addRow(2019, 1000006L)
+                        .seal(),
+                lazy.select("year", "id"));
+    }
+
+    @Test
+    public void sortedTimestampsAreSmaller()
+    {
+        DataFrame timestamps = new DataFrame("timestamps").addLongColumn("timestamp");
+        for (int i = 0; i < 1_000; i++)
+        {
+            timestamps.addRow(1_718_000_000_000L + i * 250L);
+        }
+
+        timestamps.seal();
+
+        JsonDataSet plain = new JsonDataSet("json").dataByRows(false);
+        JsonDataSet compact = new JsonDataSet("json").dataByRows(false).compactNumbers(true);
+
+        assertTrue(compact.toJsonString(timestamps).length() * 3 < plain.toJsonString(timestamps).length());
+    }
+
+    @Test
+    public void encodingOfNonNumericColumnIsRejected()
+    {
+        CsvSchema schema = new CsvSchema().addColumn("name", STRING);
+
+        assertThrows(
+                RuntimeException.class,
+                () -> new JsonDataSet("json", schema).dataByRows(false).dataOnly(true)
+                        .fromJsonString("[{\"column\":\"name\",\"encoding\":\"DELTA\",\"values\":[1,2]}]"));
+
+        CsvSchema longSchema = new CsvSchema().addColumn("id", LONG);
+
+        assertThrows(
+                RuntimeException.class,
+                () -> new JsonDataSet("json", longSchema).dataByRows(false).dataOnly(true)
+                        .fromJsonString("[{\"column\":\"id\",\"values\":[1,2],\"encoding\":\"DELTA\"}]"));
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class JsonNumberFormattingTest
+{
+    @Test
+    public void fastFormattingMatchesStandardFormatting()
+    {
+        DataFrame dataFrame = new DataFrame("numbers")
+                .addDoubleColumn("aDouble").addFloatColumn("aFloat").addLongColumn("aLong");
+
+        Random random = new Random(17L);
+
+        for (int i = 0; i < 20_000; i++)
+        {
+            double shortDecimal = (random.nextInt(2_000_000_000) - 1_000_000_000) / Math.pow(10, random.nextInt(12));
+            dataFrame.addRow(shortDecimal, (float) shortDecimal, random.nextLong());
+            dataFrame.addRow(random.nextDouble() * 1000.0, random.nextFloat(), (long) i);
+        }
+
+        dataFrame.addRow(0.0, 0.0f, 0L);
+        dataFrame.addRow(-0.0, -0.0f, -1L);
+        dataFrame.addRow(1.0e-5, 1.0e-5f, Long.MIN_VALUE);
+        dataFrame.addRow(1.0e7, 1.0e7f, Long.MAX_VALUE);
+        dataFrame.addRow(0.001, 0.001f, 1L);
+        dataFrame.addRow(9999999.5, 9999999.5f, 2L);
+        dataFrame.addRow(null, null, null);
+
+        dataFrame.seal();
+
+        JsonDataSet standardDataSet = new JsonDataSet("standard").dataOnly(true).dataByRows(false);
+        JsonDataSet fastDataSet = new JsonDataSet("fast").dataOnly(true).dataByRows(false).fastNumberWriting(true);
+
+        assertEquals(standardDataSet.toJsonString(dataFrame), fastDataSet.toJsonString(dataFrame));
+    }
+
+    @Test
+    public void doubleValues()
+    {
+        this.assertDoubleFormat("123.45", 123.45);
+        this.assertDoubleFormat("-123.45", -123.45);
+        this.assertDoubleFormat("10.0", 10.0);
+        this.assertDoubleFormat("0.001", 0.001);
+        this.assertDoubleFormat("0.1", 0.1);
+        this.assertDoubleFormat("9999999.0", 9999999.0);
+
+        this.assertDoubleFormat(null, 0.0);
+        this.assertDoubleFormat(null, 1.0e7);
+        this.assertDoubleFormat(null, 0.1 + 0.2);
+        this.assertDoubleFormat(null, Double.NaN);
+    }
+
+    @Test
+    public void floatValues()
+    {
+        this.assertFloatFormat("12.34", 12.34f);
+        this.assertFloatFormat("-55.34", -55.34f);
+        this.assertFloatFormat("1.0", 1.0f);
+        this.assertFloatFormat("0.3", 0.3f);
+
+        this.assertFloatFormat(null, 0.0f);
+        this.assertFloatFormat(null, 1.0e-4f);
+        this.assertFloatFormat(null, Float.POSITIVE_INFINITY);
+    }
+
+    private void assertDoubleFormat(String expected, double value)
+    {
+        char[] buffer = new char[JsonNumberFormatter.BUFFER_SIZE];
+        int start = JsonNumberFormatter.formatDouble(value, buffer);
+
+        assertEquals(expected, start < 0 ? null : new String(buffer, start, buffer.length - start));
+    }
+
+    private void assertFloatFormat(String expected, float value)
+    {
+        char[] buffer = new char[JsonNumberFormatter.BUFFER_SIZE];
+        int start = JsonNumberFormatter.formatFloat(value, buffer);
+
+        assertEquals(expected, start < 0 ? null : new String(buffer, start, buffer.length - start));
+    }
+}
@@ -0,0 +1,181 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchema;
+import io.github.vmzakharov.ecdataframe.dsl.value.ValueType;
+import org.eclipse.collections.api.map.MutableMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonPartitionedWriteTest
+{
+    private final DataFrame sales = new DataFrame("sales")
+            .addStringColumn("region").addLongColumn("quantity").addDoubleColumn("price")
+            .addRow("EMEA", 10L, 100.5)
+            .addRow("APAC", 7L, 99.25)
+            .addRow("EMEA", 3L, 101.0)
+            .addRow(null, 12L, 98.75)
+            .addRow("North America", 5L, 100.0)
+            .addRow("APAC", 1L, 1.1)
+            .seal();
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp()
+    throws IOException
+    {
+        this.directory = Files.createTempDirectory("json-partitions");
+    }
+
+    @AfterEach
+    public void tearDown()
+    throws IOException
+    {
+        try (Stream<Path> files = Files.list(this.directory))
+        {
+            for (Path file : (Iterable<Path>) files::iterator)
+            {
+                Files.delete(file);
+            }
+        }
+
+        Files.delete(this.directory);
+    }
+
+    @Test
+    public void partitionsAreWrittenToFilesByKey()
+    {
+        this.assertPartitions(new JsonDataSet("json").schemaIncluded(true));
+        this.assertPartitions(new JsonDataSet("json").schemaIncluded(true).parallelism(3).omitNulls(true));
+    }
+
+    private void assertPartitions(JsonDataSet dataSet)
+    {
+        MutableMap<Object, Path> files = dataSet.writeJsonPartitions(this.sales, "region", this.directory);
+
+        assertEquals(4, files.size());
+        assertEquals(this.directory.resolve("sales-North_20America.json"), files.get("North America"));
+        assertEquals(this.directory.resolve("sales-_null.json"), files.get(null));
+
+        DataFrame emea = new DataFrame("sales")
+                .addStringColumn("region").addLongColumn("quantity").addDoubleColumn("price")
+                .addRow("EMEA", 10L, 100.5)
+                .addRow("EMEA", 3L, 101.0)
+                .seal();
+
+        DataFrame apac = new DataFrame("sales")
+                .addStringColumn("region").addLongColumn("quantity").addDoubleColumn("price")
+                .addRow("APAC", 7L, 99.25)
+                .addRow("APAC", 1L, 1.1)
+                .seal();
+
+        DataFrame noRegion = new DataFrame("sales")
+                .addStringColumn("region").addLongColumn("quantity").addDoubleColumn("price")
+                .addRow(null, 12L, 98.75)
+                .seal();
+
+        DataFrameTestUtil.assertEquals(emea, dataSet.readJson(files.get("EMEA")));
+        DataFrameTestUtil.assertEquals(apac, dataSet.readJson(files.get("APAC")));
+        DataFrameTestUtil.assertEquals(noRegion, dataSet.readJson(files.get(null)));
+    }
+
+    @Test
+    public void partitionsWithComputedColumnAndCustomFiles()
+    {
+        DataFrame withValue = this.sales.copy("sales").addColumn("value", ValueType.DOUBLE, "quantity * price").seal();
+
+        JsonDataSet dataSet = new JsonDataSet("json").dataOnly(true).parallelism(4);
+
+        MutableMap<Object, Path> files = dataSet.writeJsonPartitions(
+                withValue, "quantity", quantity -> this.directory.resolve("q" + quantity + ".json"));
+
+        assertEquals(6, files.size());
+
+        CsvSchema schema = new CsvSchema()
+                .addColumn("region", ValueType.STRING)
+                .addColumn("quantity", ValueType.LONG)
+                .addColumn("price", ValueType.DOUBLE)
+                .addColumn("value", ValueType.DOUBLE);
+
+        DataFrame read = new JsonDataSet("json", schema).dataOnly(true).readJson(this.directory.resolve("q12.json"));
+
+        assertEquals(12L * 98.75, read.getDouble("value", 0), 0.0);
+    }
+
+    @Test
+    public void keysWithSimilarNamesAreWrittenToDifferentFiles()
+    {
+        DataFrame keys = new DataFrame("x")
+                .addStringColumn("key").addLongColumn("value")
+                .addRow("a/b", 1L)
+                .addRow("a_b", 2L)
+                .addRow("a?b", 3L)
+                .addRow("null", 4L)
+                .addRow(null, 5L)
+                .seal();
+
+        JsonDataSet dataSet = new JsonDataSet("json").schemaIncluded(true).parallelism(2);
+
+        MutableMap<Object, Path> files = dataSet.writeJsonPartitions(keys, "key", this.directory);
+
+        assertEquals(5, files.toSet().size());
+        assertEquals(this.directory.resolve("x-a_2Fb.json"), files.get("a/b"));
+        assertEquals(this.directory.resolve("x-a_5Fb.json"), files.get("a_b"));
+
+        files.forEachKeyValue((key, file) -> assertEquals(1, dataSet.readJson(file).rowCount()));
+        assertEquals(3L, dataSet.readJson(files.get("a?b")).getLong("value", 0));
+    }
+
+    @Test
+    public void keysSharingFileAreRejected()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json");
+
+        assertThrows(RuntimeException.class, () -> dataSet.writeJsonPartitions(
+                this.sales, "region", region -> this.directory.resolve(region == null ? "none.json" : "some.json")));
+
+        assertEquals(0, this.directory.toFile().list().length);
+    }
+
+    @Test
+    public void manyPartitionsAreWrittenWithLimitedParallelism()
+    throws IOException
+    {
+        DataFrame values = new DataFrame("values").addLongColumn("id").addStringColumn("name").addColumn("doubled", ValueType.LONG, "id * 2");
+        for (int i = 0; i < 200; i++)
+        {
+            values.addRow((long) i, "n" + i % 50);
+        }
+        values.seal();
+
+        JsonMetricsSummary summary = new JsonMetricsSummary();
+        JsonDataSet dataSet = new JsonDataSet("json").schemaIncluded(true).parallelism(3).metricsListener(summary);
+
+        MutableMap<Object, Path> files = dataSet.writeJsonPartitions(values, "name", this.directory);
+
+        assertEquals(50, files.size());
+        assertEquals(4, dataSet.readJson(files.get("n7")).rowCount());
+        assertTrue(new String(Files.readAllBytes(files.get("n7")), StandardCharsets.UTF_8).contains("\"doubled\":14"));
+        assertEquals(1, summary.getOperationCount(JsonOperationMetrics.Operation.WRITE));
+    }
+
+    @Test
+    public void partitionsByColumnsAreNotSupported()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").dataByRows(false);
+
+        assertThrows(UnsupportedOperationException.class, () -> dataSet.writeJsonPartitions(this.sales, "region", this.directory));
+    }
+}
@@ -0,0 +1,113 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchema;
+import io.github.vmzakharov.ecdataframe.dsl.value.ValueType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonRowFlattenerTest
+{
+    private final String trades = "["
+            + "{\"tags\":[\"a\",\"b\"],\"trade\":{\"id\":1,\"px\":100.5,\"venue\":{\"code\":\"X\"}},\"book\":\"A\",\"ignored\":{\"x\":[1,2]}},"
+            + "{\"trade\":{\"px\":99.25,\"id\":2},\"tags\":[]},"
+            + "{\"book\":\"C\",\"trade\":{\"id\":3,\"venue\":{\"code\":\"Y\"}},\"tags\":[\"c\"]}"
+            + "]";
+
+    @Test
+    public void nestedValuesAreReadIntoColumns()
+    {
+        CsvSchema schema = new CsvSchema()
+                .addColumn("id", ValueType.LONG)
+                .addColumn("price", ValueType.DOUBLE)
+                .addColumn("venue", ValueType.STRING)
+                .addColumn("book", ValueType.STRING)
+                .addColumn("firstTag", ValueType.STRING);
+
+        JsonDataSet dataSet = new JsonDataSet("trades", schema)
+                .dataOnly(true)
+                .columnPath("id", "/trade/id")
+                .columnPath("price", "/trade/px")
+                .columnPath("venue", "/trade/venue/code")
+                .columnPath("firstTag", "/tags/0");
+
+        DataFrame expected = new DataFrame("trades")
+                .addLongColumn("id").addDoubleColumn("price").addStringColumn("venue").addStringColumn("book").addStringColumn("firstTag")
+                .addRow(1L, 100.5, "X", "A", "a")
+                .addRow(2L, 99.25, null, null, null)
+                .addRow(3L, null, "Y", "C", "c")
+                .seal();
+
+        DataFrameTestUtil.assertEquals(expected, dataSet.fromJsonString(this.trades));
+    }
+
+    @Test
+    public void explodedArrayElementsBecomeRows()
+    {
+        CsvSchema schema = new CsvSchema()
+                .addColumn("id", ValueType.LONG)
+                .addColumn("tag", ValueType.STRING)
+                .addColumn("book", ValueType.STRING);
+
+        JsonDataSet dataSet = new JsonDataSet("trades", schema)
+                .dataOnly(true)
+                .columnPath("id", "/trade/id")
+                .columnPath("tag", "/tags")
+                .explodedArray("/tags");
+
+        DataFrame expected = new DataFrame("trades")
+                .addLongColumn("id").addStringColumn("tag").addStringColumn("book")
+                .addRow(1L, "a", "A")
+                .addRow(1L, "b", "A")
+                .addRow(2L, null, null)
+                .addRow(3L, "c", "C")
+                .seal();
+
+        DataFrameTestUtil.assertEquals(expected, dataSet.fromJsonString(this.trades));
+    }
+
+    @Test
+    public void explodedObjectElementsWithEscapedNames()
+    {
+        String orders = "["
+                + "{\"legs\":[{\"qty\":5,\"a/b\":\"x\"},{\"side\":\"S\",\"qty\":7}],\"order\":\"o1\"},"
+                + "{\"order\":\"o2\",\"legs\":[{\"qty\":1,\"side\":\"B\"}]}"
+                + "]";
+
+        CsvSchema schema = new CsvSchema()
+                .addColumn("order", ValueType.STRING)
+                .addColumn("quantity", ValueType.INT)
+                .addColumn("side", ValueType.STRING)
+                .addColumn("odd", ValueType.STRING);
+
+        JsonDataSet dataSet = new JsonDataSet("legs", schema)
+                .dataOnly(true)
+                .columnPath("quantity", "/legs/qty")
+                .columnPath("side", "/legs/side")
+                .columnPath("odd", "/legs/a~1b")
+                .explodedArray("/legs");
+
+        DataFrame expected = new DataFrame("legs")
+                .addStringColumn("order").addIntColumn("quantity").addStringColumn("side").addStringColumn("odd")
+                .addRow("o1", 5, null, "x")
+                .addRow("o1", 7, "S", null)
+                .addRow("o2", 1, "B", null)
+                .seal();
+
+        DataFrameTestUtil.assertEquals(expected, dataSet.fromJsonString(orders));
+    }
+
+    @Test
+    public void invalidPathsAndLayoutsAreRejected()
+    {
+        JsonDataSet dataSet = new JsonDataSet("trades");
+
+        assertThrows(RuntimeException.class, () -> dataSet.columnPath("id", "trade/id"));
+
+        CsvSchema schema = new CsvSchema().addColumn("id", ValueType.LONG);
+        JsonDataSet byColumns = new JsonDataSet("trades", schema).dataOnly(true).dataByRows(false).columnPath("id", "/trade/id");
+
+        assertThrows(UnsupportedOperationException.class, () -> byColumns.fromJsonString("[]"));
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchema;
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.impl.factory.Lists;
+import org.eclipse.collections.impl.factory.primitive.IntLists;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static io.github.vmzakharov.ecdataframe.dsl.value.ValueType.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class JsonRowLayoutTest
+{
+    @Test
+    public void layoutsAreSharedByColumnNames()
+    {
+        JsonRowLayout layout = JsonRowLayout.forColumns(Lists.mutable.of("a", "b", "c"));
+
+        assertSame(layout, JsonRowLayout.forColumns(Lists.immutable.of("a", "b", "c")));
+        assertEquals(3, layout.columnCount());
+    }
+
+    @Test
+    public void columnsMatchedInAnyOrder()
+    throws IOException
+    {
+        JsonRowLayout layout = JsonRowLayout.forColumns(Lists.mutable.of("a", "b", "c"));
+
+        byte[] row = "{\"a\":1,\"x\":2,\"c\":3,\"b\":4}".getBytes(StandardCharsets.UTF_8);
+
+        MutableIntList columns = IntLists.mutable.empty();
+        try (JsonParser parser = new JsonFactory().createParser(row))
+        {
+            parser.nextToken();
+
+            int expectedColumn = 0;
+            int columnIndex = layout.nextColumn(parser, expectedColumn);
+            while (columnIndex != JsonRowLayout.END_OF_ROW)
+            {
+                columns.add(columnIndex);
+                parser.nextToken();
+                expectedColumn = columnIndex < 0 ? expectedColumn : columnIndex + 1;
+                columnIndex = layout.nextColumn(parser, expectedColumn);
+            }
+        }
+
+        assertEquals(IntLists.mutable.of(0, JsonRowLayout.UNKNOWN_COLUMN, 2, 1), columns);
+    }
+
+    @Test
+    public void readRowsWithFieldsOutOfOrder()
+    {
+        CsvSchema schema = new CsvSchema().addColumn("name", STRING).addColumn("count", LONG).addColumn("price", DOUBLE);
+
+        DataFrame dataFrame = new JsonDataSet("json", schema).dataOnly(true).fromJsonString("""
+                [
+                  {"name": "a", "count": 1, "price": 1.5},
+                  {"price": 2.5, "name": "b", "count": 2},
+                  {"count": 3, "extra": [1, 2], "name": "c"},
+                  {"name": "d", "price": 4.5}
+                ]""");
+
+        DataFrameTestUtil.assertEquals(
+                new DataFrame("json")
+                        .addStringColumn("name").addLongColumn("count").addDoubleColumn("price")
+                        .addRow("a", 1L, 1.5)
+                        .addRow("b", 2L, 2.5)
+                        .addRow("c", 3L, null)
+                        .addRow("d", null, 4.5)
+                        .seal(),
+                dataFrame);
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import org.eclipse.collections.api.list.primitive.IntList;
+import org.eclipse.collections.impl.factory.Lists;
+import org.eclipse.collections.impl.factory.primitive.IntLists;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonSelectionWriteTest
+{
+    private final DataFrame trades = new DataFrame("trades")
+            .addStringColumn("name").addLongColumn("quantity").addDoubleColumn("price").addLongColumn("id")
+            .addRow("Alice", 10L, 100.5, 1000L)
+            .addRow("Bob", null, 99.25, 1001L)
+            .addRow("Carl", 12L, 98.75, 1002L)
+            .addRow(null, 7L, 101.0, 1003L)
+            .addRow("Dan", 10L, null, 1004L)
+            .seal();
+
+    // the rows with a quantity of at least 10, in the descending order of id
+    private final IntList rowIndexes = IntLists.immutable.of(4, 2, 0);
+
+    private final DataFrame selected = new DataFrame("trades")
+            .addLongColumn("id").addStringColumn("name").addLongColumn("quantity")
+            .addRow(1004L, "Dan", 10L)
+            .addRow(1002L, "Carl", 12L)
+            .addRow(1000L, "Alice", 10L)
+            .seal();
+
+    @Test
+    public void selectionIsWrittenAsSelectedDataFrame()
+    {
+        this.assertWrittenAsSelected(new JsonDataSet("json").schemaIncluded(true));
+        this.assertWrittenAsSelected(new JsonDataSet("json").schemaIncluded(true).parallelism(2));
+        this.assertWrittenAsSelected(new JsonDataSet("json").dataByRows(false).omitNulls(true).compactNumbers(true));
+        this.assertWrittenAsSelected(new JsonDataSet("json").dataByRows(false).schemaIncluded(true).parallelism(3));
+        this.assertWrittenAsSelected(new JsonDataSet("json").dataOnly(true));
+    }
+
+    private void assertWrittenAsSelected(JsonDataSet dataSet)
+    {
+        String json = dataSet.toJsonString(this.trades, this.rowIndexes, Lists.immutable.of("id", "name", "quantity"));
+
+        assertEquals(dataSet.toJsonString(this.selected), json);
+    }
+
+    @Test
+    public void nullsAreWrittenInSelectionOrder()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").schemaIncluded(true).dataByRows(false).omitNulls(true).compactNumbers(true);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        dataSet.writeJson(this.trades, IntLists.immutable.of(3, 1, 4), null, outputStream);
+
+        DataFrame expected = new DataFrame("trades")
+                .addStringColumn("name").addLongColumn("quantity").addDoubleColumn("price").addLongColumn("id")
+                .addRow(null, 7L, 101.0, 1003L)
+                .addRow("Bob", null, 99.25, 1001L)
+                .addRow("Dan", 10L, null, 1004L)
+                .seal();
+
+        DataFrameTestUtil.assertEquals(expected, dataSet.fromJsonBytes(outputStream.toByteArray()));
+    }
+
+    @Test
+    public void allRowsOfSelectedColumns()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json").schemaIncluded(true);
+
+        DataFrame read = dataSet.fromJsonString(dataSet.toJsonString(this.trades, null, Lists.immutable.of("price")));
+
+        assertEquals(1, read.columnCount());
+        assertEquals(5, read.rowCount());
+        assertEquals(98.75, read.getDouble("price", 2), 0.0);
+    }
+
+    @Test
+    public void rowIndexesOutOfRangeAreRejected()
+    {
+        JsonDataSet dataSet = new JsonDataSet("json");
+
+        assertThrows(RuntimeException.class, () -> dataSet.toJsonString(this.trades, IntLists.immutable.of(0, 5), null));
+    }
+}
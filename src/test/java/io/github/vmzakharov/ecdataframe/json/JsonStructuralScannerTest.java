@@ -0,0 +1,178 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchema;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static io.github.vmzakharov.ecdataframe.dsl.value.ValueType.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class JsonStructuralScannerTest
+{
+    private Path directory;
+    private Path jsonFile;
+
+    @BeforeEach
+    public void setUp()
+    throws IOException
+    {
+        this.directory = Files.createTempDirectory("json-scanner");
+        this.jsonFile = this.directory.resolve("data.json");
+    }
+
+    @AfterEach
+    public void tearDown()
+    throws IOException
+    {
+        Files.deleteIfExists(this.jsonFile);
+        Files.deleteIfExists(this.directory);
+    }
+
+    @Test
+    public void rowsWithStructuralCharactersInStrings()
+    throws IOException
+    {
+        String json = """
+                { "name" : "tricky",
+                  "data" : [
+                    {"text": "a \\"quoted\\" {brace} [bracket]", "count": 1},
+                    {"text": "ends with a backslash \\\\", "count": 2, "extra": {"nested": [1, {"x": "]"}]}},
+                    {"text": "\\\\\\"", "count": 3}   ,
+                    {"text": "}}}]]]", "count": 4}
+                  ]
+                }
+                """;
+
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+        JsonIndex index = JsonStructuralScanner.forBytes(bytes).indexRows(json.indexOf('['), "tricky", null, null);
+
+        assertEquals(4, index.getRowCount());
+        assertEquals(1, index.getInterval());
+        assertEquals(this.rowOffsetsFoundByParser(bytes, 2), this.rowOffsets(index));
+        assertEquals(json.lastIndexOf(']'), index.dataEnd());
+    }
+
+    @Test
+    public void offsetsAreThinnedOutForManyRows()
+    throws IOException
+    {
+        DataFrame dataFrame = this.dataFrame(10_000);
+
+        byte[] bytes = new JsonDataSet("json").dataOnly(true).toJsonString(dataFrame).getBytes(StandardCharsets.UTF_8);
+
+        JsonIndex index = JsonStructuralScanner.forBytes(bytes).indexRows(0L, "json", null, null);
+
+        assertEquals(10_000, index.getRowCount());
+        assertEquals(4, index.getInterval());
+
+        MutableLongList everyRow = this.rowOffsetsFoundByParser(bytes, 1);
+        for (int entry = 0; entry < index.rowOffsetCount(); entry++)
+        {
+            assertEquals(everyRow.get(entry * index.getInterval()), index.rowOffset(entry));
+        }
+    }
+
+    @Test
+    public void parallelReadWithoutIndex()
+    throws IOException
+    {
+        DataFrame dataFrame = this.dataFrame(1_003);
+
+        JsonDataSet dataSet = new JsonDataSet("json").schemaIncluded(true);
+        dataSet.writeJson(dataFrame, this.jsonFile);
+
+        assertFalse(Files.exists(JsonIndex.sidecarPath(this.jsonFile)));
+
+        DataFrameTestUtil.assertEquals(dataFrame, new JsonDataSet("json").parallelism(4).readJson(this.jsonFile));
+    }
+
+    @Test
+    public void schemaAfterData()
+    throws IOException
+    {
+        Files.writeString(this.jsonFile, """
+                {"name": "late", "data": [{"count": 1}, {"count": 2}], "schema": [{"Name": "count", "Type": "LONG", "Stored": "Y"}]}
+                """);
+
+        try (JsonParser parser = new JsonFactory().createParser(this.jsonFile.toFile()))
+        {
+            assertNull(new JsonDataFrameReader(new JsonDataSet("json"), false)
+                    .indexRows(parser, JsonStructuralScanner.forFile(this.jsonFile)));
+        }
+
+        CsvSchema schema = new CsvSchema().addColumn("count", LONG);
+        DataFrameTestUtil.assertEquals(
+                new DataFrame("late").addLongColumn("count").addRow(1L).addRow(2L).seal(),
+                new JsonDataSet("json", schema).parallelism(2).readJson(this.jsonFile));
+    }
+
+    private DataFrame dataFrame(int rowCount)
+    {
+        DataFrame dataFrame = new DataFrame("scanned").addStringColumn("text").addLongColumn("count");
+
+        for (int i = 0; i < rowCount; i++)
+        {
+            dataFrame.addRow(i % 7 == 0 ? "\"quoted\" [" + i + "] \\" : "row " + i, (long) i);
+        }
+
+        return dataFrame.seal();
+    }
+
+    private MutableLongList rowOffsets(JsonIndex index)
+    {
+        MutableLongList offsets = LongLists.mutable.empty();
+        for (int entry = 0; entry < index.rowOffsetCount(); entry++)
+        {
+            offsets.add(index.rowOffset(entry));
+        }
+
+        return offsets;
+    }
+
+    private MutableLongList rowOffsetsFoundByParser(byte[] bytes, int rowDepth)
+    throws IOException
+    {
+        MutableLongList offsets = LongLists.mutable.empty();
+
+        try (JsonParser parser = new JsonFactory().createParser(bytes))
+        {
+            int depth = 0;
+            JsonToken token = parser.nextToken();
+            while (token != null)
+            {
+                if (token.isStructStart())
+                {
+                    if (depth == rowDepth && token == JsonToken.START_OBJECT)
+                    {
+                        offsets.add(parser.currentTokenLocation().getByteOffset());
+                    }
+
+                    depth++;
+                }
+                else if (token.isStructEnd())
+                {
+                    depth--;
+                }
+
+                token = parser.nextToken();
+            }
+        }
+
+        return offsets;
+    }
+}
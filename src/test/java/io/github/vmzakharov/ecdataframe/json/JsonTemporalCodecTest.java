@@ -0,0 +1,136 @@
+package io.github.vmzakharov.ecdataframe.json;
+
+import io.github.vmzakharov.ecdataframe.dataframe.DataFrame;
+import io.github.vmzakharov.ecdataframe.dataset.CsvSchema;
+import io.github.vmzakharov.ecdataframe.dsl.value.ValueType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonTemporalCodecTest
+{
+    @Test
+    public void formattingMatchesIsoFormatters()
+    {
+        Random random = new Random(29L);
+        char[] buffer = new char[JsonTemporalCodec.BUFFER_SIZE];
+
+        for (int i = 0; i < 20_000; i++)
+        {
+            LocalDate date = LocalDate.ofEpochDay(random.nextInt(3_000_000) - 700_000);
+            int nano = switch (i % 4)
+            {
+                case 0 -> 0;
+                case 1 -> random.nextInt(1000) * 1_000_000;
+                case 2 -> random.nextInt(1_000_000) * 1000;
+                default -> random.nextInt(1_000_000_000);
+            };
+            LocalDateTime dateTime = date.atTime(random.nextInt(24), random.nextInt(60), random.nextInt(60), nano);
+
+            int dateStart = JsonTemporalCodec.formatDate(date, buffer);
+            assertEquals(
+                    DateTimeFormatter.ISO_DATE.format(date),
+                    new String(buffer, dateStart, buffer.length - dateStart));
+
+            int dateTimeStart = JsonTemporalCodec.formatDateTime(dateTime, buffer);
+            String formatted = new String(buffer, dateTimeStart, buffer.length - dateTimeStart);
+            assertEquals(DateTimeFormatter.ISO_DATE_TIME.format(dateTime), formatted);
+
+            assertEquals(dateTime, JsonTemporalCodec.parseDateTime(formatted.toCharArray(), 0, formatted.length()));
+        }
+    }
+
+    @Test
+    public void yearsOutsideOfFourDigitsAreNotFormatted()
+    {
+        char[] buffer = new char[JsonTemporalCodec.BUFFER_SIZE];
+
+        assertEquals(-1, JsonTemporalCodec.formatDate(LocalDate.of(10_000, 1, 1), buffer));
+        assertEquals(-1, JsonTemporalCodec.formatDate(LocalDate.of(-1, 12, 31), buffer));
+        assertEquals(-1, JsonTemporalCodec.formatDateTime(LocalDateTime.of(12_345, 6, 7, 8, 9), buffer));
+    }
+
+    @Test
+    public void parseDates()
+    {
+        assertEquals(LocalDate.of(2024, 11, 12), this.parseDate("2024-11-12"));
+        assertEquals(LocalDate.of(2024, 2, 29), this.parseDate("2024-2-29"));
+        assertEquals(LocalDate.of(1, 1, 1), this.parseDate("0001-01-01"));
+        assertEquals(LocalDate.of(2024, 9, 2), this.parseDate("2024-9-2"));
+
+        assertNull(this.parseDate("2023-02-29"));
+        assertNull(this.parseDate("2024-04-31"));
+        assertNull(this.parseDate("2024-13-01"));
+        assertNull(this.parseDate("2024-00-10"));
+        assertNull(this.parseDate("2024-01-00"));
+        assertNull(this.parseDate("2024-011-01"));
+        assertNull(this.parseDate("24-01-01"));
+        assertNull(this.parseDate("2024/01/01"));
+        assertNull(this.parseDate("2024-01-01T"));
+        assertNull(this.parseDate(""));
+    }
+
+    @Test
+    public void parseDateTimes()
+    {
+        assertEquals(LocalDateTime.of(2024, 11, 12, 20, 38, 45), this.parseDateTime("2024-11-12T20:38:45"));
+        assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4, 5), this.parseDateTime("2024-1-2T3:4:5"));
+        assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 500_000_000), this.parseDateTime("2024-01-02T03:04:05.5"));
+        assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 123_456_789), this.parseDateTime("2024-01-02T03:04:05.123456789"));
+
+        assertNull(this.parseDateTime("2024-01-02"));
+        assertNull(this.parseDateTime("2024-01-02T03:04"));
+        assertNull(this.parseDateTime("2024-01-02T24:00:00"));
+        assertNull(this.parseDateTime("2024-01-02T23:60:00"));
+        assertNull(this.parseDateTime("2024-01-02T23:59:60"));
+        assertNull(this.parseDateTime("2024-01-02T03:04:05."));
+        assertNull(this.parseDateTime("2024-01-02T03:04:05.1234567890"));
+        assertNull(this.parseDateTime("2024-01-02T03:04:05Z"));
+        assertNull(this.parseDateTime("2024-02-30T03:04:05"));
+    }
+
+    @Test
+    public void readValuesWithFastAndStandardParsing()
+    {
+        CsvSchema schema = new CsvSchema()
+                .addColumn("aDate", ValueType.DATE)
+                .addColumn("aDateTime", ValueType.DATE_TIME)
+                .addColumn("aFormattedDate", ValueType.DATE, "dd/MM/uuuu");
+
+        JsonDataSet dataSet = new JsonDataSet("json", schema).dataOnly(true);
+
+        DataFrame dataFrame = dataSet.fromJsonString("""
+                [\
+                {"aDate":"2024-11-12","aDateTime":"2024-11-12T20:38:45.25","aFormattedDate":"12/11/2024"},\
+                {"aDate":"2024-9-2","aDateTime":null,"aFormattedDate":null}\
+                ]""");
+
+        DataFrameTestUtil.assertEquals(
+                new DataFrame("expected")
+                        .addDateColumn("aDate").addDateTimeColumn("aDateTime").addDateColumn("aFormattedDate")
+                        .addRow(LocalDate.of(2024, 11, 12), LocalDateTime.of(2024, 11, 12, 20, 38, 45, 250_000_000), LocalDate.of(2024, 11, 12))
+                        .addRow(LocalDate.of(2024, 9, 2), null, null),
+                dataFrame);
+
+        assertThrows(RuntimeException.class,
+                () -> dataSet.fromJsonString("[{\"aDate\":\"2023-02-29\",\"aDateTime\":null,\"aFormattedDate\":null}]"));
+    }
+
+    private LocalDate parseDate(String text)
+    {
+        return JsonTemporalCodec.parseDate(text.toCharArray(), 0, text.length());
+    }
+
+    private LocalDateTime parseDateTime(String text)
+    {
+        String padded = "[" + text + "]";
+        return JsonTemporalCodec.parseDateTime(padded.toCharArray(), 1, text.length());
+    }
+}